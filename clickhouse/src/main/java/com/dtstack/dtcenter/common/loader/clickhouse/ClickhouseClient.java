@@ -189,7 +189,12 @@ public class ClickhouseClient extends AbsRdbmsClient {
     @Override
     public IDownloader getDownloader(ISourceDTO source, SqlQueryDTO queryDTO) throws Exception {
         ClickHouseSourceDTO clickHouseSourceDTO = (ClickHouseSourceDTO) source;
-        ClickHouseDownloader clickHouseDownloader = new ClickHouseDownloader(getCon(clickHouseSourceDTO), queryDTO.getSql(), clickHouseSourceDTO.getSchema());
+        if (isStreamDownload(queryDTO)) {
+            // clickhouse 驱动本身按流读取结果，使用 USE 切换库
+            String switchSchemaSql = StringUtils.isNotEmpty(clickHouseSourceDTO.getSchema()) ? String.format("USE %s", clickHouseSourceDTO.getSchema()) : null;
+            return getStreamDownloader(source, queryDTO, switchSchemaSql);
+        }
+        ClickHouseDownloader clickHouseDownloader = new ClickHouseDownloader(getCon(clickHouseSourceDTO), queryDTO.getSql(), clickHouseSourceDTO.getSchema(), getRowCountMode(queryDTO));
         clickHouseDownloader.configure();
         return clickHouseDownloader;
     }
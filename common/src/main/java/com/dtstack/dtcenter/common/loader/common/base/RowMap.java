@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.common.base;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 查询结果中的一行，字段值以 Object[] 存储，字段信息由同一个结果集的所有行共用
+ * <p>
+ * 对外仍然是按字段顺序迭代的 Map，兼容原先 LinkedHashMap 的用法：修改已有字段的值直接写入数组，
+ * 新增或删除字段时复制为 LinkedHashMap 后再操作
+ */
+public class RowMap extends AbstractMap<String, Object> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final RowSchema schema;
+
+    private final Object[] values;
+
+    /**
+     * 新增或删除字段后的数据，不为 null 时所有操作都委托给它
+     */
+    private Map<String, Object> detached;
+
+    private transient Set<Entry<String, Object>> entrySet;
+
+    public RowMap(RowSchema schema, Object[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * 按字段下标获取值
+     *
+     * @param index 字段下标，从 0 开始
+     * @return 值
+     */
+    public Object getValue(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return detached != null ? detached.size() : schema.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return detached != null ? detached.containsKey(key) : schema.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (detached != null) {
+            return detached.get(key);
+        }
+        int index = schema.indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (detached == null) {
+            int index = schema.indexOf(key);
+            if (index >= 0) {
+                Object old = values[index];
+                values[index] = value;
+                return old;
+            }
+        }
+        return detach().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (detached == null && schema.indexOf(key) < 0) {
+            return null;
+        }
+        return detach().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        detach().clear();
+    }
+
+    private Map<String, Object> detach() {
+        if (detached == null) {
+            Map<String, Object> copy = new LinkedHashMap<>(Math.max(16, schema.size() * 2));
+            for (int i = 0; i < schema.size(); i++) {
+                copy.put(schema.getColumn(i), values[i]);
+            }
+            detached = copy;
+            entrySet = null;
+        }
+        return detached;
+    }
+
+    /**
+     * 未新增或删除字段时，迭代器不支持 remove，需要删除字段时使用 {@link #remove(Object)}
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (detached != null) {
+            return detached.entrySet();
+        }
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < schema.size();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            return new RowEntry(index++);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return schema.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private class RowEntry implements Entry<String, Object> {
+
+        private final int index;
+
+        private RowEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return schema.getColumn(index);
+        }
+
+        @Override
+        public Object getValue() {
+            return values[index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.common.base;
+
+import com.dtstack.dtcenter.common.loader.common.utils.DBUtil;
+import com.google.common.collect.Maps;
+
+import java.io.Serializable;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查询结果的字段信息，同一个 ResultSet 的所有行共用一份
+ * 重复字段名在构建时按 {@link DBUtil#dealRepeatColumn} 的规则处理一次，不再每行处理
+ */
+public final class RowSchema implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 处理重复后的字段名，按第一次出现的顺序
+     */
+    private final String[] columns;
+
+    /**
+     * 字段名 -> 字段下标
+     */
+    private final Map<String, Integer> indexes;
+
+    /**
+     * ResultSet 中第 i 个字段对应的字段下标，重命名后仍然重复的字段会指向同一个下标，后面的值覆盖前面的值
+     */
+    private final int[] slots;
+
+    private RowSchema(String[] columns, Map<String, Integer> indexes, int[] slots) {
+        this.columns = columns;
+        this.indexes = indexes;
+        this.slots = slots;
+    }
+
+    /**
+     * 根据结果集元数据构建，字段名使用 columnLabel
+     *
+     * @param metaData 结果集元数据
+     * @return 字段信息
+     * @throws SQLException 异常
+     */
+    public static RowSchema of(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        List<String> labels = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            labels.add(metaData.getColumnLabel(i));
+        }
+        return of(labels);
+    }
+
+    /**
+     * 根据字段名构建
+     *
+     * @param labels 字段名，可以重复
+     * @return 字段信息
+     */
+    public static RowSchema of(List<String> labels) {
+        // 和原先逐行处理的方式保持一致，字段名作为 key 依次放入 map
+        Map<String, Object> names = Maps.newLinkedHashMap();
+        Map<String, Integer> columnRepeatSign = Maps.newHashMap();
+        String[] resolved = new String[labels.size()];
+        for (int i = 0; i < labels.size(); i++) {
+            resolved[i] = DBUtil.dealRepeatColumn(names, labels.get(i), columnRepeatSign);
+            names.put(resolved[i], null);
+        }
+        String[] columns = names.keySet().toArray(new String[0]);
+        Map<String, Integer> indexes = Maps.newHashMapWithExpectedSize(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            indexes.put(columns[i], i);
+        }
+        int[] slots = new int[resolved.length];
+        for (int i = 0; i < resolved.length; i++) {
+            slots[i] = indexes.get(resolved[i]);
+        }
+        return new RowSchema(columns, Collections.unmodifiableMap(indexes), slots);
+    }
+
+    /**
+     * 字段个数
+     *
+     * @return 字段个数
+     */
+    public int size() {
+        return columns.length;
+    }
+
+    public String getColumn(int index) {
+        return columns[index];
+    }
+
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    /**
+     * 获取字段下标
+     *
+     * @param column 字段名
+     * @return 字段下标，不存在时返回 -1
+     */
+    public int indexOf(Object column) {
+        Integer index = indexes.get(column);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * ResultSet 中的字段个数
+     *
+     * @return 字段个数
+     */
+    public int getResultColumnCount() {
+        return slots.length;
+    }
+
+    /**
+     * 获取 ResultSet 中第 resultIndex 个字段对应的字段下标
+     *
+     * @param resultIndex ResultSet 中的字段下标，从 0 开始
+     * @return 字段下标
+     */
+    public int getSlot(int resultIndex) {
+        return slots[resultIndex];
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.common.cursor;
+
+import com.dtstack.dtcenter.loader.IQueryCursor;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于已查询结果的游标，用于不支持服务端游标的数据源，只是按批返回 executeQuery 的结果
+ */
+public class ListQueryCursor implements IQueryCursor {
+
+    private final List<String> columnNames;
+
+    private final int batchSize;
+
+    private List<Map<String, Object>> result;
+
+    private int position;
+
+    public ListQueryCursor(List<Map<String, Object>> result, int batchSize) {
+        this.result = CollectionUtils.isEmpty(result) ? Collections.emptyList() : result;
+        this.batchSize = batchSize > 0 ? batchSize : Math.max(this.result.size(), 1);
+        this.columnNames = this.result.isEmpty() ? Collections.emptyList() : new ArrayList<>(this.result.get(0).keySet());
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < result.size();
+    }
+
+    @Override
+    public List<Map<String, Object>> nextBatch() {
+        if (!hasNext()) {
+            return Collections.emptyList();
+        }
+        int end = Math.min(position + batchSize, result.size());
+        List<Map<String, Object>> batch = new ArrayList<>(result.subList(position, end));
+        position = end;
+        return batch;
+    }
+
+    @Override
+    public void close() {
+        result = Collections.emptyList();
+        position = 0;
+    }
+}
@@ -18,8 +18,10 @@
 
 package com.dtstack.dtcenter.common.loader.common.nosql;
 
+import com.dtstack.dtcenter.common.loader.common.cursor.ListQueryCursor;
 import com.dtstack.dtcenter.common.loader.common.exception.ErrorCode;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.IQueryCursor;
 import com.dtstack.dtcenter.loader.client.IClient;
 import com.dtstack.dtcenter.loader.dto.ColumnMetaDTO;
 import com.dtstack.dtcenter.loader.dto.Database;
@@ -32,6 +34,7 @@ import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import java.sql.Connection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * 非关系型数据库抽象类，用于屏蔽一些不需要实现的方法
@@ -57,6 +60,19 @@ public abstract class AbsNoSqlClient<T> implements IClient<T> {
         throw new DtLoaderException(ErrorCode.NOT_SUPPORT.getDesc());
     }
 
+    /**
+     * 默认按批返回 executeQuery 的查询结果，支持服务端游标的数据源需要重写
+     *
+     * @param source   数据源信息
+     * @param queryDTO 查询信息
+     * @return 查询游标
+     */
+    @Override
+    public IQueryCursor executeQueryStream(ISourceDTO source, SqlQueryDTO queryDTO) {
+        Integer fetchSize = Objects.nonNull(queryDTO) ? queryDTO.getFetchSize() : null;
+        return new ListQueryCursor(executeQuery(source, queryDTO), Objects.nonNull(fetchSize) ? fetchSize : 0);
+    }
+
     @Override
     public Boolean executeSqlWithoutResultSet(ISourceDTO source, SqlQueryDTO queryDTO) {
         throw new DtLoaderException(ErrorCode.NOT_SUPPORT.getDesc());
@@ -19,12 +19,13 @@
 package com.dtstack.dtcenter.common.loader.common.utils;
 
 import com.dtstack.dtcenter.common.loader.common.base.CallBack;
+import com.dtstack.dtcenter.common.loader.common.base.RowMap;
+import com.dtstack.dtcenter.common.loader.common.base.RowSchema;
 import com.dtstack.dtcenter.loader.dto.SqlQueryDTO;
 import com.dtstack.dtcenter.loader.dto.source.RdbmsSourceDTO;
 import com.dtstack.dtcenter.loader.enums.ConnectionClearStatus;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.BooleanUtils;
@@ -97,25 +98,10 @@ public class DBUtil {
 
             if (statement.execute(sql)) {
                 res = statement.getResultSet();
-                int columns = res.getMetaData().getColumnCount();
-                List<String> columnName = Lists.newArrayList();
-                for (int i = 0; i < columns; i++) {
-                    columnName.add(res.getMetaData().getColumnLabel(i + 1));
-                }
-
+                // 字段名只处理一次，所有行共用
+                RowSchema rowSchema = RowSchema.of(res.getMetaData());
                 while (res.next()) {
-                    Map<String, Object> row = Maps.newLinkedHashMap();
-                    Map<String, Integer> columnRepeatSign = Maps.newHashMap();
-                    for (int i = 0; i < columns; i++) {
-                        String column = dealRepeatColumn(row, columnName.get(i), columnRepeatSign);
-                        Object value = res.getObject(i + 1);
-                        // 增加字段处理
-                        if (Objects.nonNull(fieldProcess)) {
-                            value = fieldProcess.execute(value);
-                        }
-                        row.put(column, value);
-                    }
-                    result.add(row);
+                    result.add(readRow(res, rowSchema, fieldProcess));
                 }
             }
 
@@ -163,25 +149,10 @@ public class DBUtil {
                 }
             }
             res = statement.executeQuery();
-            int columns = res.getMetaData().getColumnCount();
-            List<String> columnName = Lists.newArrayList();
-            for (int i = 0; i < columns; i++) {
-                columnName.add(res.getMetaData().getColumnLabel(i + 1));
-            }
-
+            // 字段名只处理一次，所有行共用
+            RowSchema rowSchema = RowSchema.of(res.getMetaData());
             while (res.next()) {
-                Map<String, Object> row = Maps.newLinkedHashMap();
-                Map<String, Integer> columnRepeatSign = Maps.newHashMap();
-                for (int i = 0; i < columns; i++) {
-                    String column = dealRepeatColumn(row, columnName.get(i), columnRepeatSign);
-                    Object value = res.getObject(i + 1);
-                    // 增加字段处理
-                    if (Objects.nonNull(fieldProcess)) {
-                        value = fieldProcess.execute(value);
-                    }
-                    row.put(column, value);
-                }
-                result.add(row);
+                result.add(readRow(res, rowSchema, fieldProcess));
             }
         } catch (Exception e) {
             throw new DtLoaderException(String.format("SQL executed exception, %s", e.getMessage()), e);
@@ -191,6 +162,28 @@ public class DBUtil {
         return result;
     }
 
+    /**
+     * 读取结果集当前行，返回共用字段信息的 {@link RowMap}
+     *
+     * @param res          结果集
+     * @param rowSchema    字段信息
+     * @param fieldProcess 字段处理，可以为 null
+     * @return 当前行数据
+     * @throws SQLException 异常
+     */
+    public static Map<String, Object> readRow(ResultSet res, RowSchema rowSchema, CallBack<Object, Object> fieldProcess) throws SQLException {
+        Object[] values = new Object[rowSchema.size()];
+        for (int i = 0; i < rowSchema.getResultColumnCount(); i++) {
+            Object value = res.getObject(i + 1);
+            // 增加字段处理
+            if (Objects.nonNull(fieldProcess)) {
+                value = fieldProcess.execute(value);
+            }
+            values[rowSchema.getSlot(i)] = value;
+        }
+        return new RowMap(rowSchema, values);
+    }
+
     /**
      * 处理 executeQuery 查询结果字段重复字段
      *
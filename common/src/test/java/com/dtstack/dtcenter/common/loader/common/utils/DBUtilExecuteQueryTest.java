@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.common.utils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DBUtil.executeQuery 结果行测试，包含每行内存分配的对比
+ */
+@Slf4j
+public class DBUtilExecuteQueryTest {
+
+    private static final int ROWS = 5000;
+
+    private static final int COLUMNS = 50;
+
+    @Test
+    public void executeQueryWithRepeatColumn() {
+        List<String> labels = Lists.newArrayList("id", "name", "id", "id", "name");
+        List<Map<String, Object>> result = DBUtil.executeQuery(mockConnection(labels, 2), "select");
+        Assert.assertEquals(2, result.size());
+        Map<String, Object> row = result.get(0);
+        Assert.assertEquals(Lists.newArrayList("id", "name", "id(1)", "id(2)", "name(1)"), new ArrayList<>(row.keySet()));
+        Assert.assertEquals("0-2", row.get("id(1)"));
+        // 和原先逐行处理的结果一致
+        Assert.assertEquals(legacyRows(labels, 2).get(0), row);
+    }
+
+    @Test
+    public void rowMapCompatibleWithLinkedHashMap() {
+        List<String> labels = Lists.newArrayList("a", "b", "c");
+        Map<String, Object> row = DBUtil.executeQuery(mockConnection(labels, 1), "select").get(0);
+        Map<String, Object> expect = legacyRows(labels, 1).get(0);
+        Assert.assertEquals(expect, row);
+        Assert.assertEquals(expect.hashCode(), row.hashCode());
+        Assert.assertNull(row.get("d"));
+        Assert.assertFalse(row.containsKey("d"));
+
+        // 修改已有字段
+        Assert.assertEquals("0-1", row.put("b", "x"));
+        Assert.assertEquals("x", row.get("b"));
+
+        // 新增、删除字段
+        row.put("d", 1);
+        row.remove("a");
+        Assert.assertEquals(Lists.newArrayList("b", "c", "d"), new ArrayList<>(row.keySet()));
+        Assert.assertEquals(1, row.get("d"));
+    }
+
+    /**
+     * 对比原先每行 LinkedHashMap + 重复字段处理与共用字段信息的 Object[] 行的内存分配
+     */
+    @Test
+    public void allocationPerRow() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assert.assertTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        long threadId = Thread.currentThread().getId();
+        List<String> labels = new ArrayList<>(COLUMNS);
+        for (int i = 0; i < COLUMNS; i++) {
+            labels.add("column_" + i);
+        }
+
+        // 预热
+        for (int i = 0; i < 3; i++) {
+            legacyRows(labels, ROWS);
+            DBUtil.executeQuery(mockConnection(labels, ROWS), "select");
+        }
+
+        // 数据本身的分配两种方式相同，只对比差值
+        long start = mxBean.getThreadAllocatedBytes(threadId);
+        legacyRows(labels, ROWS);
+        long legacy = mxBean.getThreadAllocatedBytes(threadId) - start;
+
+        start = mxBean.getThreadAllocatedBytes(threadId);
+        DBUtil.executeQuery(mockConnection(labels, ROWS), "select");
+        long compact = mxBean.getThreadAllocatedBytes(threadId) - start;
+
+        log.info("{} rows x {} columns, allocated bytes per row: LinkedHashMap {}, RowMap {}",
+                ROWS, COLUMNS, legacy / ROWS, compact / ROWS);
+        Assert.assertTrue(compact < legacy);
+    }
+
+    /**
+     * 原先 DBUtil.executeQuery 的逐行处理方式
+     */
+    private static List<Map<String, Object>> legacyRows(List<String> labels, int rows) {
+        List<Map<String, Object>> result = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            Map<String, Integer> columnRepeatSign = Maps.newHashMap();
+            for (int i = 0; i < labels.size(); i++) {
+                String column = DBUtil.dealRepeatColumn(row, labels.get(i), columnRepeatSign);
+                row.put(column, value(r, i));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    private static String value(int row, int column) {
+        return row + "-" + column;
+    }
+
+    private static Connection mockConnection(List<String> labels, int rows) {
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> {
+            switch (method) {
+                case "getColumnCount":
+                    return labels.size();
+                case "getColumnLabel":
+                    return labels.get((Integer) args[0] - 1);
+                default:
+                    throw new SQLException("not support " + method);
+            }
+        });
+        int[] cursor = {-1};
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "getMetaData":
+                    return metaData;
+                case "next":
+                    return ++cursor[0] < rows;
+                case "getObject":
+                    return value(cursor[0], (Integer) args[0] - 1);
+                case "close":
+                    return null;
+                default:
+                    throw new SQLException("not support " + method);
+            }
+        });
+        Statement statement = proxy(Statement.class, (method, args) -> {
+            switch (method) {
+                case "execute":
+                    return true;
+                case "getResultSet":
+                    return resultSet;
+                case "setMaxRows":
+                case "close":
+                    return null;
+                default:
+                    throw new SQLException("not support " + method);
+            }
+        });
+        return proxy(Connection.class, (method, args) -> {
+            if ("createStatement".equals(method)) {
+                return statement;
+            }
+            throw new SQLException("not support " + method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> clazz, MockHandler handler) {
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+
+    @FunctionalInterface
+    private interface MockHandler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+}
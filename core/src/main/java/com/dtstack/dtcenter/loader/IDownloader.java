@@ -18,6 +18,9 @@
 
 package com.dtstack.dtcenter.loader;
 
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+
 import java.util.List;
 
 /**
@@ -83,4 +86,30 @@ public interface IDownloader {
      * @throws Exception
      */
     List<String> getContainers();
+
+    /**
+     * 获取总条数，未统计或不支持统计时返回 null
+     * 默认方法，保证低版本插件包中的下载器仍然可用
+     *
+     * @return 总条数
+     * @see com.dtstack.dtcenter.loader.enums.RowCountMode
+     */
+    default Long getTotalLine() {
+        return null;
+    }
+
+    /**
+     * 批量读取，一次最多返回 maxRows 条数据，以列式结构返回，读取完毕时返回空的批数据
+     * 通过代理调用时每批只切换一次 classloader，适合导出等需要读取全部数据的场景
+     * 默认方法，未实现的下载器抛出不支持异常
+     * <p>
+     * 实现需要和 reachedEnd、readNext 交替调用的语义保持一致：批数据读满时立即返回，
+     * 不再移动读取位置，下一批或下一次 readNext 从未返回的第一条数据开始读取
+     *
+     * @param maxRows 最大条数
+     * @return 列式批数据
+     */
+    default ColumnBatch readNextBatch(int maxRows) {
+        throw new DtLoaderException("Not Support");
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.loader;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式查询游标，由调用方按批拉取查询结果，同一时刻只在内存中保留一批数据
+ * 只有调用 nextBatch 时才会继续从数据源读取，调用方处理不过来时不再拉取数据
+ * 使用完毕后必须调用 close 释放游标和连接
+ */
+public interface IQueryCursor extends AutoCloseable {
+
+    /**
+     * 获取字段名，不确定字段时返回空集合
+     *
+     * @return 字段名
+     */
+    List<String> getColumnNames();
+
+    /**
+     * 是否还有未读取的数据
+     *
+     * @return 是否还有数据
+     */
+    boolean hasNext();
+
+    /**
+     * 读取下一批数据，格式和 executeQuery 的返回值一致，读取完毕时返回空集合
+     *
+     * @return 下一批数据
+     */
+    List<Map<String, Object>> nextBatch();
+
+    /**
+     * 关闭游标，释放数据源资源
+     */
+    @Override
+    void close();
+}
@@ -19,6 +19,7 @@
 package com.dtstack.dtcenter.loader.client;
 
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.IQueryCursor;
 import com.dtstack.dtcenter.loader.dto.ColumnMetaDTO;
 import com.dtstack.dtcenter.loader.dto.Database;
 import com.dtstack.dtcenter.loader.dto.SqlQueryDTO;
@@ -76,6 +77,17 @@ public interface IClient<T> {
      */
     List<Map<String, Object>> executeQuery(ISourceDTO source, SqlQueryDTO queryDTO);
 
+    /**
+     * 流式执行查询，不受 executeQuery 最大条数限制，结果通过游标按批拉取
+     * 每批条数及 JDBC fetchSize 取 queryDTO 中的 fetchSize，queryTimeout 为查询超时时间
+     *
+     * @param source
+     * @param queryDTO 必填项 sql
+     * @return 查询游标，使用完毕后需要关闭
+     * @throws Exception
+     */
+    IQueryCursor executeQueryStream(ISourceDTO source, SqlQueryDTO queryDTO);
+
     /**
      * 执行查询，无需结果集
      *
@@ -345,7 +345,8 @@ public interface IHdfsFile {
     int writeByName(ISourceDTO source, HdfsWriterDTO hdfsWriterDTO);
 
     /**
-     * 批量统计文件夹内容摘要，包括文件的数量，文件夹的数量，文件变动时间，以及这个文件夹的占用存储等内容
+     * 批量统计文件夹内容摘要，包括文件的数量，文件夹的数量，文件变动时间，以及这个文件夹的占用存储等内容，
+     * 路径并发处理，单个路径获取失败时该路径摘要的 errorMessage 不为空，所有路径都失败时抛出异常
      *
      * @param source 数据源信息
      * @param hdfsDirPaths hdfs上文件路径集合
@@ -20,8 +20,10 @@ package com.dtstack.dtcenter.loader.client.sql;
 
 import com.dtstack.dtcenter.loader.ClassLoaderCallBackMethod;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.IQueryCursor;
 import com.dtstack.dtcenter.loader.client.IClient;
 import com.dtstack.dtcenter.loader.downloader.DownloaderProxy;
+import com.dtstack.dtcenter.loader.downloader.QueryCursorProxy;
 import com.dtstack.dtcenter.loader.dto.ColumnMetaDTO;
 import com.dtstack.dtcenter.loader.dto.Database;
 import com.dtstack.dtcenter.loader.dto.SqlQueryDTO;
@@ -72,6 +74,12 @@ public class DataSourceClientProxy<T> implements IClient<T> {
                 targetClient.getClass().getClassLoader());
     }
 
+    @Override
+    public IQueryCursor executeQueryStream(ISourceDTO source, SqlQueryDTO queryDTO) {
+        return ClassLoaderCallBackMethod.callbackAndReset(() -> new QueryCursorProxy(targetClient.executeQueryStream(source, queryDTO)),
+                targetClient.getClass().getClassLoader());
+    }
+
     @Override
     public Boolean executeSqlWithoutResultSet(ISourceDTO source, SqlQueryDTO queryDTO) {
         return ClassLoaderCallBackMethod.callbackAndReset(() -> targetClient.executeSqlWithoutResultSet(source,
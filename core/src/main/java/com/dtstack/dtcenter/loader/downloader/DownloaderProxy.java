@@ -20,6 +20,7 @@ package com.dtstack.dtcenter.loader.downloader;
 
 import com.dtstack.dtcenter.loader.ClassLoaderCallBackMethod;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
 
 import java.util.List;
 
@@ -81,4 +82,16 @@ public class DownloaderProxy implements IDownloader {
         return ClassLoaderCallBackMethod.callbackAndReset(() -> targetDownloader.getContainers(),
                 targetDownloader.getClass().getClassLoader());
     }
+
+    @Override
+    public Long getTotalLine() {
+        return ClassLoaderCallBackMethod.callbackAndReset(() -> targetDownloader.getTotalLine(),
+                targetDownloader.getClass().getClassLoader());
+    }
+
+    @Override
+    public ColumnBatch readNextBatch(int maxRows) {
+        return ClassLoaderCallBackMethod.callbackAndReset(() -> targetDownloader.readNextBatch(maxRows),
+                targetDownloader.getClass().getClassLoader());
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.loader.downloader;
+
+import com.dtstack.dtcenter.loader.ClassLoaderCallBackMethod;
+import com.dtstack.dtcenter.loader.IQueryCursor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IQueryCursor代理类，作用同 {@link DownloaderProxy}，每批数据只切换一次 ContextClassLoader
+ */
+public class QueryCursorProxy implements IQueryCursor {
+
+    private final IQueryCursor targetCursor;
+
+    public QueryCursorProxy(IQueryCursor targetCursor) {
+        this.targetCursor = targetCursor;
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return ClassLoaderCallBackMethod.callbackAndReset(targetCursor::getColumnNames,
+                targetCursor.getClass().getClassLoader());
+    }
+
+    @Override
+    public boolean hasNext() {
+        return ClassLoaderCallBackMethod.callbackAndReset(targetCursor::hasNext,
+                targetCursor.getClass().getClassLoader());
+    }
+
+    @Override
+    public List<Map<String, Object>> nextBatch() {
+        return ClassLoaderCallBackMethod.callbackAndReset(targetCursor::nextBatch,
+                targetCursor.getClass().getClassLoader());
+    }
+
+    @Override
+    public void close() {
+        ClassLoaderCallBackMethod.callbackAndReset(() -> {
+            targetCursor.close();
+            return null;
+        }, targetCursor.getClass().getClassLoader());
+    }
+}
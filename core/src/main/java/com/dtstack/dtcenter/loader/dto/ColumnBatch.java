@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.loader.dto;
+
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 下载器批量读取返回的列式批数据，按列存储字段值，并附带字段名和每列的 null 位图
+ * {@link com.dtstack.dtcenter.loader.IDownloader#readNextBatch(int)}
+ */
+public class ColumnBatch {
+
+    /**
+     * 字段名
+     */
+    private final List<String> columnNames;
+
+    /**
+     * 列数据，columns[列下标][行下标]
+     */
+    private final String[][] columns;
+
+    /**
+     * 每列的 null 位图，对应行为 null 时该位为 1
+     */
+    private final BitSet[] nullBitmaps;
+
+    /**
+     * 行数
+     */
+    private final int rowCount;
+
+    private ColumnBatch(List<String> columnNames, String[][] columns, BitSet[] nullBitmaps, int rowCount) {
+        this.columnNames = columnNames;
+        this.columns = columns;
+        this.nullBitmaps = nullBitmaps;
+        this.rowCount = rowCount;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    /**
+     * 获取整列数据，数组长度等于行数
+     *
+     * @param columnIndex 列下标，从 0 开始
+     * @return 列数据
+     */
+    public String[] getColumn(int columnIndex) {
+        return columns[columnIndex];
+    }
+
+    public String getValue(int columnIndex, int rowIndex) {
+        return columns[columnIndex][rowIndex];
+    }
+
+    public boolean isNull(int columnIndex, int rowIndex) {
+        return nullBitmaps[columnIndex].get(rowIndex);
+    }
+
+    /**
+     * 获取指定列的 null 位图
+     *
+     * @param columnIndex 列下标，从 0 开始
+     * @return null 位图
+     */
+    public BitSet getNullBitmap(int columnIndex) {
+        return nullBitmaps[columnIndex];
+    }
+
+    /**
+     * 按行获取数据，兼容 readNext 返回的行格式
+     *
+     * @param rowIndex 行下标，从 0 开始
+     * @return 行数据
+     */
+    public List<String> getRow(int rowIndex) {
+        List<String> row = new ArrayList<>(columns.length);
+        for (String[] column : columns) {
+            row.add(column[rowIndex]);
+        }
+        return row;
+    }
+
+    /**
+     * 根据 needIndex 获取实际返回的字段名，needIndex 为空时返回全部字段
+     *
+     * @param metaInfo  全部字段名
+     * @param needIndex 需要查询字段的索引
+     * @return 实际返回的字段名
+     */
+    public static List<String> projectColumnNames(List<String> metaInfo, List<Integer> needIndex) {
+        if (Objects.isNull(needIndex) || needIndex.isEmpty()) {
+            return metaInfo;
+        }
+        List<String> projectNames = new ArrayList<>(needIndex.size());
+        for (Integer index : needIndex) {
+            projectNames.add(Objects.nonNull(index) && index < metaInfo.size() ? metaInfo.get(index) : null);
+        }
+        return projectNames;
+    }
+
+    public static Builder builder(List<String> columnNames, int maxRows) {
+        return new Builder(columnNames, maxRows);
+    }
+
+    /**
+     * 批数据构建器，列数以字段名个数为准，字段名为空时以第一行数据的字段个数为准
+     */
+    public static class Builder {
+
+        private final List<String> columnNames;
+
+        private final int maxRows;
+
+        private String[][] columns;
+
+        private BitSet[] nullBitmaps;
+
+        private int rowCount;
+
+        private Builder(List<String> columnNames, int maxRows) {
+            if (maxRows <= 0) {
+                throw new DtLoaderException("maxRows must be greater than 0");
+            }
+            this.columnNames = Objects.isNull(columnNames) ? Collections.emptyList() : columnNames;
+            this.maxRows = maxRows;
+            if (!this.columnNames.isEmpty()) {
+                init(this.columnNames.size());
+            }
+        }
+
+        private void init(int columnCount) {
+            columns = new String[columnCount][maxRows];
+            nullBitmaps = new BitSet[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                nullBitmaps[i] = new BitSet(maxRows);
+            }
+        }
+
+        /**
+         * 是否已读满
+         *
+         * @return 是否已读满
+         */
+        public boolean isFull() {
+            return rowCount >= maxRows;
+        }
+
+        public int size() {
+            return rowCount;
+        }
+
+        /**
+         * 设置当前行指定列的值，设置完所有列后调用 {@link #endRow()}
+         *
+         * @param columnIndex 列下标，从 0 开始
+         * @param value       值
+         */
+        public void setValue(int columnIndex, String value) {
+            columns[columnIndex][rowCount] = value;
+            if (Objects.isNull(value)) {
+                nullBitmaps[columnIndex].set(rowCount);
+            }
+        }
+
+        /**
+         * 结束当前行
+         */
+        public void endRow() {
+            rowCount++;
+        }
+
+        /**
+         * 追加一行数据，字段数少于列数时缺少的列为 null，多于列数时多余的字段忽略，和 hive 读取文本表的行为一致
+         *
+         * @param row 行数据
+         */
+        public void addRow(List<String> row) {
+            if (isFull()) {
+                throw new DtLoaderException(String.format("column batch is full, maxRows : %s", maxRows));
+            }
+            if (Objects.isNull(columns)) {
+                init(Objects.isNull(row) ? 0 : row.size());
+            }
+            int rowSize = Objects.isNull(row) ? 0 : row.size();
+            for (int i = 0; i < columns.length; i++) {
+                setValue(i, i < rowSize ? row.get(i) : null);
+            }
+            endRow();
+        }
+
+        public ColumnBatch build() {
+            if (Objects.isNull(columns)) {
+                init(0);
+            }
+            String[][] batchColumns = columns;
+            if (rowCount < maxRows) {
+                batchColumns = new String[columns.length][];
+                for (int i = 0; i < columns.length; i++) {
+                    batchColumns[i] = Arrays.copyOf(columns[i], rowCount);
+                }
+            }
+            return new ColumnBatch(columnNames, batchColumns, nullBitmaps, rowCount);
+        }
+    }
+}
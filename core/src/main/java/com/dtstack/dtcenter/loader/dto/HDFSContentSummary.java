@@ -51,4 +51,7 @@ public class HDFSContentSummary implements Serializable {
 
     // 路径是否存在
     private Boolean isExists;
+
+    // 批量获取时该路径失败的异常信息，为空表示获取成功
+    private String errorMessage;
 }
@@ -18,7 +18,10 @@
 
 package com.dtstack.dtcenter.loader.dto;
 
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.List;
 
@@ -31,6 +34,9 @@ import java.util.List;
  * company: www.dtstack.com
  */
 @Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
 public class HdfsWriterDTO {
 
     private String hdfsDirPath;
@@ -58,4 +64,24 @@ public class HdfsWriterDTO {
      */
     private Boolean setDefault;
 
+    /**
+     * orc 文件的 stripe 大小，单位 byte，为空时使用 orc 默认值
+     */
+    private Long orcStripeSize;
+
+    /**
+     * 写入 orc 文件时每批数据的条数，为空时默认 1024
+     */
+    private Integer batchSize;
+
+    /**
+     * 本地文件并发导入的线程数，大于 1 时按行切分文件并发写入多个文件，仅支持按位置写入，字段值中不能包含换行符
+     */
+    private Integer parallelism;
+
+    /**
+     * 写入 text 文件时使用的压缩格式，如 gzip、snappy、lz4、zstd、bzip2，需要集群支持对应的 hadoop 压缩格式，为空时不压缩
+     */
+    private String compressCodec;
+
 }
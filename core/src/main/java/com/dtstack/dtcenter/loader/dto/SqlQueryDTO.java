@@ -21,6 +21,7 @@ package com.dtstack.dtcenter.loader.dto;
 import com.dtstack.dtcenter.loader.dto.filter.Filter;
 import com.dtstack.dtcenter.loader.enums.EsCommandType;
 import com.dtstack.dtcenter.loader.enums.MatchType;
+import com.dtstack.dtcenter.loader.enums.RowCountMode;
 import lombok.Builder;
 import lombok.Data;
 import org.apache.commons.lang3.ArrayUtils;
@@ -132,6 +133,31 @@ public class SqlQueryDTO {
      */
     private Integer fetchSize;
 
+    /**
+     * 关系型数据库下载时是否使用流式游标读取，默认 false 使用分页 sql 查询
+     * 为 true 时只执行一次查询，在同一个 ResultSet 上按页读取，fetchSize 为游标每次拉取的条数
+     */
+    @Builder.Default
+    private Boolean streamDownload = false;
+
+    /**
+     * 关系型数据库下载器统计总条数的方式，默认 EXACT 在 configure 时执行 count 查询
+     * 非 EXACT 方式下列信息从第一页数据中获取，不再单独执行 limit 1 查询
+     */
+    @Builder.Default
+    private RowCountMode rowCountMode = RowCountMode.EXACT;
+
+    /**
+     * hive 表下载时同时读取的切片数，为空时使用数据源 hadoop 配置 dtloader.download.split.parallelism，默认 1 串行读取
+     */
+    private Integer splitReadParallelism;
+
+    /**
+     * hive 表并发读取切片时是否按切片顺序输出，为空时使用数据源 hadoop 配置 dtloader.download.split.ordered，默认 true
+     * 为 false 时先读到的数据先输出，吞吐更高
+     */
+    private Boolean splitReadOrdered;
+
 
     /**
      * solr 自定义查询
@@ -71,6 +71,16 @@ public class Table {
      */
     private String delim;
 
+    /**
+     * 转义字符，hive表属性 escape.delim
+     */
+    private String escapeDelim;
+
+    /**
+     * null 值，hive表属性 serialization.null.format
+     */
+    private String nullFormat;
+
     /**
      * 存储格式，hive表属性
      */
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.loader.enums;
+
+/**
+ * 下载器统计总条数的方式
+ */
+public enum RowCountMode {
+
+    /**
+     * 精确统计，configure 时执行 count 查询，默认方式
+     */
+    EXACT(),
+
+    /**
+     * 延迟统计，调用 getTotalLine 时才执行 count 查询，已读取完毕时直接返回已读条数
+     */
+    LAZY(),
+
+    /**
+     * 估算，调用 getTotalLine 时通过执行计划/统计信息估算，不支持估算的数据源返回 null
+     */
+    ESTIMATE(),
+
+    /**
+     * 不统计，getTotalLine 只在读取完毕后返回已读条数
+     */
+    NONE();
+}
@@ -115,11 +115,14 @@ public class Db2Client extends AbsRdbmsClient {
 
     @Override
     public IDownloader getDownloader(ISourceDTO source, SqlQueryDTO queryDTO) throws Exception {
+        if (isStreamDownload(queryDTO)) {
+            return getStreamDownloader(source, queryDTO, null);
+        }
         Db2SourceDTO db2SourceDTO = (Db2SourceDTO) source;
         Connection connection = getCon(source);
         String sql = queryDTO.getSql();
         String schema = db2SourceDTO.getSchema();
-        Db2Downloader db2Downloader = new Db2Downloader(connection, sql, schema);
+        Db2Downloader db2Downloader = new Db2Downloader(connection, sql, schema, getRowCountMode(queryDTO));
         db2Downloader.configure();
         return db2Downloader;
     }
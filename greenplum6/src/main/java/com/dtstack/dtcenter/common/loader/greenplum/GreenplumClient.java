@@ -185,8 +185,12 @@ public class GreenplumClient extends AbsRdbmsClient {
     public IDownloader getDownloader(ISourceDTO source, SqlQueryDTO queryDTO) throws Exception {
         Greenplum6SourceDTO greenplum6SourceDTO = (Greenplum6SourceDTO) source;
         String schema = StringUtils.isNotBlank(queryDTO.getSchema()) ? queryDTO.getSchema() : greenplum6SourceDTO.getSchema();
+        if (isStreamDownload(queryDTO)) {
+            String switchSchemaSql = StringUtils.isNotBlank(schema) ? String.format("set search_path to %s", schema) : null;
+            return getStreamDownloader(source, queryDTO, switchSchemaSql);
+        }
         GreenplumDownloader greenplumDownloader = new GreenplumDownloader(getCon(greenplum6SourceDTO),
-                queryDTO.getSql(), schema);
+                queryDTO.getSql(), schema, getRowCountMode(queryDTO));
         greenplumDownloader.configure();
         return greenplumDownloader;
     }
@@ -16,22 +16,19 @@
  * limitations under the License.
  */
 
+
 package com.dtstack.dtcenter.common.loader.greenplum;
 
-import com.dtstack.dtcenter.common.loader.common.utils.SqlFormatUtil;
-import com.dtstack.dtcenter.loader.IDownloader;
-import com.dtstack.dtcenter.loader.exception.DtLoaderException;
-import com.google.common.collect.Lists;
+import com.dtstack.dtcenter.common.loader.rdbms.downloader.AbsRdbmsPageDownloader;
+import com.dtstack.dtcenter.loader.enums.RowCountMode;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Greenplum download
@@ -41,128 +38,69 @@ import java.util.Objects;
  * company: www.dtstack.com
  */
 @Slf4j
-public class GreenplumDownloader implements IDownloader {
-
-    private final List<String> columnNames = Lists.newArrayList();
-
-    private final Connection connection;
-
-    private final String sql;
-
-    private final String schema;
-
-    private Statement statement;
-
-    private int pageNum = 1;
-
-    private final int pageSize = 100;
-
-    private int pageAll;
-
-    private int columnCount;
+public class GreenplumDownloader extends AbsRdbmsPageDownloader {
 
     // 切换 schema 命令
     private static final String SWITCH_SCHEMA = "set search_path to %s";
 
+    private static final String EXPLAIN_SQL = "EXPLAIN %s";
+
+    // 执行计划中优化器估算的返回条数
+    private static final Pattern EXPLAIN_ROWS_PATTERN = Pattern.compile("rows=(\\d+)");
+
     public GreenplumDownloader(Connection connection, String sql, String schema) {
-        this.connection = connection;
-        this.sql = SqlFormatUtil.formatSql(sql);
-        this.schema = schema;
+        this(connection, sql, schema, RowCountMode.EXACT);
     }
 
-    @Override
-    public boolean configure() throws Exception {
-        if (Objects.isNull(connection) || StringUtils.isEmpty(sql)) {
-            throw new DtLoaderException("connection is close or sql is null");
-        }
-        int totalLine = 0;
-        statement = connection.createStatement();
-        if (StringUtils.isNotBlank(schema)) {
-            try {
-                // 切换 schema
-                statement.execute(String.format(SWITCH_SCHEMA, schema));
-            } catch (Exception e) {
-                log.error("switch schema to {} error", schema);
-            }
-        }
-
-        String countSQL = String.format("SELECT COUNT(1) FROM (%s) temp", sql);
-        String showColumns = String.format("SELECT * FROM (%s) t limit 1", sql);
-        ResultSet totalResultSet = null;
-        ResultSet columnsResultSet = null;
-        try {
-            totalResultSet = statement.executeQuery(countSQL);
-            while (totalResultSet.next()) {
-                //获取总行数
-                totalLine = totalResultSet.getInt(1);
-            }
-            columnsResultSet = statement.executeQuery(showColumns);
-            //获取列信息
-            columnCount = columnsResultSet.getMetaData().getColumnCount();
-            for (int i = 1; i <= columnCount; i++) {
-                columnNames.add(columnsResultSet.getMetaData().getColumnLabel(i));
-            }
-            // 获取总页数
-            pageAll = (int) Math.ceil(totalLine / (double) pageSize);
-        } catch (Exception e) {
-            throw new DtLoaderException("build Greenplum downloader message exception : " + e.getMessage(), e);
-        } finally {
-            if (totalResultSet != null) {
-                totalResultSet.close();
-            }
-            if (columnsResultSet != null) {
-                columnsResultSet.close();
-            }
-        }
-        return true;
+    public GreenplumDownloader(Connection connection, String sql, String schema, RowCountMode rowCountMode) {
+        super(connection, sql, schema, rowCountMode);
     }
 
     @Override
-    public List<String> getMetaInfo() {
-        return columnNames;
+    protected String getSourceName() {
+        return "Greenplum";
     }
 
     @Override
-    public List<List<String>> readNext() {
-        //分页查询，一次一百条
-        String limitSQL = String.format("SELECT * FROM (%s) t limit %s offset %s", sql, pageSize, pageSize * (pageNum - 1));
-        List<List<String>> pageTemp = new ArrayList<>(100);
-
-        try (ResultSet resultSet = statement.executeQuery(limitSQL)) {
-            while (resultSet.next()) {
-                List<String> columns = new ArrayList<>(columnCount);
-                for (int i = 1; i <= columnCount; i++) {
-                    columns.add(resultSet.getString(i));
-                }
-                pageTemp.add(columns);
-            }
-        } catch (Exception e) {
-            throw new DtLoaderException("read Greenplum message exception : " + e.getMessage(), e);
-        }
+    protected String getSwitchSchemaSql(String schema) {
+        return String.format(SWITCH_SCHEMA, schema);
+    }
 
-        pageNum++;
-        return pageTemp;
+    @Override
+    protected String getShowColumnsSql() {
+        return String.format("SELECT * FROM (%s) t limit 1", sql);
     }
 
     @Override
-    public boolean reachedEnd() {
-        return pageAll < pageNum;
+    protected String getPageSql(long offset, int limit) {
+        return String.format("SELECT * FROM (%s) t limit %s offset %s", sql, limit, offset);
     }
 
     @Override
-    public boolean close() throws Exception {
-        statement.close();
-        connection.close();
-        return true;
+    protected void switchSchema() {
+        try {
+            super.switchSchema();
+        } catch (Exception e) {
+            log.error("switch schema to {} error", schema);
+        }
     }
 
     @Override
-    public String getFileName() {
-        return null;
+    protected String getColumnName(ResultSetMetaData metaData, int index) throws SQLException {
+        return metaData.getColumnLabel(index);
     }
 
     @Override
-    public List<String> getContainers() {
-        return Collections.emptyList();
+    protected Long estimateTotalLine() throws SQLException {
+        // 执行计划第一行为根节点，rows 为优化器估算的返回条数
+        try (ResultSet explainResultSet = statement.executeQuery(String.format(EXPLAIN_SQL, sql))) {
+            if (explainResultSet.next()) {
+                Matcher matcher = EXPLAIN_ROWS_PATTERN.matcher(explainResultSet.getString(1));
+                if (matcher.find()) {
+                    return Long.parseLong(matcher.group(1));
+                }
+            }
+        }
+        return null;
     }
 }
@@ -19,7 +19,8 @@
 package com.dtstack.dtcenter.common.loader.hdfs.client;
 
 import com.dtstack.dtcenter.common.loader.common.utils.DBUtil;
-import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.FileSystemCache;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.FileSystemLease;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HadoopConfUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HdfsOperator;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
@@ -32,11 +33,12 @@ import com.dtstack.dtcenter.common.loader.hdfs.downloader.YarnLogDownload.YarnTF
 import com.dtstack.dtcenter.common.loader.hdfs.downloader.tableDownload.HiveORCDownload;
 import com.dtstack.dtcenter.common.loader.hdfs.downloader.tableDownload.HiveParquetDownload;
 import com.dtstack.dtcenter.common.loader.hdfs.downloader.tableDownload.HiveTextDownload;
+import com.dtstack.dtcenter.common.loader.hdfs.fileMerge.core.CombineJob;
 import com.dtstack.dtcenter.common.loader.hdfs.fileMerge.core.CombineMergeBuilder;
-import com.dtstack.dtcenter.common.loader.hdfs.fileMerge.core.CombineServer;
 import com.dtstack.dtcenter.common.loader.hdfs.hdfswriter.HdfsOrcWriter;
 import com.dtstack.dtcenter.common.loader.hdfs.hdfswriter.HdfsParquetWriter;
 import com.dtstack.dtcenter.common.loader.hdfs.hdfswriter.HdfsTextWriter;
+import com.dtstack.dtcenter.common.loader.hdfs.util.ContentSummaryUtil;
 import com.dtstack.dtcenter.common.loader.hdfs.util.StringUtil;
 import com.dtstack.dtcenter.loader.IDownloader;
 import com.dtstack.dtcenter.loader.client.IHdfsFile;
@@ -54,7 +56,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.ContentSummary;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.LocatedFileStatus;
@@ -176,52 +177,66 @@ public class HdfsFileClient implements IHdfsFile {
     private org.apache.hadoop.fs.FileStatus getHadoopStatus(ISourceDTO source, String location) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
 
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.getFileStatus(fs, location);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.getFileStatus(fs, location);
+        }
     }
 
     @Override
     public boolean downloadFileFromHdfs(ISourceDTO source, String remotePath, String localDir) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        HdfsOperator.copyToLocal(fs, remotePath, localDir);
-        return true;
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            HdfsOperator.copyToLocal(fs, remotePath, localDir);
+            return true;
+        }
     }
 
     @Override
     public boolean uploadLocalFileToHdfs(ISourceDTO source, String localFilePath, String remotePath) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        HdfsOperator.uploadLocalFileToHdfs(fs, localFilePath, remotePath);
-        return true;
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            HdfsOperator.uploadLocalFileToHdfs(fs, localFilePath, remotePath);
+            return true;
+        }
     }
 
     @Override
     public boolean uploadInputStreamToHdfs(ISourceDTO source, byte[] bytes, String remotePath) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.uploadInputStreamToHdfs(fs, bytes, remotePath);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.uploadInputStreamToHdfs(fs, bytes, remotePath);
+        }
     }
 
     @Override
     public boolean createDir(ISourceDTO source, String remotePath, Short permission) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.createDir(fs, remotePath, permission);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.createDir(fs, remotePath, permission);
+        }
     }
 
     @Override
     public boolean isFileExist(ISourceDTO source, String remotePath) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.isFileExist(fs, remotePath);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.isFileExist(fs, remotePath);
+        }
     }
 
     @Override
     public boolean checkAndDelete(ISourceDTO source, String remotePath) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.checkAndDelete(fs, remotePath);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.checkAndDelete(fs, remotePath);
+        }
     }
 
     @Override
@@ -229,9 +244,8 @@ public class HdfsFileClient implements IHdfsFile {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
         return KerberosLoginUtil.loginWithUGI(hdfsSourceDTO.getKerberosConfig()).doAs(
                 (PrivilegedAction<Boolean>) () -> {
-                    try {
-                        Configuration conf = HadoopConfUtil.getHdfsConf(hdfsSourceDTO.getDefaultFS(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getKerberosConfig());
-                        FileSystem fs = FileSystem.get(conf);
+                    try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+                        FileSystem fs = lease.get();
                         log.info("delete hdfs file ,remotePath :{}", remotePath);
                         return fs.delete(new Path(remotePath), recursive);
                     } catch (Exception e) {
@@ -246,11 +260,11 @@ public class HdfsFileClient implements IHdfsFile {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
         return KerberosLoginUtil.loginWithUGI(hdfsSourceDTO.getKerberosConfig()).doAs(
                 (PrivilegedAction<Boolean>) () -> {
-                    try {
+                    try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
                         Path srcPath = new Path(src);
                         Path distPath = new Path(dist);
                         Configuration conf = HadoopConfUtil.getHdfsConf(hdfsSourceDTO.getDefaultFS(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getKerberosConfig());
-                        FileSystem fs = FileSystem.get(conf);
+                        FileSystem fs = lease.get();
                         if (fs.exists(srcPath)) {
                             //判断是不是文件夹
                             if (fs.isDirectory(srcPath)) {
@@ -278,15 +292,17 @@ public class HdfsFileClient implements IHdfsFile {
                 (PrivilegedAction<Boolean>) () -> {
                     try {
                         Configuration conf = HadoopConfUtil.getHdfsConf(hdfsSourceDTO.getDefaultFS(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getKerberosConfig());
-                        CombineServer build = new CombineMergeBuilder()
+                        // 按分区目录并发合并，每个分区合并完成后单独提交
+                        CombineJob job = new CombineMergeBuilder()
                                 .sourcePath(src)
                                 .mergedPath(mergePath)
                                 .fileType(fileFormat)
                                 .maxCombinedFileSize(maxCombinedFileSize)
                                 .needCombineFileSizeLimit(needCombineFileSizeLimit)
                                 .configuration(conf)
-                                .build();
-                        build.combine();
+                                .kerberosConfig(hdfsSourceDTO.getKerberosConfig())
+                                .buildJob();
+                        job.run();
                         return true;
                     } catch (Exception e) {
                         throw new DtLoaderException(String.format("File merge exception：%s", e.getMessage()), e);
@@ -298,90 +314,112 @@ public class HdfsFileClient implements IHdfsFile {
     @Override
     public long getDirSize(ISourceDTO source, String remotePath) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.getDirSize(fs, remotePath);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.getDirSize(fs, remotePath);
+        }
     }
 
     @Override
     public boolean deleteFiles(ISourceDTO source, List<String> fileNames) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.deleteFiles(fs, fileNames);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.deleteFiles(fs, fileNames);
+        }
     }
 
     @Override
     public boolean isDirExist(ISourceDTO source, String remotePath) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.isDirExist(fs, remotePath);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.isDirExist(fs, remotePath);
+        }
     }
 
     @Override
     public boolean setPermission(ISourceDTO source, String remotePath, String mode) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.setPermission(fs, remotePath, mode);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.setPermission(fs, remotePath, mode);
+        }
     }
 
     @Override
     public boolean rename(ISourceDTO source, String src, String dist) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.rename(fs, src, dist);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.rename(fs, src, dist);
+        }
     }
 
     @Override
     public boolean copyFile(ISourceDTO source, String src, String dist, boolean isOverwrite) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        try {
-            return HdfsOperator.copyFile(fs, src, dist, isOverwrite);
-        } catch (IOException e) {
-            throw new DtLoaderException(String.format("Copying files in hdfs is abnormal : %s", e.getMessage()), e);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            try {
+                return HdfsOperator.copyFile(fs, src, dist, isOverwrite);
+            } catch (IOException e) {
+                throw new DtLoaderException(String.format("Copying files in hdfs is abnormal : %s", e.getMessage()), e);
+            }
         }
     }
 
     @Override
     public List<FileStatus> listStatus(ISourceDTO source, String remotePath) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        try {
-            return transferFileStatus(HdfsOperator.listStatus(fs, remotePath));
-        } catch (IOException e) {
-            throw new DtLoaderException(String.format("The status of the file or folder under the target path is abnormal : %s", e.getMessage()), e);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            try {
+                return transferFileStatus(HdfsOperator.listStatus(fs, remotePath));
+            } catch (IOException e) {
+                throw new DtLoaderException(String.format("The status of the file or folder under the target path is abnormal : %s", e.getMessage()), e);
+            }
         }
     }
 
     @Override
     public List<String> listAllFilePath(ISourceDTO source, String remotePath) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        try {
-            return HdfsOperator.listAllFilePath(fs, remotePath);
-        } catch (IOException e) {
-            throw new DtLoaderException(String.format("Obtaining all files in the target path is abnormal : %s", e.getMessage()), e);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            try {
+                return HdfsOperator.listAllFilePath(fs, remotePath);
+            } catch (IOException e) {
+                throw new DtLoaderException(String.format("Obtaining all files in the target path is abnormal : %s", e.getMessage()), e);
+            }
         }
     }
 
     @Override
     public List<FileStatus> listAllFiles(ISourceDTO source, String remotePath, boolean isIterate) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return listFiles(fs, remotePath, isIterate);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return listFiles(fs, remotePath, isIterate);
+        }
     }
 
     @Override
     public boolean copyToLocal(ISourceDTO source, String srcPath, String dstPath) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.copyToLocal(fs, srcPath, dstPath);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.copyToLocal(fs, srcPath, dstPath);
+        }
     }
 
     @Override
     public boolean copyFromLocal(ISourceDTO source, String srcPath, String dstPath, boolean overwrite) {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        return HdfsOperator.copyFromLocal(fs, srcPath, dstPath, overwrite);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            return HdfsOperator.copyFromLocal(fs, srcPath, dstPath, overwrite);
+        }
     }
 
     @Override
@@ -475,7 +513,7 @@ public class HdfsFileClient implements IHdfsFile {
 
         if (StringUtils.equalsIgnoreCase(FileFormat.ORC.getVal(), storageMode)) {
             HiveORCDownload hiveORCDownload = new HiveORCDownload(conf, tableLocation, columnNames,
-                    partitionColumns, needIndex, partitions, kerberosConfig);
+                    partitionColumns, needIndex, filterPartitions, partitions, kerberosConfig);
             hiveORCDownload.configure();
             return hiveORCDownload;
         }
@@ -538,43 +576,13 @@ public class HdfsFileClient implements IHdfsFile {
             throw new DtLoaderException("hdfs path cannot be empty！");
         }
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        List<HDFSContentSummary> hdfsContentSummaries = Lists.newArrayList();
         // kerberos认证
         return KerberosLoginUtil.loginWithUGI(hdfsSourceDTO.getKerberosConfig()).doAs(
                 (PrivilegedAction<List<HDFSContentSummary>>) () -> {
-                    try {
-                        Configuration conf = HadoopConfUtil.getHdfsConf(hdfsSourceDTO.getDefaultFS(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getKerberosConfig());
-                        FileSystem fs = FileSystem.get(conf);
-                        for (String HDFSDirPath : hdfsDirPaths) {
-                            Path hdfsPath = new Path(HDFSDirPath);
-                            // 判断路径是否存在，不存在则返回空对象
-                            HDFSContentSummary hdfsContentSummary;
-                            if (!fs.exists(hdfsPath)) {
-                                log.warn("execute method getContentSummary: path {} not exists!", HDFSDirPath);
-                                hdfsContentSummary = HDFSContentSummary.builder()
-                                        .directoryCount(0L)
-                                        .fileCount(0L)
-                                        .ModifyTime(0L)
-                                        .spaceConsumed(0L)
-                                        .build();
-                                if (ReflectUtil.fieldExists(hdfsContentSummary.getClass(), "isExists")) {
-                                    hdfsContentSummary.setIsExists(false);
-                                }
-                            } else {
-                                org.apache.hadoop.fs.FileStatus fileStatus = fs.getFileStatus(hdfsPath);
-                                ContentSummary contentSummary = fs.getContentSummary(hdfsPath);
-                                hdfsContentSummary = HDFSContentSummary.builder()
-                                        .directoryCount(contentSummary.getDirectoryCount())
-                                        .fileCount(contentSummary.getFileCount())
-                                        .ModifyTime(fileStatus.getModificationTime())
-                                        .spaceConsumed(contentSummary.getLength()).build();
-                                if (ReflectUtil.fieldExists(hdfsContentSummary.getClass(), "isExists")) {
-                                    hdfsContentSummary.setIsExists(true);
-                                }
-                            }
-                            hdfsContentSummaries.add(hdfsContentSummary);
-                        }
-                        return hdfsContentSummaries;
+                    try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+                        return ContentSummaryUtil.getContentSummary(lease.get(), hdfsDirPaths, hdfsSourceDTO.getKerberosConfig());
+                    } catch (DtLoaderException e) {
+                        throw e;
                     } catch (Exception e) {
                         throw new DtLoaderException(String.format("Failed to obtain HDFS file information：%s", e.getMessage()), e);
                     }
@@ -621,56 +629,58 @@ public class HdfsFileClient implements IHdfsFile {
     private List<ColumnMetaDTO> getOrcColumnList(HdfsSourceDTO hdfsSourceDTO, SqlQueryDTO queryDTO) throws IOException {
         ArrayList<ColumnMetaDTO> columnList = new ArrayList<>();
         Configuration conf = HdfsOperator.getConfig(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        FileSystem fs = HdfsOperator.getFileSystem(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS());
-        OrcFile.ReaderOptions readerOptions = OrcFile.readerOptions(conf);
-        readerOptions.filesystem(fs);
-        String fileName = hdfsSourceDTO.getDefaultFS() + PATH_DELIMITER + queryDTO.getTableName();
-        fileName = handleVariable(fileName);
-
-        Path path = new Path(fileName);
-        org.apache.hadoop.hive.ql.io.orc.Reader reader = null;
-        String typeStruct = null;
-        if (fs.isDirectory(path)) {
-            RemoteIterator<LocatedFileStatus> iterator = fs.listFiles(path, true);
-            while (iterator.hasNext()) {
-                org.apache.hadoop.fs.FileStatus fileStatus = iterator.next();
-                if (fileStatus.isFile() && fileStatus.getLen() > 49) {
-                    Path subPath = fileStatus.getPath();
-                    reader = OrcFile.createReader(subPath, readerOptions);
-                    typeStruct = reader.getObjectInspector().getTypeName();
-                    if (StringUtils.isNotEmpty(typeStruct)) {
-                        break;
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            FileSystem fs = lease.get();
+            OrcFile.ReaderOptions readerOptions = OrcFile.readerOptions(conf);
+            readerOptions.filesystem(fs);
+            String fileName = hdfsSourceDTO.getDefaultFS() + PATH_DELIMITER + queryDTO.getTableName();
+            fileName = handleVariable(fileName);
+
+            Path path = new Path(fileName);
+            org.apache.hadoop.hive.ql.io.orc.Reader reader = null;
+            String typeStruct = null;
+            if (fs.isDirectory(path)) {
+                RemoteIterator<LocatedFileStatus> iterator = fs.listFiles(path, true);
+                while (iterator.hasNext()) {
+                    org.apache.hadoop.fs.FileStatus fileStatus = iterator.next();
+                    if (fileStatus.isFile() && fileStatus.getLen() > 49) {
+                        Path subPath = fileStatus.getPath();
+                        reader = OrcFile.createReader(subPath, readerOptions);
+                        typeStruct = reader.getObjectInspector().getTypeName();
+                        if (StringUtils.isNotEmpty(typeStruct)) {
+                            break;
+                        }
                     }
                 }
-            }
-            if (reader == null) {
-                throw new DtLoaderException("orcfile dir is empty!");
-            }
+                if (reader == null) {
+                    throw new DtLoaderException("orcfile dir is empty!");
+                }
 
-        } else {
-            reader = OrcFile.createReader(path, readerOptions);
-            typeStruct = reader.getObjectInspector().getTypeName();
-        }
+            } else {
+                reader = OrcFile.createReader(path, readerOptions);
+                typeStruct = reader.getObjectInspector().getTypeName();
+            }
 
-        if (StringUtils.isEmpty(typeStruct)) {
-            throw new DtLoaderException("can't retrieve type struct from " + path);
-        }
+            if (StringUtils.isEmpty(typeStruct)) {
+                throw new DtLoaderException("can't retrieve type struct from " + path);
+            }
 
-        int startIndex = typeStruct.indexOf("<") + 1;
-        int endIndex = typeStruct.lastIndexOf(">");
-        typeStruct = typeStruct.substring(startIndex, endIndex);
-        List<String> cols = StringUtil.splitIgnoreQuota(typeStruct, ',');
-        for (String col : cols) {
-            List<String> colNameAndType = StringUtil.splitIgnoreQuota(col, ':');
-            if (CollectionUtils.isEmpty(colNameAndType) || colNameAndType.size() != 2) {
-                continue;
+            int startIndex = typeStruct.indexOf("<") + 1;
+            int endIndex = typeStruct.lastIndexOf(">");
+            typeStruct = typeStruct.substring(startIndex, endIndex);
+            List<String> cols = StringUtil.splitIgnoreQuota(typeStruct, ',');
+            for (String col : cols) {
+                List<String> colNameAndType = StringUtil.splitIgnoreQuota(col, ':');
+                if (CollectionUtils.isEmpty(colNameAndType) || colNameAndType.size() != 2) {
+                    continue;
+                }
+                ColumnMetaDTO metaDTO = new ColumnMetaDTO();
+                metaDTO.setKey(colNameAndType.get(0));
+                metaDTO.setType(colNameAndType.get(1));
+                columnList.add(metaDTO);
             }
-            ColumnMetaDTO metaDTO = new ColumnMetaDTO();
-            metaDTO.setKey(colNameAndType.get(0));
-            metaDTO.setType(colNameAndType.get(1));
-            columnList.add(metaDTO);
+            return columnList;
         }
-        return columnList;
     }
 
     private static String handleVariable(String path) {
@@ -21,6 +21,7 @@ package com.dtstack.dtcenter.common.loader.hdfs.downloader;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.common.loader.hdfs.YarnConfUtil;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import com.google.common.collect.Lists;
 import org.apache.hadoop.conf.Configuration;
@@ -228,15 +229,12 @@ public class HdfsFileDownload implements IDownloader {
 
     @Override
     public String readNext() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<String>) ()->{
-                    try {
-                        return readNextWithKerberos();
-                    } catch (Exception e){
-                        throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
-                    }
-                });
-
+        // 只解析 reachedEnd 已经读取到内存中的数据，不访问 hdfs，不需要进入 kerberos doAs
+        try {
+            return readNextWithKerberos();
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
+        }
     }
 
     private String readNextWithKerberos() {
@@ -254,8 +252,47 @@ public class HdfsFileDownload implements IDownloader {
         return line;
     }
 
+    /**
+     * 批量读取，整批数据只做一次 kerberos doAs
+     *
+     * @param maxRows 最大条数
+     * @return 列式批数据
+     */
+    @Override
+    public ColumnBatch readNextBatch(int maxRows) {
+        ColumnBatch.Builder builder = ColumnBatch.builder(getMetaInfo(), maxRows);
+        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
+                (PrivilegedAction<ColumnBatch>) () -> {
+                    try {
+                        while (!builder.isFull() && !(recordReader == null || readNum > READ_LIMIT || !nextRecord())) {
+                            builder.addRow(Collections.singletonList(readNextWithKerberos()));
+                        }
+                        return builder.build();
+                    } catch (Exception e) {
+                        throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
+                    }
+                });
+    }
+
+    /**
+     * 在当前切片内读取下一条数据
+     *
+     * @return 当前切片是否还有数据
+     */
+    private boolean nextInCurrentSplit() {
+        try {
+            return recordReader.next(key, value);
+        } catch (IOException e) {
+            throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+        }
+    }
+
     @Override
     public boolean reachedEnd() {
+        // recordReader 在 doAs 中打开，hdfs rpc 使用创建时的 UGI，同一个切片内继续读取不需要进入 doAs，切换切片时才进入
+        if (readNum <= READ_LIMIT && recordReader != null && nextInCurrentSplit()) {
+            return false;
+        }
         return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
                 (PrivilegedAction<Boolean>) () -> {
                     try {
@@ -22,6 +22,7 @@ import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HdfsOperator;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.common.loader.hdfs.YarnConfUtil;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
 import com.dtstack.dtcenter.loader.dto.source.HdfsSourceDTO;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import org.apache.commons.collections.CollectionUtils;
@@ -129,14 +130,12 @@ public class HdfsORCDownload implements IDownloader {
 
     @Override
     public List<String> readNext() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<List<String>>) ()->{
-                    try {
-                        return readNextWithKerberos();
-                    } catch (Exception e){
-                        throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
-                    }
-                });
+        // 只解析 reachedEnd 已经读取到内存中的数据，不访问 hdfs，不需要进入 kerberos doAs
+        try {
+            return readNextWithKerberos();
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
+        }
     }
 
     private List<String> readNextWithKerberos() {
@@ -196,8 +195,47 @@ public class HdfsORCDownload implements IDownloader {
         return false;
     }
 
+    /**
+     * 批量读取，整批数据只做一次 kerberos doAs
+     *
+     * @param maxRows 最大条数
+     * @return 列式批数据
+     */
+    @Override
+    public ColumnBatch readNextBatch(int maxRows) {
+        ColumnBatch.Builder builder = ColumnBatch.builder(getMetaInfo(), maxRows);
+        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
+                (PrivilegedAction<ColumnBatch>) () -> {
+                    try {
+                        while (!builder.isFull() && !(recordReader == null || !nextRecord())) {
+                            builder.addRow(readNextWithKerberos());
+                        }
+                        return builder.build();
+                    } catch (Exception e) {
+                        throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+                    }
+                });
+    }
+
+    /**
+     * 在当前切片内读取下一条数据
+     *
+     * @return 当前切片是否还有数据
+     */
+    private boolean nextInCurrentSplit() {
+        try {
+            return recordReader.next(key, value);
+        } catch (IOException e) {
+            throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+        }
+    }
+
     @Override
     public boolean reachedEnd() {
+        // recordReader 在 doAs 中打开，hdfs rpc 使用创建时的 UGI，同一个切片内继续读取不需要进入 doAs，切换切片时才进入
+        if (recordReader != null && nextInCurrentSplit()) {
+            return false;
+        }
         return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
                 (PrivilegedAction<Boolean>) ()->{
                     try {
@@ -23,6 +23,7 @@ import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.common.loader.hdfs.GroupTypeIgnoreCase;
 import com.dtstack.dtcenter.common.loader.hdfs.YarnConfUtil;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
 import com.dtstack.dtcenter.loader.dto.source.HdfsSourceDTO;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import com.google.common.collect.Lists;
@@ -160,14 +161,12 @@ public class HdfsParquetDownload implements IDownloader {
 
     @Override
     public List<String> readNext() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<List<String>>) ()->{
-                    try {
-                        return readNextWithKerberos();
-                    } catch (Exception e){
-                        throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
-                    }
-                });
+        // 只解析 reachedEnd 已经读取到内存中的数据，不访问 hdfs，不需要进入 kerberos doAs
+        try {
+            return readNextWithKerberos();
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
+        }
     }
 
     private List<String> readNextWithKerberos(){
@@ -272,8 +271,53 @@ public class HdfsParquetDownload implements IDownloader {
         return (julianDay - JULIAN_EPOCH_OFFSET_DAYS) * MILLIS_IN_DAY;
     }
 
+    /**
+     * 批量读取，整批数据只做一次 kerberos doAs
+     *
+     * @param maxRows 最大条数
+     * @return 列式批数据
+     */
+    @Override
+    public ColumnBatch readNextBatch(int maxRows) {
+        ColumnBatch.Builder builder = ColumnBatch.builder(getMetaInfo(), maxRows);
+        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
+                (PrivilegedAction<ColumnBatch>) () -> {
+                    try {
+                        while (!builder.isFull() && nextRecord()) {
+                            builder.addRow(readNextWithKerberos());
+                        }
+                        return builder.build();
+                    } catch (Exception e) {
+                        throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+                    }
+                });
+    }
+
+    /**
+     * 在当前文件内读取下一条数据，读取完时关闭当前文件
+     *
+     * @return 当前文件是否还有数据
+     */
+    private boolean nextInCurrentFile() {
+        try {
+            currentLine = build.read();
+            if (currentLine != null) {
+                return true;
+            }
+            build.close();
+            build = null;
+            return false;
+        } catch (IOException e) {
+            throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+        }
+    }
+
     @Override
     public boolean reachedEnd() {
+        // 当前文件已经在 doAs 中开始读取，hdfs rpc 使用创建时的 UGI，同一个文件内继续读取不需要进入 doAs，切换文件时才进入
+        if (build != null && currentLine != null && nextInCurrentFile()) {
+            return false;
+        }
         return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
                 (PrivilegedAction<Boolean>) ()->{
                     try {
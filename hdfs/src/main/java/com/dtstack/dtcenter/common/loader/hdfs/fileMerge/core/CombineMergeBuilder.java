@@ -27,6 +27,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
@@ -59,11 +60,21 @@ public class CombineMergeBuilder {
     private Configuration configuration;
 
 
+    /**
+     * 文件系统，为空时根据 hadoop 配置创建，由调用方负责关闭
+     */
+    private FileSystem fileSystem;
+
     /**
      * 合并后的文件的最大值
      */
     private long maxCombinedFileSize = 125 * 1024 * 1024L;
 
+    /**
+     * kerberos 配置，按分区并发合并时每个合并线程需要 doAs
+     */
+    private Map<String, Object> kerberosConfig;
+
 
     public CombineMergeBuilder() {
     }
@@ -99,6 +110,28 @@ public class CombineMergeBuilder {
         return this;
     }
 
+    public CombineMergeBuilder fileSystem(FileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+        return this;
+    }
+
+    public CombineMergeBuilder kerberosConfig(Map<String, Object> kerberosConfig) {
+        this.kerberosConfig = kerberosConfig;
+        return this;
+    }
+
+    /**
+     * 构建按分区并发合并的任务
+     */
+    public CombineJob buildJob() {
+        check();
+
+        CombineJob job = new CombineJob(new Path(sourcePath), new Path(mergedPath), fileFormat, needCombineFileSizeLimit,
+                maxCombinedFileSize, configuration, kerberosConfig);
+        log.info("combine job info, sourcePath : {}, mergedPath : {}, fileFormat : {}", sourcePath, mergedPath, fileFormat);
+        return job;
+    }
+
     public CombineServer build() throws IOException {
         check();
 
@@ -108,7 +141,7 @@ public class CombineMergeBuilder {
         combine.setConfiguration(configuration);
         combine.setNeedCombineFileSizeLimit(needCombineFileSizeLimit);
         combine.setMaxCombinedFileSize(maxCombinedFileSize);
-        combine.setFs(FileSystem.get(configuration));
+        combine.setFs(Objects.nonNull(fileSystem) ? fileSystem : FileSystem.get(configuration));
 
         log.info("combine info {}",combine);
         return combine;
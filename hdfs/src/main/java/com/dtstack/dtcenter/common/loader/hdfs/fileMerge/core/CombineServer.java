@@ -31,6 +31,8 @@ import org.apache.hadoop.fs.Path;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 @Slf4j
 public abstract class CombineServer {
@@ -64,6 +66,11 @@ public abstract class CombineServer {
 
     protected FileSystem fs;
 
+    /**
+     * 是否复制源目录下的文件夹，按分区合并时每个分区目录单独合并，不需要复制
+     */
+    protected boolean copyDirectory = true;
+
     public CombineServer() {
     }
 
@@ -79,8 +86,10 @@ public abstract class CombineServer {
         splitFile(sourcePath, directors, copyFiles, combineFiles);
 
         //源目录下假如存在文件夹 直接移动到 mergedTempPath目录下
-        for (FileStatus director : directors) {
-            FileSystemUtils.backupDirector(director.getPath(), new Path(mergedTempPath.toUri().getPath() + File.separator + director.getPath().getName()), fs, configuration);
+        if (copyDirectory) {
+            for (FileStatus director : directors) {
+                FileSystemUtils.backupDirector(director.getPath(), new Path(mergedTempPath.toUri().getPath() + File.separator + director.getPath().getName()), fs, configuration);
+            }
         }
 
         //源目录下超过阈值的大文件直接进行复制 不需要合并
@@ -94,7 +103,7 @@ public abstract class CombineServer {
         }
 
         //小文件合并
-        doCombine(combineFiles, mergedTempPath);
+        doCombine(binPack(combineFiles), mergedTempPath);
         log.info("merge {} to {} successful ", sourcePath, mergedTempPath);
     }
 
@@ -108,6 +117,36 @@ public abstract class CombineServer {
      */
     protected abstract String getFileSuffix();
 
+    /**
+     * 按 First Fit Decreasing 将小文件装箱，每个箱子的大小不超过 maxCombinedFileSize，
+     * 返回按箱子顺序排列的文件，合并时依次写入可以让合并后的文件大小更接近 maxCombinedFileSize
+     *
+     * @param combineFiles 需要合并的小文件
+     * @return 按箱子顺序排列的文件
+     */
+    protected ArrayList<FileStatus> binPack(ArrayList<FileStatus> combineFiles) {
+        List<FileStatus> sorted = new ArrayList<>(combineFiles);
+        sorted.sort(Comparator.comparingLong(FileStatus::getLen).reversed());
+        List<List<FileStatus>> bins = new ArrayList<>();
+        List<Long> binSizes = new ArrayList<>();
+        for (FileStatus fileStatus : sorted) {
+            int binIndex = 0;
+            while (binIndex < bins.size() && binSizes.get(binIndex) + fileStatus.getLen() > maxCombinedFileSize) {
+                binIndex++;
+            }
+            if (binIndex == bins.size()) {
+                bins.add(new ArrayList<>());
+                binSizes.add(0L);
+            }
+            bins.get(binIndex).add(fileStatus);
+            binSizes.set(binIndex, binSizes.get(binIndex) + fileStatus.getLen());
+        }
+        log.info("{} small files on {} are packed into {} bins", combineFiles.size(), sourcePath, bins.size());
+        ArrayList<FileStatus> packed = new ArrayList<>(combineFiles.size());
+        bins.forEach(packed::addAll);
+        return packed;
+    }
+
     private void splitFile(Path sourcePath, ArrayList<FileStatus> directors, ArrayList<FileStatus> copyFiles, ArrayList<FileStatus> combineFiles) {
 
         //合并文件  移动文件 合并文件 移动文件夹
@@ -159,6 +198,10 @@ public abstract class CombineServer {
         this.fs = fs;
     }
 
+    public void setCopyDirectory(boolean copyDirectory) {
+        this.copyDirectory = copyDirectory;
+    }
+
 
     @Override
     public String toString() {
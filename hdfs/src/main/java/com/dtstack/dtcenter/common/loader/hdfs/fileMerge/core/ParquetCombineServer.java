@@ -25,25 +25,33 @@ import com.dtstack.dtcenter.loader.enums.FileFormat;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
 import org.apache.parquet.column.ParquetProperties;
 import org.apache.parquet.example.data.Group;
 import org.apache.parquet.format.CompressionCodec;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
 import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.example.ExampleParquetWriter;
 import org.apache.parquet.hadoop.example.GroupReadSupport;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
 
 import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static java.math.BigDecimal.ROUND_HALF_UP;
@@ -64,8 +72,110 @@ public class ParquetCombineServer extends CombineServer {
     protected void doCombine(ArrayList<FileStatus> combineFiles, Path mergedTempPath) throws IOException {
         init(combineFiles);
 
-        List<Path> paths = combineFiles.stream().map(FileStatus::getPath).collect(Collectors.toList());
+        // schema、压缩格式和合并后文件一致的小文件直接按 row group 拷贝 column chunk，不需要解码和重新编码
+        List<FileStatus> appendFiles = new ArrayList<>();
+        List<ParquetMetadata> appendFooters = new ArrayList<>();
+        // 行数据只能写入 schema 相同的 writer，需要重新写入的文件按 schema 分组
+        Map<MessageType, List<Path>> rewritePaths = new LinkedHashMap<>();
+        int rewriteCount = 0;
+        long rewriteBytes = 0L;
+        for (FileStatus fileStatus : combineFiles) {
+            ParquetMetadata footer = ParquetFileReader.readFooter(configuration, fileStatus, ParquetMetadataConverter.NO_FILTER);
+            if (isRowGroupCompatible(footer)) {
+                appendFiles.add(fileStatus);
+                appendFooters.add(footer);
+            } else {
+                rewritePaths.computeIfAbsent(footer.getFileMetaData().getSchema(), schema -> new ArrayList<>()).add(fileStatus.getPath());
+                rewriteCount++;
+                rewriteBytes += fileStatus.getLen();
+            }
+        }
+
+        if (!appendFiles.isEmpty()) {
+            long start = System.currentTimeMillis();
+            long bytes = appendRowGroups(appendFiles, appendFooters);
+            logThroughput("append row groups", appendFiles.size(), bytes, start);
+        }
+        if (!rewritePaths.isEmpty()) {
+            long start = System.currentTimeMillis();
+            if (rewritePaths.size() > 1) {
+                log.warn("parquet files to rewrite have {} different schemas, each schema is written to separate files", rewritePaths.size());
+            }
+            for (Map.Entry<MessageType, List<Path>> schemaGroup : rewritePaths.entrySet()) {
+                rewriteRecords(schemaGroup.getKey(), schemaGroup.getValue());
+            }
+            logThroughput("rewrite records", rewriteCount, rewriteBytes, start);
+        }
+    }
 
+    /**
+     * 按 row group 拷贝文件，column chunk 和统计信息原样写入，合并后文件大小达到上限时切换文件
+     *
+     * @param files   需要合并的文件
+     * @param footers 文件对应的 footer
+     * @return 拷贝的字节数
+     */
+    private long appendRowGroups(List<FileStatus> files, List<ParquetMetadata> footers) {
+        ParquetFileWriter writer = null;
+        Map<String, String> extraMetaData = null;
+        long currentBytes = 0L;
+        long totalBytes = 0L;
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                List<BlockMetaData> blocks = footers.get(i).getBlocks();
+                if (CollectionUtils.isEmpty(blocks)) {
+                    continue;
+                }
+                FileStatus fileStatus = files.get(i);
+                log.info("start append row groups of {}", fileStatus.getPath());
+                long bytes = blocks.stream().mapToLong(BlockMetaData::getCompressedSize).sum();
+                //写入后会超过合并后文件的大小上限时 先切换文件
+                if (writer != null && currentBytes + bytes > maxCombinedFileSize) {
+                    currentBytes = 0L;
+                    writer.end(extraMetaData);
+                    writer = null;
+                }
+                if (writer == null) {
+                    writer = getFileWriter(index++, mergedFileName);
+                    extraMetaData = footers.get(i).getFileMetaData().getKeyValueMetaData();
+                }
+                try (FSDataInputStream inputStream = fs.open(fileStatus.getPath())) {
+                    writer.appendRowGroups(inputStream, blocks, false);
+                }
+                currentBytes += bytes;
+                totalBytes += bytes;
+                //如果达到了合并后文件的大小上限 此文件就不会再进行写入
+                if (currentBytes >= maxCombinedFileSize) {
+                    currentBytes = 0L;
+                    writer.end(extraMetaData);
+                    writer = null;
+                }
+            }
+            if (writer != null) {
+                writer.end(extraMetaData);
+                writer = null;
+            }
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("combine file failed,errorMessage: %s", e.getMessage()), e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.end(extraMetaData);
+                } catch (Exception e) {
+                    log.warn("close parquet file writer failed" + e.getMessage());
+                }
+            }
+        }
+        return totalBytes;
+    }
+
+    /**
+     * 按行解码后重新写入，用于 schema、压缩格式不一致的文件
+     *
+     * @param schema 文件的 schema，同一批文件的 schema 必须相同
+     * @param paths  需要合并的文件
+     */
+    private void rewriteRecords(MessageType schema, List<Path> paths) {
         ParquetWriter<Group> writer = null;
 
         long currentCount = 0L;
@@ -74,20 +184,21 @@ public class ParquetCombineServer extends CombineServer {
                 log.info("start read {}",path);
                 GroupReadSupport readSupport = new GroupReadSupport();
                 ParquetReader.Builder<Group> builder = ParquetReader.builder(readSupport, path).withConf(configuration);
-                ParquetReader<Group> reader = builder.build();
-                Group line;
-                while ((line = reader.read()) != null) {
-                    if (writer == null) {
-                        writer = getWriter(index++, mergedFileName);
-                    }
+                try (ParquetReader<Group> reader = builder.build()) {
+                    Group line;
+                    while ((line = reader.read()) != null) {
+                        if (writer == null) {
+                            writer = getWriter(index++, mergedFileName, schema);
+                        }
 
-                    currentCount++;
-                    writer.write(line);
+                        currentCount++;
+                        writer.write(line);
 
-                    if (currentCount >= metadata.getLimitSize()) {
-                        currentCount = 0L;
-                        writer.close();
-                        writer = null;
+                        if (currentCount >= metadata.getLimitSize()) {
+                            currentCount = 0L;
+                            writer.close();
+                            writer = null;
+                        }
                     }
                 }
             }
@@ -98,6 +209,31 @@ public class ParquetCombineServer extends CombineServer {
         }
     }
 
+    /**
+     * 判断文件是否可以直接按 row group 拷贝到合并后的文件
+     *
+     * @param footer 文件 footer
+     * @return 是否可以按 row group 拷贝
+     */
+    private boolean isRowGroupCompatible(ParquetMetadata footer) {
+        if (!footer.getFileMetaData().getSchema().equals(metadata.getSchema())) {
+            return false;
+        }
+        for (BlockMetaData block : footer.getBlocks()) {
+            for (ColumnChunkMetaData column : block.getColumns()) {
+                if (column.getCodec() != metadata.getCodec()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void logThroughput(String mode, int fileCount, long bytes, long start) {
+        long cost = Math.max(1L, System.currentTimeMillis() - start);
+        log.info("{} of {} parquet files finished, bytes : {}, cost : {} ms, bytes/sec : {}", mode, fileCount, bytes, cost, bytes * 1000 / cost);
+    }
+
     @Override
     public String getFileSuffix() {
         return FileFormat.PARQUET.name();
@@ -121,21 +257,16 @@ public class ParquetCombineServer extends CombineServer {
     }
 
 
-    private ParquetWriter<Group> getWriter(int id, String mergedFileName) throws IOException {
-        String combineFileName = mergedTempPath.toString() + File.separator
-                + mergedFileName + id + "." + getFileSuffix();
-
-        if (metadata.isCompressed()) {
-            combineFileName += metadata.geteCompressType().getSuffix();
-        }
+    private ParquetWriter<Group> getWriter(int id, String mergedFileName, MessageType schema) throws IOException {
+        String combineFileName = getCombineFileName(id, mergedFileName);
 
         ExampleParquetWriter.Builder builder = ExampleParquetWriter
                 .builder(new Path(combineFileName))
-                .withWriteMode(org.apache.parquet.hadoop.ParquetFileWriter.Mode.CREATE)
+                .withWriteMode(ParquetFileWriter.Mode.CREATE)
                 .withWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0)
                 .withRowGroupSize(org.apache.parquet.hadoop.ParquetWriter.DEFAULT_BLOCK_SIZE)
                 .withConf(configuration)
-                .withType(metadata.getSchema());
+                .withType(schema);
 
         if (metadata.isCompressed()) {
             builder.withCompressionCodec(CompressionCodecName.fromConf(metadata.geteCompressType().getType()));
@@ -147,6 +278,28 @@ public class ParquetCombineServer extends CombineServer {
         return builder.build();
     }
 
+    /**
+     * 创建按 row group 拷贝时使用的 writer，拷贝的 column chunk 保持原来的压缩格式
+     */
+    private ParquetFileWriter getFileWriter(int id, String mergedFileName) throws IOException {
+        String combineFileName = getCombineFileName(id, mergedFileName);
+        ParquetFileWriter writer = new ParquetFileWriter(configuration, metadata.getSchema(), new Path(combineFileName),
+                ParquetFileWriter.Mode.CREATE, ParquetWriter.DEFAULT_BLOCK_SIZE, ParquetWriter.MAX_PADDING_SIZE_DEFAULT);
+        writer.start();
+        log.info("switch file writer,the new path is {}", combineFileName);
+        return writer;
+    }
+
+    private String getCombineFileName(int id, String mergedFileName) {
+        String combineFileName = mergedTempPath.toString() + File.separator
+                + mergedFileName + id + "." + getFileSuffix();
+
+        if (metadata.isCompressed()) {
+            combineFileName += metadata.geteCompressType().getSuffix();
+        }
+        return combineFileName;
+    }
+
     private void cleanSource(ParquetWriter<Group> writer) {
         if (writer != null) {
             try {
@@ -165,6 +318,7 @@ public class ParquetCombineServer extends CombineServer {
             if (CollectionUtils.isNotEmpty(blocks)) {
                 BlockMetaData blockMetaData = blocks.get(0);
                 CompressionCodec compressionCodec = CompressionCodec.valueOf(blockMetaData.getColumns().get(0).getCodec().toString());
+                metaData.setCodec(blockMetaData.getColumns().get(0).getCodec());
 
                 //小文件的数据大小
                 long compressedSize = blockMetaData.getCompressedSize();
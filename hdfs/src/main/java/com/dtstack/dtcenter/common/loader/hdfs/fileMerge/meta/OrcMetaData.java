@@ -18,6 +18,8 @@
 
 package com.dtstack.dtcenter.common.loader.hdfs.fileMerge.meta;
 
+import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcFile;
 import org.apache.orc.TypeDescription;
 
 /**
@@ -27,6 +29,17 @@ public class OrcMetaData extends FileMetaData {
     //新的orc文件的schema
     private TypeDescription schema;
 
+    //以下信息都相同的文件可以直接按 stripe 拼接，不需要解码后重新写入
+    private CompressionKind compressionKind;
+
+    private int compressionSize;
+
+    private OrcFile.Version fileVersion;
+
+    private OrcFile.WriterVersion writerVersion;
+
+    private int rowIndexStride;
+
     public TypeDescription getSchema() {
         return schema;
     }
@@ -34,4 +47,44 @@ public class OrcMetaData extends FileMetaData {
     public void setSchema(TypeDescription schema) {
         this.schema = schema;
     }
+
+    public CompressionKind getCompressionKind() {
+        return compressionKind;
+    }
+
+    public void setCompressionKind(CompressionKind compressionKind) {
+        this.compressionKind = compressionKind;
+    }
+
+    public int getCompressionSize() {
+        return compressionSize;
+    }
+
+    public void setCompressionSize(int compressionSize) {
+        this.compressionSize = compressionSize;
+    }
+
+    public OrcFile.Version getFileVersion() {
+        return fileVersion;
+    }
+
+    public void setFileVersion(OrcFile.Version fileVersion) {
+        this.fileVersion = fileVersion;
+    }
+
+    public OrcFile.WriterVersion getWriterVersion() {
+        return writerVersion;
+    }
+
+    public void setWriterVersion(OrcFile.WriterVersion writerVersion) {
+        this.writerVersion = writerVersion;
+    }
+
+    public int getRowIndexStride() {
+        return rowIndexStride;
+    }
+
+    public void setRowIndexStride(int rowIndexStride) {
+        this.rowIndexStride = rowIndexStride;
+    }
 }
@@ -86,6 +86,11 @@ public class HdfsParquetWriter {
      */
     public static int writeByPos(ISourceDTO source, HdfsWriterDTO hdfsWriterDTO) throws IOException {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
+        int parallelism = ParallelCsvImporter.getParallelism(hdfsWriterDTO);
+        if (parallelism > 1) {
+            return ParallelCsvImporter.writeByPos(hdfsSourceDTO, hdfsWriterDTO, parallelism,
+                    (path, partWriterDTO) -> createPartWriter(hdfsSourceDTO, path, partWriterDTO));
+        }
         int startLine = hdfsWriterDTO.getStartLine();
         //首行是标题则内容从下一行开始
         if (BooleanUtils.isTrue(hdfsWriterDTO.getTopLineIsTitle())) {
@@ -110,77 +115,7 @@ public class HdfsParquetWriter {
                     continue;
                 }
 
-                String[] lineArray = reader.getValues();
-                int size = 0;
-                if (lineArray.length > hdfsWriterDTO.getColumnsList().size()) {
-                    size = hdfsWriterDTO.getColumnsList().size();
-                } else {
-                    size = lineArray.length;
-                }
-
-                group = new SimpleGroup(schema);
-                for (int i = 0; i < size; i++) {
-                    String val = lineArray[i];
-                    Boolean isSetDefault = ReflectUtil.getFieldValueNotThrow(Boolean.class, hdfsWriterDTO, "setDefault", true, true);
-                    // val 为空且不设置默认值时 跳过本次循环
-                    if (StringUtils.isBlank(val) && !isSetDefault) {
-                        continue;
-                    }
-                    // 为 null 时跳过本次循环
-                    if (StringUtils.equalsIgnoreCase(val, HdfsWriter.DEFAULT_NULL)) {
-                        continue;
-                    }
-                    String type = hdfsWriterDTO.getColumnsList().get(i).getType().toLowerCase();
-                    switch (type) {
-                        case "tinyint":
-                        case "smallint":
-                        case "int":
-                        case "integer":
-                            group.add(i, Integer.parseInt(val));
-                            break;
-                        case "bigint":
-                            group.add(i, Long.parseLong(val));
-                            break;
-                        case "float":
-                            group.add(i, Float.parseFloat(val));
-                            break;
-                        case "double":
-                            group.add(i, Double.parseDouble(val));
-                            break;
-                        case "binary":
-                            group.add(i, Binary.fromString(val));
-                            break;
-                        case "char":
-                        case "varchar":
-                        case "string":
-                            group.add(i, val);
-                            break;
-                        case "boolean":
-                            group.add(i, Boolean.parseBoolean(val));
-                            break;
-                        case "timestamp":
-                            Timestamp ts = new Timestamp(getTime(val, hdfsWriterDTO.getKeyList().get(i).getDateFormat()));
-                            group.add(i, NanoTimeUtils.getNanoTime(ts, false).toBinary());
-                            break;
-                        case "date":
-                            group.add(i, DateWritable.millisToDays(getMillis(val, hdfsWriterDTO.getKeyList().get(i).getDateFormat())));
-                            break;
-                        default:
-                            if (type.contains("decimal")) {
-                                HiveDecimal hiveDecimal = HiveDecimal.create(new BigDecimal(val));
-                                Map<String, Integer> decimalInfo = decimalColInfo.get(hdfsWriterDTO.getColumnsList().get(i).getKey());
-                                if (decimalInfo != null) {
-                                    group.add(i, decimalToBinary(hiveDecimal, decimalInfo.get(KEY_PRECISION), decimalInfo.get(KEY_SCALE)));
-                                } else {
-                                    group.add(i, Integer.parseInt(val));
-                                }
-                            } else {
-                                group.add(i, val);
-                            }
-                            break;
-                    }
-                }
-
+                group = toGroupByPos(schema, reader.getValues(), hdfsWriterDTO, decimalColInfo);
                 writer.write(group);
 
                 currLineNum++;
@@ -337,11 +272,91 @@ public class HdfsParquetWriter {
         return writeLineNum;
     }
 
+    /**
+     * 按位置将一行数据转换为 parquet 的 {@link Group}
+     */
+    private static Group toGroupByPos(MessageType schema, String[] lineArray, HdfsWriterDTO hdfsWriterDTO,
+                                      Map<String, Map<String, Integer>> decimalColInfo) throws Exception {
+        int size = 0;
+        if (lineArray.length > hdfsWriterDTO.getColumnsList().size()) {
+            size = hdfsWriterDTO.getColumnsList().size();
+        } else {
+            size = lineArray.length;
+        }
+
+        Group group = new SimpleGroup(schema);
+        for (int i = 0; i < size; i++) {
+            String val = lineArray[i];
+            Boolean isSetDefault = ReflectUtil.getFieldValueNotThrow(Boolean.class, hdfsWriterDTO, "setDefault", true, true);
+            // val 为空且不设置默认值时 跳过本次循环
+            if (StringUtils.isBlank(val) && !isSetDefault) {
+                continue;
+            }
+            // 为 null 时跳过本次循环
+            if (StringUtils.equalsIgnoreCase(val, HdfsWriter.DEFAULT_NULL)) {
+                continue;
+            }
+            String type = hdfsWriterDTO.getColumnsList().get(i).getType().toLowerCase();
+            switch (type) {
+                case "tinyint":
+                case "smallint":
+                case "int":
+                case "integer":
+                    group.add(i, Integer.parseInt(val));
+                    break;
+                case "bigint":
+                    group.add(i, Long.parseLong(val));
+                    break;
+                case "float":
+                    group.add(i, Float.parseFloat(val));
+                    break;
+                case "double":
+                    group.add(i, Double.parseDouble(val));
+                    break;
+                case "binary":
+                    group.add(i, Binary.fromString(val));
+                    break;
+                case "char":
+                case "varchar":
+                case "string":
+                    group.add(i, val);
+                    break;
+                case "boolean":
+                    group.add(i, Boolean.parseBoolean(val));
+                    break;
+                case "timestamp":
+                    Timestamp ts = new Timestamp(getTime(val, hdfsWriterDTO.getKeyList().get(i).getDateFormat()));
+                    group.add(i, NanoTimeUtils.getNanoTime(ts, false).toBinary());
+                    break;
+                case "date":
+                    group.add(i, DateWritable.millisToDays(getMillis(val, hdfsWriterDTO.getKeyList().get(i).getDateFormat())));
+                    break;
+                default:
+                    if (type.contains("decimal")) {
+                        HiveDecimal hiveDecimal = HiveDecimal.create(new BigDecimal(val));
+                        Map<String, Integer> decimalInfo = decimalColInfo.get(hdfsWriterDTO.getColumnsList().get(i).getKey());
+                        if (decimalInfo != null) {
+                            group.add(i, decimalToBinary(hiveDecimal, decimalInfo.get(KEY_PRECISION), decimalInfo.get(KEY_SCALE)));
+                        } else {
+                            group.add(i, Integer.parseInt(val));
+                        }
+                    } else {
+                        group.add(i, val);
+                    }
+                    break;
+            }
+        }
+        return group;
+    }
+
     private static ParquetWriter<Group> getWriter(HdfsSourceDTO sourceDTO, String hdfsDirPath, List<ColumnMetaDTO> columnsList) throws IOException {
+        return getWriter(sourceDTO, new Path(hdfsDirPath, "part-" + UUID.randomUUID().toString() + ".parquet"), columnsList);
+    }
+
+    private static ParquetWriter<Group> getWriter(HdfsSourceDTO sourceDTO, Path writePath, List<ColumnMetaDTO> columnsList) throws IOException {
         Configuration conf = HadoopConfUtil.getHdfsConf(sourceDTO.getDefaultFS(), sourceDTO.getConfig(), sourceDTO.getKerberosConfig());
         MessageType schema = buildSchema(columnsList);
         GroupWriteSupport.setSchema(schema, conf);
-        Path writePath = new Path(hdfsDirPath, "part-" + UUID.randomUUID().toString() + ".parquet");
 
         ExampleParquetWriter.Builder builder = ExampleParquetWriter.builder(writePath)
                 .withWriteMode(ParquetFileWriter.Mode.CREATE)
@@ -353,6 +368,26 @@ public class HdfsParquetWriter {
         return builder.build();
     }
 
+    /**
+     * 并发导入时每个文件的写入器
+     */
+    private static ParallelCsvImporter.PartWriter createPartWriter(HdfsSourceDTO sourceDTO, Path path, HdfsWriterDTO hdfsWriterDTO) throws IOException {
+        MessageType schema = buildSchema(hdfsWriterDTO.getColumnsList());
+        Map<String, Map<String, Integer>> decimalColInfo = getDecimalColInfo(hdfsWriterDTO.getColumnsList());
+        ParquetWriter<Group> writer = getWriter(sourceDTO, path, hdfsWriterDTO.getColumnsList());
+        return new ParallelCsvImporter.PartWriter() {
+            @Override
+            public void write(String[] values) throws Exception {
+                writer.write(toGroupByPos(schema, values, hdfsWriterDTO, decimalColInfo));
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
     private static void closeResource(ParquetWriter<Group> writer, InputStreamReader inputStreamReader, CsvReader reader) throws IOException {
         if (writer != null) {
             writer.close();
@@ -19,7 +19,9 @@
 package com.dtstack.dtcenter.common.loader.hdfs.hdfswriter;
 
 import com.csvreader.CsvReader;
-import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HadoopConfUtil;
+import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.FileSystemCache;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.FileSystemLease;
 import com.dtstack.dtcenter.loader.dto.ColumnMetaDTO;
 import com.dtstack.dtcenter.loader.dto.HDFSImportColumn;
 import com.dtstack.dtcenter.loader.dto.HdfsWriterDTO;
@@ -33,12 +35,17 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.text.ParseException;
 import java.util.List;
 import java.util.Objects;
@@ -61,6 +68,16 @@ public class HdfsTextWriter {
      */
     private static final int NEWLINE = 10;
 
+    /**
+     * 写入缓冲区大小
+     */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * 不压缩
+     */
+    private static final String NONE_CODEC = "none";
+
     /**
      * 从文件中读取行,根据提供的分隔符号分割,再根据提供的hdfs分隔符合并,写入hdfs
      * ---需要根据column信息判断导入的数据是否符合要求
@@ -72,6 +89,15 @@ public class HdfsTextWriter {
      */
     public static int writeByPos(ISourceDTO source, HdfsWriterDTO hdfsWriterDTO) throws IOException {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
+        int parallelism = ParallelCsvImporter.getParallelism(hdfsWriterDTO);
+        if (parallelism > 1) {
+            try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+                final FileSystem fs = lease.get();
+                final CompressionCodec codec = getCompressionCodec(fs.getConf(), hdfsWriterDTO);
+                return ParallelCsvImporter.writeByPos(hdfsSourceDTO, hdfsWriterDTO, parallelism, getExtension(codec),
+                        (path, partWriterDTO) -> createPartWriter(fs, path, codec, partWriterDTO));
+            }
+        }
         int startLine = hdfsWriterDTO.getStartLine();
         //首行是标题则内容从下一行开始
         if (BooleanUtils.isTrue(hdfsWriterDTO.getTopLineIsTitle())) {
@@ -80,51 +106,49 @@ public class HdfsTextWriter {
 
         //FIXME 暂时根据uuid生成文件名称--需要改成和hive原始的名称eg: part-0000
         final String hdfsPath = hdfsWriterDTO.getHdfsDirPath() + "/" + UUID.randomUUID();
-        final boolean overwrite = false;
-
-        final Configuration conf = HadoopConfUtil.getHdfsConf(hdfsSourceDTO.getDefaultFS(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getKerberosConfig());
-        final FileSystem fs = FileSystem.get(conf);
-        final Path p = new Path(hdfsPath);
-        final OutputStream stream = fs.create(p, overwrite);
-
-        int writeLineNum = 0;
-        int currLineNum = 0;
-
-        InputStreamReader inputStreamReader = null;
-        CsvReader reader = null;
-        try {
-            inputStreamReader = HdfsWriter.getReader(hdfsWriterDTO.getFromFileName(), hdfsWriterDTO.getOriCharSet());
-            reader = new CsvReader(inputStreamReader, HdfsWriter.getDelim(hdfsWriterDTO.getFromLineDelimiter()));
-            while (reader.readRecord()) {
-                currLineNum++;
-                if (currLineNum < startLine) {
-                    continue;
-                }
 
-                final String[] lineArray = reader.getValues();
-                final String recordStr = transformColumn(hdfsWriterDTO.getColumnsList(), hdfsWriterDTO.getKeyList(), lineArray, hdfsWriterDTO.getToLineDelimiter(), hdfsWriterDTO);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            final FileSystem fs = lease.get();
+            final CompressionCodec codec = getCompressionCodec(fs.getConf(), hdfsWriterDTO);
+            final Writer writer = createWriter(fs, new Path(hdfsPath + getExtension(codec)), codec);
 
-                final byte[] bytes = recordStr.getBytes(Charsets.UTF_8);
-                stream.write(bytes);
-                stream.write(HdfsTextWriter.NEWLINE);
-                stream.flush();
-                writeLineNum++;
-            }
-        } catch (final Exception e) {
-            throw new DtLoaderException("the" + currLineNum + "row data is abnormal, please check, data import failed", e);
-        } finally {
-            stream.close();
+            int writeLineNum = 0;
+            int currLineNum = 0;
 
-            if (inputStreamReader != null) {
-                inputStreamReader.close();
-            }
+            InputStreamReader inputStreamReader = null;
+            CsvReader reader = null;
+            try {
+                inputStreamReader = HdfsWriter.getReader(hdfsWriterDTO.getFromFileName(), hdfsWriterDTO.getOriCharSet());
+                reader = new CsvReader(inputStreamReader, HdfsWriter.getDelim(hdfsWriterDTO.getFromLineDelimiter()));
+                while (reader.readRecord()) {
+                    currLineNum++;
+                    if (currLineNum < startLine) {
+                        continue;
+                    }
+
+                    final String[] lineArray = reader.getValues();
+                    final String recordStr = transformColumn(hdfsWriterDTO.getColumnsList(), hdfsWriterDTO.getKeyList(), lineArray, hdfsWriterDTO.getToLineDelimiter(), hdfsWriterDTO);
+
+                    writer.write(recordStr);
+                    writer.write(NEWLINE);
+                    writeLineNum++;
+                }
+            } catch (final Exception e) {
+                throw new DtLoaderException("the" + currLineNum + "row data is abnormal, please check, data import failed", e);
+            } finally {
+                writer.close();
 
-            if (reader != null) {
-                reader.close();
+                if (inputStreamReader != null) {
+                    inputStreamReader.close();
+                }
+
+                if (reader != null) {
+                    reader.close();
+                }
             }
-        }
 
-        return writeLineNum;
+            return writeLineNum;
+        }
     }
 
     /**
@@ -137,101 +161,172 @@ public class HdfsTextWriter {
      */
     public static int writeByName(ISourceDTO source, HdfsWriterDTO hdfsWriterDTO) throws IOException {
         HdfsSourceDTO hdfsSourceDTO = (HdfsSourceDTO) source;
-        final boolean overwrite = false;
-        final Configuration conf = HadoopConfUtil.getHdfsConf(hdfsSourceDTO.getDefaultFS(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getKerberosConfig());
-        final FileSystem fs = FileSystem.get(conf);
-        final String hdfsPath = hdfsWriterDTO.getHdfsDirPath() + "/" + UUID.randomUUID();
-        final Path p = new Path(hdfsPath);
-        final OutputStream stream = fs.create(p, overwrite);
+        try (FileSystemLease lease = FileSystemCache.acquire(hdfsSourceDTO.getKerberosConfig(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getDefaultFS())) {
+            final FileSystem fs = lease.get();
+            final String hdfsPath = hdfsWriterDTO.getHdfsDirPath() + "/" + UUID.randomUUID();
+            final CompressionCodec codec = getCompressionCodec(fs.getConf(), hdfsWriterDTO);
+            final Writer writer = createWriter(fs, new Path(hdfsPath + getExtension(codec)), codec);
+
+            int currLineNum = 0;
+            int writeLineNum = 0;
+            int startLine = hdfsWriterDTO.getStartLine();
+            final List<Integer> indexList = Lists.newArrayList();
+
+            InputStreamReader inputStreamReader = null;
+            CsvReader reader = null;
+            try {
+                inputStreamReader = HdfsWriter.getReader(hdfsWriterDTO.getFromFileName(), hdfsWriterDTO.getOriCharSet());
+                reader = new CsvReader(inputStreamReader, HdfsWriter.getDelim(hdfsWriterDTO.getFromLineDelimiter()));
+                while (reader.readRecord()) {
+                    if (currLineNum < (startLine - 1)) {
+                        currLineNum++;
+                        continue;
+                    }
 
-        int currLineNum = 0;
-        int writeLineNum = 0;
-        int startLine = hdfsWriterDTO.getStartLine();
-        final List<Integer> indexList = Lists.newArrayList();
-
-        InputStreamReader inputStreamReader = null;
-        CsvReader reader = null;
-        try {
-            inputStreamReader = HdfsWriter.getReader(hdfsWriterDTO.getFromFileName(), hdfsWriterDTO.getOriCharSet());
-            reader = new CsvReader(inputStreamReader, HdfsWriter.getDelim(hdfsWriterDTO.getFromLineDelimiter()));
-            while (reader.readRecord()) {
-                if (currLineNum < (startLine - 1)) {
-                    currLineNum++;
-                    continue;
-                }
+                    final String[] columnArr = reader.getValues();
+                    // 首行为标题行
+                    if (currLineNum == (startLine - 1)) {
+                        // 计算出需要使用的索引位置
+                        for (final HDFSImportColumn importColum : hdfsWriterDTO.getKeyList()) {
+                            if (StringUtils.isBlank(importColum.getKey())) {
+                                indexList.add(-1);
+                            } else {
+                                boolean isMatch = false;
+                                for (int i = 0; i < columnArr.length; i++) {
+                                    final String name = columnArr[i];
+                                    if (name.equals(importColum.getKey())) {
+                                        indexList.add(i);
+                                        isMatch = true;
+                                        break;
+                                    }
+                                }
 
-                final String[] columnArr = reader.getValues();
-                // 首行为标题行
-                if (currLineNum == (startLine - 1)) {
-                    // 计算出需要使用的索引位置
-                    for (final HDFSImportColumn importColum : hdfsWriterDTO.getKeyList()) {
-                        if (StringUtils.isBlank(importColum.getKey())) {
-                            indexList.add(-1);
-                        } else {
-                            boolean isMatch = false;
-                            for (int i = 0; i < columnArr.length; i++) {
-                                final String name = columnArr[i];
-                                if (name.equals(importColum.getKey())) {
-                                    indexList.add(i);
-                                    isMatch = true;
-                                    break;
+                                if (!isMatch) {
+                                    indexList.add(-1);
                                 }
                             }
+                        }
 
-                            if (!isMatch) {
-                                indexList.add(-1);
+                        currLineNum++;
+                        continue;
+                    }
+
+                    final StringBuffer sb = new StringBuffer();
+
+                    for (int i = 0; i < indexList.size(); i++) {
+                        final Integer index = indexList.get(i);
+                        if (index == -1) {
+                            sb.append(hdfsWriterDTO.getToLineDelimiter());
+                        } else if (index > (columnArr.length - 1)) {
+                            sb.append(hdfsWriterDTO.getToLineDelimiter());
+                        } else {
+                            final ColumnMetaDTO columnMeta = hdfsWriterDTO.getColumnsList().get(i);
+                            Object targetObj = HdfsWriter.convertToTargetType(columnMeta.getType(), columnArr[index], hdfsWriterDTO.getKeyList().get(i).getDateFormat(), hdfsWriterDTO);
+                            if (Objects.nonNull(targetObj)) {
+                                sb.append(targetObj.toString());
                             }
+                            sb.append(hdfsWriterDTO.getToLineDelimiter());
                         }
                     }
 
+                    String recordStr = sb.toString();
+                    if (recordStr.endsWith(hdfsWriterDTO.getToLineDelimiter())) {
+                        recordStr = recordStr.substring(0, recordStr.length() - 1);
+                    }
+
+                    writer.write(recordStr);
+                    writer.write(NEWLINE);
                     currLineNum++;
-                    continue;
+                    writeLineNum++;
                 }
+            } catch (final Exception e) {
+                throw new DtLoaderException("(The" + currLineNum + "row data is abnormal, please check, data import failed)", e);
+            } finally {
+                writer.close();
 
-                final StringBuffer sb = new StringBuffer();
-
-                for (int i = 0; i < indexList.size(); i++) {
-                    final Integer index = indexList.get(i);
-                    if (index == -1) {
-                        sb.append(hdfsWriterDTO.getToLineDelimiter());
-                    } else if (index > (columnArr.length - 1)) {
-                        sb.append(hdfsWriterDTO.getToLineDelimiter());
-                    } else {
-                        final ColumnMetaDTO columnMeta = hdfsWriterDTO.getColumnsList().get(i);
-                        Object targetObj = HdfsWriter.convertToTargetType(columnMeta.getType(), columnArr[index], hdfsWriterDTO.getKeyList().get(i).getDateFormat(), hdfsWriterDTO);
-                        if (Objects.nonNull(targetObj)) {
-                            sb.append(targetObj.toString());
-                        }
-                        sb.append(hdfsWriterDTO.getToLineDelimiter());
-                    }
+                if (inputStreamReader != null) {
+                    inputStreamReader.close();
                 }
 
-                String recordStr = sb.toString();
-                if (recordStr.endsWith(hdfsWriterDTO.getToLineDelimiter())) {
-                    recordStr = recordStr.substring(0, recordStr.length() - 1);
+                if (reader != null) {
+                    reader.close();
                 }
+            }
+            return writeLineNum;
+        }
+    }
 
-                final byte[] bytes = recordStr.getBytes(Charsets.UTF_8);
-                stream.write(bytes);
-                stream.write(NEWLINE);
-                stream.flush();
-                currLineNum++;
-                writeLineNum++;
+    /**
+     * 并发导入时每个文件的写入器
+     */
+    private static ParallelCsvImporter.PartWriter createPartWriter(FileSystem fs, Path path, CompressionCodec codec, HdfsWriterDTO hdfsWriterDTO) throws IOException {
+        final Writer writer = createWriter(fs, path, codec);
+        return new ParallelCsvImporter.PartWriter() {
+            @Override
+            public void write(String[] values) throws Exception {
+                writer.write(transformColumn(hdfsWriterDTO.getColumnsList(), hdfsWriterDTO.getKeyList(), values, hdfsWriterDTO.getToLineDelimiter(), hdfsWriterDTO));
+                writer.write(NEWLINE);
             }
-        } catch (final Exception e) {
-            throw new DtLoaderException("(The" + currLineNum + "row data is abnormal, please check, data import failed)", e);
-        } finally {
-            stream.close();
 
-            if (inputStreamReader != null) {
-                inputStreamReader.close();
+            @Override
+            public void close() throws IOException {
+                writer.close();
             }
+        };
+    }
 
-            if (reader != null) {
-                reader.close();
+    /**
+     * 获取写入使用的压缩格式
+     *
+     * @param conf          hadoop 配置
+     * @param hdfsWriterDTO hdfs 写入配置类
+     * @return 压缩格式，未设置时返回 null
+     */
+    private static CompressionCodec getCompressionCodec(Configuration conf, HdfsWriterDTO hdfsWriterDTO) {
+        String codecName = ReflectUtil.getFieldValueNotThrow(String.class, hdfsWriterDTO, "compressCodec", null);
+        if (StringUtils.isBlank(codecName) || NONE_CODEC.equalsIgnoreCase(codecName.trim())) {
+            return null;
+        }
+        CompressionCodec codec = new CompressionCodecFactory(conf).getCodecByName(codecName.trim());
+        if (codec == null) {
+            throw new DtLoaderException(String.format("compress codec %s is not supported", codecName));
+        }
+        return codec;
+    }
+
+    /**
+     * 压缩文件需要带上压缩格式的扩展名，hive 根据扩展名识别压缩格式
+     */
+    private static String getExtension(CompressionCodec codec) {
+        return codec == null ? "" : codec.getDefaultExtension();
+    }
+
+    /**
+     * 创建文本写入器，记录在缓冲区中编码，缓冲区满或关闭时才写入 hdfs，不再逐行 flush
+     *
+     * @param fs    文件系统
+     * @param path  文件路径
+     * @param codec 压缩格式，为 null 时不压缩
+     * @return 写入器
+     * @throws IOException io 异常
+     */
+    private static Writer createWriter(FileSystem fs, Path path, CompressionCodec codec) throws IOException {
+        OutputStream stream = fs.create(path, false);
+        if (codec != null) {
+            try {
+                stream = codec.createOutputStream(stream);
+            } catch (IOException | RuntimeException e) {
+                // 压缩流创建失败时删除已创建的空文件，避免在目标目录中残留 0 字节文件
+                stream.close();
+                try {
+                    fs.delete(path, false);
+                } catch (IOException deleteException) {
+                    logger.warn("delete file {} error, {}", path, deleteException.getMessage());
+                }
+                throw e;
             }
         }
-        return writeLineNum;
+        return new BufferedWriter(new OutputStreamWriter(stream, Charsets.UTF_8), WRITE_BUFFER_SIZE);
     }
 
     private static String transformColumn(final List<ColumnMetaDTO> tableColumns, final List<HDFSImportColumn> keyList, final String[] columnValArr, final String delimiter, HdfsWriterDTO hdfsWriterDTO) throws ParseException {
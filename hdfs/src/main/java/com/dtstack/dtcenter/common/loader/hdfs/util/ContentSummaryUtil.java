@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.hdfs.util;
+
+import com.dtstack.dtcenter.common.loader.common.DtClassThreadFactory;
+import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
+import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
+import com.dtstack.dtcenter.loader.dto.HDFSContentSummary;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量获取 hdfs 路径的内容摘要
+ * <p>
+ * 1. 每个路径只调用一次 getFileStatus，路径不存在时通过 {@link FileNotFoundException} 判断，不再单独调用 exists
+ * 2. 路径交给固定大小的线程池处理，每个路径在自己的线程中完成 kerberos doAs
+ * 3. 单个路径获取失败时在该路径的摘要中返回异常信息，不影响其他路径，所有路径都失败时抛出异常
+ * <p>
+ * 并发数通过 hadoop 配置 {@link #PARALLELISM_KEY} 设置
+ */
+@Slf4j
+public class ContentSummaryUtil {
+
+    /**
+     * 同时获取内容摘要的路径数
+     */
+    public static final String PARALLELISM_KEY = "dtloader.content.summary.parallelism";
+
+    private static final int DEFAULT_PARALLELISM = 8;
+
+    private static final int MAX_PARALLELISM = 32;
+
+    /**
+     * 低版本 core 包中的 HDFSContentSummary 可能不包含这些字段
+     */
+    private static final boolean EXISTS_FIELD = ReflectUtil.fieldExists(HDFSContentSummary.class, "isExists");
+
+    private static final boolean ERROR_MESSAGE_FIELD = ReflectUtil.fieldExists(HDFSContentSummary.class, "errorMessage");
+
+    /**
+     * 批量获取内容摘要，返回结果和路径的顺序一致
+     *
+     * @param fs             文件系统
+     * @param hdfsDirPaths   hdfs 路径集合
+     * @param kerberosConfig kerberos 配置
+     * @return 内容摘要集合
+     */
+    public static List<HDFSContentSummary> getContentSummary(FileSystem fs, List<String> hdfsDirPaths, Map<String, Object> kerberosConfig) {
+        HDFSContentSummary[] summaries = new HDFSContentSummary[hdfsDirPaths.size()];
+        int parallelism = Math.max(1, Math.min(Math.min(fs.getConf().getInt(PARALLELISM_KEY, DEFAULT_PARALLELISM), MAX_PARALLELISM), hdfsDirPaths.size()));
+        long start = System.currentTimeMillis();
+        if (parallelism == 1) {
+            for (int i = 0; i < hdfsDirPaths.size(); i++) {
+                summaries[i] = getContentSummaryNotThrow(fs, hdfsDirPaths.get(i));
+            }
+        } else {
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new DtClassThreadFactory("contentSummary"));
+            try {
+                List<Future<HDFSContentSummary>> futures = new ArrayList<>(hdfsDirPaths.size());
+                for (String hdfsDirPath : hdfsDirPaths) {
+                    futures.add(executor.submit(() -> {
+                        ClassLoader origin = Thread.currentThread().getContextClassLoader();
+                        // 线程按需创建，显式使用创建任务时的类加载器，避免加载到其他插件的类
+                        Thread.currentThread().setContextClassLoader(contextClassLoader);
+                        try {
+                            return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
+                                    (PrivilegedExceptionAction<HDFSContentSummary>) () -> getContentSummaryNotThrow(fs, hdfsDirPath));
+                        } finally {
+                            Thread.currentThread().setContextClassLoader(origin);
+                        }
+                    }));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        summaries[i] = futures.get(i).get();
+                    } catch (ExecutionException e) {
+                        summaries[i] = failedSummary(hdfsDirPaths.get(i), e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DtLoaderException("get content summary is interrupted", e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        long failed = Arrays.stream(summaries).filter(summary -> ERROR_MESSAGE_FIELD && summary.getErrorMessage() != null).count();
+        if (failed == summaries.length) {
+            throw new DtLoaderException(String.format("Failed to obtain HDFS file information：%s", summaries[0].getErrorMessage()));
+        }
+        if (failed > 0) {
+            log.warn("get content summary of {} paths finished, {} paths failed, cost : {} ms", summaries.length, failed, System.currentTimeMillis() - start);
+        } else {
+            log.info("get content summary of {} paths finished, parallelism : {}, cost : {} ms", summaries.length, parallelism, System.currentTimeMillis() - start);
+        }
+        return Arrays.asList(summaries);
+    }
+
+    /**
+     * 获取单个路径的内容摘要，异常时返回带异常信息的摘要
+     */
+    private static HDFSContentSummary getContentSummaryNotThrow(FileSystem fs, String hdfsDirPath) {
+        try {
+            return getContentSummary(fs, hdfsDirPath);
+        } catch (Exception e) {
+            return failedSummary(hdfsDirPath, e);
+        }
+    }
+
+    private static HDFSContentSummary getContentSummary(FileSystem fs, String hdfsDirPath) throws IOException {
+        Path hdfsPath = new Path(hdfsDirPath);
+        HDFSContentSummary hdfsContentSummary;
+        try {
+            FileStatus fileStatus = fs.getFileStatus(hdfsPath);
+            ContentSummary contentSummary = fs.getContentSummary(hdfsPath);
+            hdfsContentSummary = HDFSContentSummary.builder()
+                    .directoryCount(contentSummary.getDirectoryCount())
+                    .fileCount(contentSummary.getFileCount())
+                    .ModifyTime(fileStatus.getModificationTime())
+                    .spaceConsumed(contentSummary.getLength()).build();
+            if (EXISTS_FIELD) {
+                hdfsContentSummary.setIsExists(true);
+            }
+        } catch (FileNotFoundException e) {
+            // 路径不存在则返回空对象
+            log.warn("execute method getContentSummary: path {} not exists!", hdfsDirPath);
+            hdfsContentSummary = HDFSContentSummary.builder()
+                    .directoryCount(0L)
+                    .fileCount(0L)
+                    .ModifyTime(0L)
+                    .spaceConsumed(0L)
+                    .build();
+            if (EXISTS_FIELD) {
+                hdfsContentSummary.setIsExists(false);
+            }
+        }
+        return hdfsContentSummary;
+    }
+
+    /**
+     * 获取失败的路径，core 包不支持返回异常信息时直接抛出异常
+     */
+    private static HDFSContentSummary failedSummary(String hdfsDirPath, Throwable e) {
+        if (!ERROR_MESSAGE_FIELD) {
+            throw new DtLoaderException(String.format("Failed to obtain HDFS file information：%s", e.getMessage()), e);
+        }
+        log.error("get content summary of path {} error, {}", hdfsDirPath, e.getMessage(), e);
+        HDFSContentSummary hdfsContentSummary = HDFSContentSummary.builder().build();
+        hdfsContentSummary.setErrorMessage(String.format("%s : %s", hdfsDirPath, e.getMessage()));
+        return hdfsContentSummary;
+    }
+}
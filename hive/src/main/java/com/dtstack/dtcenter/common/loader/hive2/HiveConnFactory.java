@@ -32,6 +32,7 @@ import com.dtstack.dtcenter.loader.source.DataBaseType;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.security.UserGroupInformation;
 
 import java.security.PrivilegedAction;
 import java.sql.Connection;
@@ -66,31 +67,54 @@ public class HiveConnFactory extends ConnFactory {
         init();
         HiveSourceDTO hiveSourceDTO = (HiveSourceDTO) iSource;
 
-        Connection connection = KerberosLoginUtil.loginWithUGI(hiveSourceDTO.getKerberosConfig()).doAs(
-                (PrivilegedAction<Connection>) () -> {
-                    try {
-                        DriverManager.setLoginTimeout(30);
-                        Properties properties = DBUtil.stringToProperties(taskParams);
-                        // 特殊处理 properties 属性
-                        dealProperties(properties);
-                        if (ReflectUtil.fieldExists(HiveSourceDTO.class, "hiveSslConfig")){
-                            dealSsl(properties, hiveSourceDTO.getHiveSslConfig());
-                        }
-                        PropertiesUtil.convertToProp(hiveSourceDTO, properties);
-                        properties.put(DtClassConsistent.PublicConsistent.USER, hiveSourceDTO.getUsername() == null ? "" : hiveSourceDTO.getUsername());
-                        properties.put(DtClassConsistent.PublicConsistent.PASSWORD, hiveSourceDTO.getPassword() == null ? "" : hiveSourceDTO.getPassword());
-                        String urlWithoutSchema = HiveDriverUtil.removeSchema(hiveSourceDTO.getUrl());
-                        return DriverManager.getConnection(urlWithoutSchema, properties);
-                    } catch (Exception e) {
-                        // 对异常进行统一处理
-                        throw new DtLoaderException(errorAdapter.connAdapter(e.getMessage(), errorPattern), e);
-                    }
-                }
-        );
+        Connection connection;
+        if (isKerberosCp(hiveSourceDTO)) {
+            // 连接池按 principal 区分，物理连接在 Hikari 线程中创建，需要在 doAs 中重新登录获取 UGI
+            UserGroupInformation ugi = KerberosLoginUtil.loginWithUGI(hiveSourceDTO.getKerberosConfig());
+            try {
+                connection = getKerberosCpConn(hiveSourceDTO, taskParams, ugi.getUserName(), KerberosLoginUtil.getTicketLifetime(ugi),
+                        () -> KerberosLoginUtil.loginWithUGI(hiveSourceDTO.getKerberosConfig()).doAs(
+                                (PrivilegedAction<Connection>) () -> createConn(hiveSourceDTO, taskParams)));
+            } catch (DtLoaderException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new DtLoaderException(errorAdapter.connAdapter(e.getMessage(), errorPattern), e);
+            }
+        } else {
+            connection = KerberosLoginUtil.loginWithUGI(hiveSourceDTO.getKerberosConfig()).doAs(
+                    (PrivilegedAction<Connection>) () -> createConn(hiveSourceDTO, taskParams));
+        }
 
         return HiveDriverUtil.setSchema(connection, hiveSourceDTO.getUrl(), hiveSourceDTO.getSchema());
     }
 
+    /**
+     * 创建物理连接，需要在 UGI doAs 中调用
+     *
+     * @param hiveSourceDTO 数据源信息
+     * @param taskParams    任务参数
+     * @return 连接
+     */
+    private Connection createConn(HiveSourceDTO hiveSourceDTO, String taskParams) {
+        try {
+            DriverManager.setLoginTimeout(30);
+            Properties properties = DBUtil.stringToProperties(taskParams);
+            // 特殊处理 properties 属性
+            dealProperties(properties);
+            if (ReflectUtil.fieldExists(HiveSourceDTO.class, "hiveSslConfig")){
+                dealSsl(properties, hiveSourceDTO.getHiveSslConfig());
+            }
+            PropertiesUtil.convertToProp(hiveSourceDTO, properties);
+            properties.put(DtClassConsistent.PublicConsistent.USER, hiveSourceDTO.getUsername() == null ? "" : hiveSourceDTO.getUsername());
+            properties.put(DtClassConsistent.PublicConsistent.PASSWORD, hiveSourceDTO.getPassword() == null ? "" : hiveSourceDTO.getPassword());
+            String urlWithoutSchema = HiveDriverUtil.removeSchema(hiveSourceDTO.getUrl());
+            return DriverManager.getConnection(urlWithoutSchema, properties);
+        } catch (Exception e) {
+            // 对异常进行统一处理
+            throw new DtLoaderException(errorAdapter.connAdapter(e.getMessage(), errorPattern), e);
+        }
+    }
+
     /**
      * 处理 Hive 的 Properties 属性
      *
@@ -19,8 +19,11 @@
 package com.dtstack.dtcenter.common.loader.hive2.downloader;
 
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HdfsOperator;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.ParallelSplitReader;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.TextFieldTokenizer;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import com.google.common.collect.Lists;
 import lombok.extern.slf4j.Slf4j;
@@ -69,6 +72,16 @@ public class HiveTextDownload implements IDownloader {
     private RecordReader recordReader;
     private final String tableLocation;
     private final String fieldDelimiter;
+
+    /**
+     * 按字节切分字段，分隔符只能按正则处理时为 null，使用 String.split
+     */
+    private final TextFieldTokenizer tokenizer;
+
+    /**
+     * 表的 null 值，按 String.split 切分时使用
+     */
+    private final String nullFormat;
     private final Configuration configuration;
     private final List<String> columnNames;
     
@@ -84,6 +97,11 @@ public class HiveTextDownload implements IDownloader {
     private final List<String> partitionColumns;
     private final Map<String, Object> kerberosConfig;
 
+    /**
+     * 并发读取切片，未开启并发读取时为 null
+     */
+    private ParallelSplitReader<String> splitReader;
+
     /**
      * 按分区下载
      */
@@ -105,6 +123,8 @@ public class HiveTextDownload implements IDownloader {
         this.tableLocation = tableLocation;
         this.columnNames = columnNames;
         this.fieldDelimiter = fieldDelimiter;
+        this.tokenizer = TextFieldTokenizer.create(fieldDelimiter, configuration);
+        this.nullFormat = TextFieldTokenizer.getNullFormat(configuration);
         this.partitionColumns = partitionColumns;
         this.configuration = configuration;
         this.filterPartition = filterPartition;
@@ -119,12 +139,18 @@ public class HiveTextDownload implements IDownloader {
         conf = new JobConf(configuration);
         paths = Lists.newArrayList();
         FileSystem fs =  FileSystem.get(conf);
-        // 递归获取表路径下所有文件
-        getAllPartitionPath(tableLocation, paths, fs);
+        // 根据分区信息直接定位需要读取的分区路径，再递归获取路径下所有文件，不遍历表路径下的所有分区
+        for (String location : HdfsOperator.getPartitionLocations(tableLocation, partitionColumns, partitions, filterPartition)) {
+            getAllPartitionPath(location, paths, fs);
+        }
         // 有可能表结构还存在metaStore中，但是表路径被删除，但是此时不应该报错
         if(paths.size() == 0){
             return true;
         }
+        if (ParallelSplitReader.getParallelism(conf) > 1) {
+            splitReader = ParallelSplitReader.create(conf, paths, this::openFile, kerberosConfig);
+            return true;
+        }
         nextRecordReader();
         key = new LongWritable();
         value = new Text();
@@ -158,6 +184,33 @@ public class HiveTextDownload implements IDownloader {
         }
     }
 
+    /**
+     * 创建单个文件的读取器，文件的切片在同一个线程中依次读取
+     *
+     * @param file 文件路径
+     * @return 文件读取器
+     * @throws IOException 创建 recordReader 异常
+     */
+    private ParallelSplitReader.SplitRowReader openFile(String file) throws IOException {
+        HiveTextDownload fileDownload = new HiveTextDownload(configuration, tableLocation, columnNames, fieldDelimiter, partitionColumns, filterPartition, needIndex, partitions, kerberosConfig);
+        fileDownload.conf = new JobConf(configuration);
+        fileDownload.paths = Collections.singletonList(file);
+        fileDownload.key = new LongWritable();
+        fileDownload.value = new Text();
+        fileDownload.nextRecordReader();
+        return new ParallelSplitReader.SplitRowReader() {
+            @Override
+            public List<String> next() throws IOException {
+                return fileDownload.recordReader != null && fileDownload.nextRecord() ? fileDownload.readNextWithKerberos() : null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                fileDownload.close();
+            }
+        };
+    }
+
     private boolean nextRecordReader() throws IOException {
 
         if(!nextFile()){
@@ -202,7 +255,7 @@ public class HiveTextDownload implements IDownloader {
         currFile = paths.get(currFileIndex);
 
         if(CollectionUtils.isNotEmpty(partitionColumns)){
-            currentPartData = HdfsOperator.parsePartitionDataFromUrl(currFile,partitionColumns);
+            currentPartData = Collections.unmodifiableList(HdfsOperator.parsePartitionDataFromUrl(currFile, partitionColumns));
         }
 
         // 如果分区不存在或者不需要该分区则进行跳过
@@ -251,21 +304,30 @@ public class HiveTextDownload implements IDownloader {
 
     @Override
     public List<String> readNext(){
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<List<String>>) ()->{
-                    try {
-                        return readNextWithKerberos();
-                    } catch (Exception e){
-                        throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
-                    }
-                });
+        if (splitReader != null) {
+            return splitReader.current();
+        }
+        // 只解析 reachedEnd 已经读取到内存中的数据，不访问 hdfs，不需要进入 kerberos doAs
+        try {
+            return readNextWithKerberos();
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
+        }
     }
 
     public List<String> readNextWithKerberos(){
+        if (tokenizer != null) {
+            List<String> row = readRowWithTokenizer();
+            value.clear();
+            return row;
+        }
         String line = value.toString();
         value.clear();
         String[] fields = line.split(fieldDelimiter, -1);
-        List<String> row = Lists.newArrayList(fields);
+        List<String> row = Lists.newArrayListWithCapacity(fields.length);
+        for (String field : fields) {
+            row.add(TextFieldTokenizer.toHiveValue(field, nullFormat));
+        }
         if(CollectionUtils.isNotEmpty(partitionColumns)){
             row.addAll(currentPartData);
         }
@@ -283,8 +345,85 @@ public class HiveTextDownload implements IDownloader {
         return row;
     }
 
+    /**
+     * 按字节切分当前行，只创建需要查询字段的字符串，分区字段拼接在文件字段之后
+     *
+     * @return 一行数据
+     */
+    private List<String> readRowWithTokenizer() {
+        int fieldCount = tokenizer.tokenize(value);
+        int partCount = CollectionUtils.isNotEmpty(partitionColumns) ? currentPartData.size() : 0;
+        if (CollectionUtils.isNotEmpty(needIndex)) {
+            List<String> row = new ArrayList<>(needIndex.size());
+            for (Integer index : needIndex) {
+                if (index < fieldCount) {
+                    row.add(tokenizer.getField(index));
+                } else if (index - fieldCount < partCount) {
+                    row.add(currentPartData.get(index - fieldCount));
+                } else {
+                    row.add(null);
+                }
+            }
+            return row;
+        }
+        List<String> row = new ArrayList<>(fieldCount + partCount);
+        for (int index = 0; index < fieldCount; index++) {
+            row.add(tokenizer.getField(index));
+        }
+        if (partCount > 0) {
+            row.addAll(currentPartData);
+        }
+        return row;
+    }
+
+    /**
+     * 批量读取，整批数据只做一次 kerberos doAs
+     *
+     * @param maxRows 最大条数
+     * @return 列式批数据
+     */
+    @Override
+    public ColumnBatch readNextBatch(int maxRows) {
+        ColumnBatch.Builder builder = ColumnBatch.builder(ColumnBatch.projectColumnNames(getMetaInfo(), needIndex), maxRows);
+        if (splitReader != null) {
+            splitReader.fill(builder);
+            return builder.build();
+        }
+        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
+                (PrivilegedAction<ColumnBatch>) () -> {
+                    try {
+                        while (!builder.isFull() && !(recordReader == null || !nextRecord())) {
+                            builder.addRow(readNextWithKerberos());
+                        }
+                        return builder.build();
+                    } catch (Exception e) {
+                        throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+                    }
+                });
+    }
+
+    /**
+     * 在当前切片内读取下一条数据
+     *
+     * @return 当前切片是否还有数据
+     */
+    private boolean nextInCurrentSplit() {
+        try {
+            return recordReader.next(key, value);
+        } catch (IOException e) {
+            throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+        }
+    }
+
     @Override
     public boolean reachedEnd() {
+        if (splitReader != null) {
+            return !splitReader.advance();
+        }
+        // recordReader 在 doAs 中打开，hdfs rpc 使用创建时的 UGI，同一个切片内继续读取不需要进入 doAs，切换切片时才进入
+        if (recordReader != null && nextInCurrentSplit()) {
+            return false;
+        }
         return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
                 (PrivilegedAction<Boolean>) ()->{
                     try {
@@ -297,6 +436,9 @@ public class HiveTextDownload implements IDownloader {
 
     @Override
     public boolean close() throws IOException {
+        if (splitReader != null) {
+            splitReader.close();
+        }
         if(recordReader != null){
             recordReader.close();
         }
@@ -28,6 +28,8 @@ import com.dtstack.dtcenter.common.loader.common.utils.SearchUtil;
 import com.dtstack.dtcenter.common.loader.common.utils.TableUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HadoopConfUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HdfsOperator;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.ParallelSplitReader;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.TextFieldTokenizer;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.common.loader.hive1.HiveConnFactory;
 import com.dtstack.dtcenter.common.loader.hive1.downloader.HiveORCDownload;
@@ -394,6 +396,10 @@ public class HiveClient extends AbsRdbmsClient {
         }
         transformDelim(table);
         Configuration conf = HadoopConfUtil.getHdfsConf(hive1SourceDTO.getDefaultFS(), hive1SourceDTO.getConfig(), hive1SourceDTO.getKerberosConfig());
+        // 并发读取切片的参数
+        ParallelSplitReader.setSplitReadConf(conf, queryDTO);
+        // text 表的转义字符和 null 值
+        TextFieldTokenizer.setSerdeConf(conf, table);
         List<String> finalPartitions = partitions;
         return KerberosLoginUtil.loginWithUGI(hive1SourceDTO.getKerberosConfig()).doAs(
                 (PrivilegedAction<IDownloader>) () -> {
@@ -457,7 +463,7 @@ public class HiveClient extends AbsRdbmsClient {
 
         if (StringUtils.containsIgnoreCase(storageMode, "orc")) {
             HiveORCDownload hiveORCDownload = new HiveORCDownload(conf, tableLocation, columnNames,
-                    partitionColumns, needIndex, partitions, kerberosConfig);
+                    partitionColumns, needIndex, filterPartitions, partitions, kerberosConfig);
             hiveORCDownload.configure();
             return hiveORCDownload;
         }
@@ -583,6 +589,12 @@ public class HiveClient extends AbsRdbmsClient {
                 continue;
             }
 
+            // 转义字符和 null 值，属性名可能在 col_name 中，也可能在 data_type 中
+            if (TextFieldTokenizer.setSerdeProperty(tableInfo, colName.trim(), dataTypeOrigin)
+                    || TextFieldTokenizer.setSerdeProperty(tableInfo, dataType, MapUtils.getString(row, "comment", ""))) {
+                continue;
+            }
+
             if (colName.contains("Owner")) {
                 tableInfo.setOwner(dataType);
                 continue;
@@ -21,9 +21,11 @@ package com.dtstack.dtcenter.common.loader.hive3.downloader;
 import com.dtstack.dtcenter.common.loader.common.enums.ColumnType;
 import com.dtstack.dtcenter.common.loader.common.utils.StringUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HdfsOperator;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.ParallelSplitReader;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.common.loader.hive3.GroupTypeIgnoreCase;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
 import com.dtstack.dtcenter.loader.dto.ColumnMetaDTO;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import com.google.common.collect.Lists;
@@ -41,6 +43,8 @@ import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.example.GroupReadSupport;
 import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.DecimalMetadata;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.PrimitiveType;
 import org.apache.parquet.schema.Type;
 
@@ -52,6 +56,7 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -83,6 +88,13 @@ public class HiveParquetDownload implements IDownloader {
 
     private Group currentLine;
 
+    /**
+     * 当前行的 schema 及其忽略大小写的字段索引
+     */
+    private GroupType currentGroupType;
+
+    private GroupTypeIgnoreCase currentGroupTypeIgnoreCase;
+
     private List<String> paths;
 
     private int currFileIndex = 0;
@@ -91,7 +103,7 @@ public class HiveParquetDownload implements IDownloader {
 
     private List<String> currentPartData;
 
-    private final GroupReadSupport readSupport = new GroupReadSupport();
+    private final GroupReadSupport readSupport;
 
     private static final int JULIAN_EPOCH_OFFSET_DAYS = 2440588;
 
@@ -101,6 +113,11 @@ public class HiveParquetDownload implements IDownloader {
 
     private final Map<String, Object> kerberosConfig;
 
+    /**
+     * 并发读取切片，未开启并发读取时为 null
+     */
+    private ParallelSplitReader<String> splitReader;
+
     /**
      * 按分区下载
      */
@@ -124,17 +141,63 @@ public class HiveParquetDownload implements IDownloader {
         this.filterPartition = filterPartition;
         this.partitions = partitions;
         this.kerberosConfig = kerberosConfig;
+        this.readSupport = new ProjectionReadSupport(getProjectionColumns(columns, needIndex));
+    }
+
+    /**
+     * 获取需要从文件中读取的字段名，needIndex 为空时读取所有字段
+     *
+     * @param columns   表字段
+     * @param needIndex 需要查询字段的索引
+     * @return 小写字段名，为 null 表示读取所有字段
+     */
+    private static Set<String> getProjectionColumns(List<ColumnMetaDTO> columns, List<Integer> needIndex) {
+        if (CollectionUtils.isEmpty(needIndex)) {
+            return null;
+        }
+        Set<String> projectionColumns = new HashSet<>();
+        for (Integer index : needIndex) {
+            if (index < columns.size()) {
+                projectionColumns.add(columns.get(index).getKey().toLowerCase());
+            }
+        }
+        return projectionColumns;
     }
 
     @Override
     public boolean configure() throws Exception {
         paths = Lists.newArrayList();
         FileSystem fs =  FileSystem.get(conf);
-        // 递归获取表路径下所有文件
-        getAllPartitionPath(tableLocation, paths, fs);
+        // 根据分区信息直接定位需要读取的分区路径，再递归获取路径下所有文件，不遍历表路径下的所有分区
+        for (String location : HdfsOperator.getPartitionLocations(tableLocation, partitionColumns, partitions, filterPartition)) {
+            getAllPartitionPath(location, paths, fs);
+        }
+        splitReader = ParallelSplitReader.create(conf, paths, this::openFile, kerberosConfig);
         return true;
     }
 
+    /**
+     * 创建单个文件的读取器，复用当前下载器的字段解析，读取状态相互独立
+     *
+     * @param file 文件路径
+     * @return 文件读取器
+     */
+    private ParallelSplitReader.SplitRowReader openFile(String file) {
+        HiveParquetDownload fileDownload = new HiveParquetDownload(conf, tableLocation, columns, partitionColumns, needIndex, filterPartition, partitions, kerberosConfig);
+        fileDownload.paths = Collections.singletonList(file);
+        return new ParallelSplitReader.SplitRowReader() {
+            @Override
+            public List<String> next() throws Exception {
+                return fileDownload.nextRecord() ? fileDownload.readNextWithKerberos() : null;
+            }
+
+            @Override
+            public void close() throws Exception {
+                fileDownload.close();
+            }
+        };
+    }
+
     private void nextSplitRecordReader() throws Exception{
         if (currFileIndex > paths.size() - 1) {
             return;
@@ -153,7 +216,7 @@ public class HiveParquetDownload implements IDownloader {
         build = reader.build();
 
         if(CollectionUtils.isNotEmpty(partitionColumns)){
-            currentPartData = HdfsOperator.parsePartitionDataFromUrl(currFile, partitionColumns);
+            currentPartData = Collections.unmodifiableList(HdfsOperator.parsePartitionDataFromUrl(currFile, partitionColumns));
         }
 
         currFileIndex++;
@@ -171,6 +234,8 @@ public class HiveParquetDownload implements IDownloader {
         currentLine = build.read();
 
         if (currentLine == null){
+            // 读取完的文件及时关闭
+            build.close();
             build = null;
             nextRecord();
         }
@@ -189,14 +254,15 @@ public class HiveParquetDownload implements IDownloader {
 
     @Override
     public List<String> readNext() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<List<String>>) ()->{
-                    try {
-                        return readNextWithKerberos();
-                    } catch (Exception e){
-                        throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
-                    }
-                });
+        if (splitReader != null) {
+            return splitReader.current();
+        }
+        // 只解析 reachedEnd 已经读取到内存中的数据，不访问 hdfs，不需要进入 kerberos doAs
+        try {
+            return readNextWithKerberos();
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
+        }
     }
 
     private List<String> readNextWithKerberos() {
@@ -249,12 +315,17 @@ public class HiveParquetDownload implements IDownloader {
      * 每行数据重新判断，对于parquet来说，如果对应schema下没有该列，
      * currentLine.getType().getFields()返回值的size可能会不同，导致数组越界异常!
      * bug 连接：http://redmine.prod.dtstack.cn/issues/33045
+     * 同一个文件内所有行的 schema 是同一个对象，schema 变化时才重新创建字段索引
      *
      * @param columnName 字段名
      * @return 字段索引
      */
     private Integer isFieldExists (String columnName) {
-        GroupTypeIgnoreCase groupType = new GroupTypeIgnoreCase(currentLine.getType());
+        if (currentLine.getType() != currentGroupType) {
+            currentGroupType = currentLine.getType();
+            currentGroupTypeIgnoreCase = new GroupTypeIgnoreCase(currentGroupType);
+        }
+        GroupTypeIgnoreCase groupType = currentGroupTypeIgnoreCase;
         if (!groupType.containsField(columnName)) {
             return -1;
         }
@@ -372,8 +443,60 @@ public class HiveParquetDownload implements IDownloader {
         return (julianDay - JULIAN_EPOCH_OFFSET_DAYS) * MILLIS_IN_DAY;
     }
 
+    /**
+     * 批量读取，整批数据只做一次 kerberos doAs
+     *
+     * @param maxRows 最大条数
+     * @return 列式批数据
+     */
+    @Override
+    public ColumnBatch readNextBatch(int maxRows) {
+        ColumnBatch.Builder builder = ColumnBatch.builder(ColumnBatch.projectColumnNames(getMetaInfo(), needIndex), maxRows);
+        if (splitReader != null) {
+            splitReader.fill(builder);
+            return builder.build();
+        }
+        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
+                (PrivilegedAction<ColumnBatch>) () -> {
+                    try {
+                        while (!builder.isFull() && nextRecord()) {
+                            builder.addRow(readNextWithKerberos());
+                        }
+                        return builder.build();
+                    } catch (Exception e) {
+                        throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+                    }
+                });
+    }
+
+    /**
+     * 在当前文件内读取下一条数据，读取完时关闭当前文件
+     *
+     * @return 当前文件是否还有数据
+     */
+    private boolean nextInCurrentFile() {
+        try {
+            currentLine = build.read();
+            if (currentLine != null) {
+                return true;
+            }
+            build.close();
+            build = null;
+            return false;
+        } catch (IOException e) {
+            throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+        }
+    }
+
     @Override
     public boolean reachedEnd() {
+        if (splitReader != null) {
+            return !splitReader.advance();
+        }
+        // 当前文件已经在 doAs 中开始读取，hdfs rpc 使用创建时的 UGI，同一个文件内继续读取不需要进入 doAs，切换文件时才进入
+        if (build != null && currentLine != null && nextInCurrentFile()) {
+            return false;
+        }
         return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
                 (PrivilegedAction<Boolean>) ()->{
                     try {
@@ -386,6 +509,9 @@ public class HiveParquetDownload implements IDownloader {
 
     @Override
     public boolean close() throws Exception {
+        if (splitReader != null) {
+            splitReader.close();
+        }
         if (build != null){
             build.close();
         }
@@ -499,4 +625,36 @@ public class HiveParquetDownload implements IDownloader {
     public List<String> getContainers() {
         return Collections.emptyList();
     }
+
+    /**
+     * 只读取需要查询的字段，其余字段的 column chunk 不会从 hdfs 读取和解码
+     * <p>
+     * 按文件的 schema 裁剪，字段名忽略大小写，和 {@link #isFieldExists} 保持一致，文件中不存在的字段不会加入裁剪后的 schema
+     */
+    private static class ProjectionReadSupport extends GroupReadSupport {
+
+        /**
+         * 需要读取的小写字段名，为 null 表示读取所有字段
+         */
+        private final Set<String> projectionColumns;
+
+        private ProjectionReadSupport(Set<String> projectionColumns) {
+            this.projectionColumns = projectionColumns;
+        }
+
+        @Override
+        public ReadContext init(Configuration configuration, Map<String, String> keyValueMetaData, MessageType fileSchema) {
+            if (projectionColumns == null) {
+                return super.init(configuration, keyValueMetaData, fileSchema);
+            }
+            List<Type> fields = fileSchema.getFields().stream()
+                    .filter(field -> projectionColumns.contains(field.getName().toLowerCase()))
+                    .collect(Collectors.toList());
+            if (fields.isEmpty()) {
+                // 只查询分区字段时文件中的字段都不需要，保留第一个字段用于确定行数
+                fields = Collections.singletonList(fileSchema.getType(0));
+            }
+            return new ReadContext(new MessageType(fileSchema.getName(), fields));
+        }
+    }
 }
@@ -8,6 +8,8 @@ import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
 import com.dtstack.dtcenter.common.loader.common.utils.TableUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HadoopConfUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HdfsOperator;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.ParallelSplitReader;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.TextFieldTokenizer;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.common.loader.hive3.HiveConnFactory;
 import com.dtstack.dtcenter.common.loader.hive3.downloader.HiveORCDownload;
@@ -388,6 +390,10 @@ public class Hive3Client extends AbsRdbmsClient {
             throw new DtLoaderException("defaultFS incorrect format");
         }
         Configuration conf = HadoopConfUtil.getHdfsConf(hive3CDPSourceDTO.getDefaultFS(), hive3CDPSourceDTO.getConfig(), hive3CDPSourceDTO.getKerberosConfig());
+        // 并发读取切片的参数
+        ParallelSplitReader.setSplitReadConf(conf, queryDTO);
+        // text 表的转义字符和 null 值
+        TextFieldTokenizer.setSerdeConf(conf, table);
         if (table.getIsTransTable()) {
             initTransConfig(conf, commonColumn);
         }
@@ -459,7 +465,7 @@ public class Hive3Client extends AbsRdbmsClient {
 
         if (StringUtils.containsIgnoreCase(storageMode, "orc")) {
             HiveORCDownload hiveORCDownload = new HiveORCDownload(conf, tableLocation, columnNames,
-                    partitionColumns, needIndex, partitions, kerberosConfig);
+                    partitionColumns, needIndex, filterPartitions, partitions, kerberosConfig);
             hiveORCDownload.configure();
             return hiveORCDownload;
         }
@@ -584,6 +590,12 @@ public class Hive3Client extends AbsRdbmsClient {
                 continue;
             }
 
+            // 转义字符和 null 值，属性名可能在 col_name 中，也可能在 data_type 中
+            if (TextFieldTokenizer.setSerdeProperty(tableInfo, colName.trim(), dataTypeOrigin)
+                    || TextFieldTokenizer.setSerdeProperty(tableInfo, dataType, MapUtils.getString(row, "comment", ""))) {
+                continue;
+            }
+
             if (colName.contains("Owner")) {
                 tableInfo.setOwner(dataType);
                 continue;
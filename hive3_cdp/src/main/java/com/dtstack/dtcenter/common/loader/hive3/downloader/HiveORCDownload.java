@@ -2,10 +2,11 @@ package com.dtstack.dtcenter.common.loader.hive3.downloader;
 
 import com.alibaba.fastjson.JSON;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HdfsOperator;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.ParallelSplitReader;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
-import com.google.common.collect.Lists;
 import jodd.util.StringUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
@@ -17,6 +18,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.io.orc.OrcInputFormat;
 import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
 import org.apache.hadoop.hive.ql.io.orc.OrcSplit;
+import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.mapred.FileInputFormat;
@@ -66,10 +68,20 @@ public class HiveORCDownload implements IDownloader {
 
     private InputSplit currentSplit;
 
+    /**
+     * 当前切片的分区字段值，同一个切片内所有行共用
+     */
+    private List<String> currentPartData = Collections.emptyList();
+
     private final List<String> partitionColumns;
 
     private final Map<String, Object> kerberosConfig;
 
+    /**
+     * 并发读取切片，未开启并发读取时为 null
+     */
+    private ParallelSplitReader<InputSplit> splitReader;
+
     /**
      * 需要查询字段的索引
      */
@@ -80,8 +92,13 @@ public class HiveORCDownload implements IDownloader {
      */
     private final List<String> partitions;
 
+    /**
+     * 按分区下载的分区条件
+     */
+    private final Map<String, String> filterPartition;
+
     public HiveORCDownload(Configuration configuration, String tableLocation, List<String> columnNames,
-                           List<String> partitionColumns, List<Integer> needIndex,
+                           List<String> partitionColumns, List<Integer> needIndex, Map<String, String> filterPartition,
                            List<String> partitions, Map<String, Object> kerberosConfig){
         this.configuration = configuration;
         this.tableLocation = tableLocation;
@@ -89,6 +106,7 @@ public class HiveORCDownload implements IDownloader {
         this.partitionColumns = partitionColumns;
         this.needIndex = needIndex;
         this.partitions = partitions;
+        this.filterPartition = filterPartition;
         this.kerberosConfig = kerberosConfig;
     }
 
@@ -106,28 +124,83 @@ public class HiveORCDownload implements IDownloader {
             log.warn("Table path: {} does not exist", tableLocation);
             return false;
         }
-        if (CollectionUtils.isNotEmpty(partitions)) {
-            Path[] paths = partitions.stream().map(partition -> new Path(targetFilePath + "/" + partition)).toArray(Path[]::new);
-            FileInputFormat.setInputPaths(conf, paths);
-        } else {
-            FileInputFormat.setInputPaths(conf, targetFilePath);
+        // 根据分区信息直接定位需要读取的分区路径，不遍历表路径下的所有分区
+        List<Path> inputPaths = HdfsOperator.getExistsPaths(fileSystem,
+                HdfsOperator.getPartitionLocations(tableLocation, partitionColumns, partitions, filterPartition));
+        if (inputPaths.isEmpty()) {
+            return true;
         }
+        FileInputFormat.setInputPaths(conf, inputPaths.toArray(new Path[0]));
         splits = inputFormat.getSplits(conf, SPLIT_NUM);
         if(ArrayUtils.isNotEmpty(splits)){
+            if (ParallelSplitReader.getParallelism(conf) > 1) {
+                initInspector();
+                splitReader = ParallelSplitReader.create(conf, getExistsSplits(), this::openSplit, kerberosConfig);
+                return true;
+            }
             boolean isInit = initRecordReader();
             if (isInit) {
                 key = recordReader.createKey();
                 value = recordReader.createValue();
-                Properties p = new Properties();
-                p.setProperty("columns", StringUtil.join(columnNames,","));
-                orcSerde.initialize(conf, p);
-                this.inspector = (StructObjectInspector) orcSerde.getObjectInspector();
-                fields = inspector.getAllStructFieldRefs();
+                initInspector();
             }
         }
         return true;
     }
 
+    private void initInspector() throws SerDeException {
+        Properties p = new Properties();
+        p.setProperty("columns", StringUtil.join(columnNames,","));
+        orcSerde.initialize(conf, p);
+        this.inspector = (StructObjectInspector) orcSerde.getObjectInspector();
+        fields = inspector.getAllStructFieldRefs();
+    }
+
+    /**
+     * 过滤掉分区不存在的切片
+     *
+     * @return 需要读取的切片
+     */
+    private List<InputSplit> getExistsSplits() {
+        List<InputSplit> existsSplits = new ArrayList<>(splits.length);
+        for (InputSplit split : splits) {
+            if (isPartitionExists(((OrcSplit) split).getPath().toString())) {
+                existsSplits.add(split);
+            }
+        }
+        return existsSplits;
+    }
+
+    /**
+     * 创建单个切片的读取器，复用当前下载器的配置和字段解析，读取状态相互独立
+     *
+     * @param split 切片
+     * @return 切片读取器
+     * @throws IOException 创建 recordReader 异常
+     */
+    private ParallelSplitReader.SplitRowReader openSplit(InputSplit split) throws IOException {
+        HiveORCDownload splitDownload = new HiveORCDownload(configuration, tableLocation, columnNames, partitionColumns, needIndex, filterPartition, partitions, kerberosConfig);
+        splitDownload.inputFormat = inputFormat;
+        splitDownload.conf = conf;
+        splitDownload.inspector = inspector;
+        splitDownload.fields = fields;
+        splitDownload.setCurrentSplit(split);
+        splitDownload.recordReader = inputFormat.getRecordReader(split, conf, Reporter.NULL);
+        splitDownload.key = splitDownload.recordReader.createKey();
+        splitDownload.value = splitDownload.recordReader.createValue();
+        return new ParallelSplitReader.SplitRowReader() {
+            @Override
+            public List<String> next() throws IOException {
+                return splitDownload.recordReader.next(splitDownload.key, splitDownload.value) ? splitDownload.readNextWithKerberos() : null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                splitDownload.close();
+            }
+        };
+    }
+
     @Override
     public List<String> getMetaInfo(){
         List<String> metaInfo = new ArrayList<>(columnNames);
@@ -139,26 +212,22 @@ public class HiveORCDownload implements IDownloader {
 
     @Override
     public List<String> readNext() {
-        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
-                (PrivilegedAction<List<String>>) ()->{
-                    try {
-                        return readNextWithKerberos();
-                    } catch (Exception e){
-                        throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
-                    }
-                });
+        if (splitReader != null) {
+            return splitReader.current();
+        }
+        // 只解析 reachedEnd 已经读取到内存中的数据，不访问 hdfs，不需要进入 kerberos doAs
+        try {
+            return readNextWithKerberos();
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("Abnormal reading file,%s", e.getMessage()), e);
+        }
     }
 
     public List<String> readNextWithKerberos() {
         List<String> row = new ArrayList<>();
 
-        // 分区字段的值
-        List<String> partitions = Lists.newArrayList();
-        if(CollectionUtils.isNotEmpty(partitionColumns)){
-            String path = ((OrcSplit)currentSplit).getPath().toString();
-            List<String> partData = HdfsOperator.parsePartitionDataFromUrl(path,partitionColumns);
-            partitions.addAll(partData);
-        }
+        // 分区字段的值，切换切片时已经解析
+        List<String> partitions = currentPartData;
 
         // needIndex不为空表示获取指定字段
         if (CollectionUtils.isNotEmpty(needIndex)) {
@@ -220,12 +289,25 @@ public class HiveORCDownload implements IDownloader {
         return JSON.toJSONString(result);
     }
 
+    /**
+     * 切换当前切片，同一个切片内的分区字段值相同，只在切换时从路径中解析一次
+     *
+     * @param split 切片
+     */
+    private void setCurrentSplit(InputSplit split) {
+        currentSplit = split;
+        if (CollectionUtils.isNotEmpty(partitionColumns)) {
+            String path = ((OrcSplit) split).getPath().toString();
+            currentPartData = Collections.unmodifiableList(HdfsOperator.parsePartitionDataFromUrl(path, partitionColumns));
+        }
+    }
+
     private boolean initRecordReader() throws IOException {
         if(splitIndex > splits.length - 1){
             return false;
         }
         OrcSplit orcSplit = (OrcSplit)splits[splitIndex];
-        currentSplit = splits[splitIndex];
+        setCurrentSplit(splits[splitIndex]);
         splitIndex++;
 
         if(recordReader != null){
@@ -253,8 +335,54 @@ public class HiveORCDownload implements IDownloader {
         return false;
     }
 
+    /**
+     * 批量读取，整批数据只做一次 kerberos doAs
+     *
+     * @param maxRows 最大条数
+     * @return 列式批数据
+     */
+    @Override
+    public ColumnBatch readNextBatch(int maxRows) {
+        ColumnBatch.Builder builder = ColumnBatch.builder(ColumnBatch.projectColumnNames(getMetaInfo(), needIndex), maxRows);
+        if (splitReader != null) {
+            splitReader.fill(builder);
+            return builder.build();
+        }
+        return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
+                (PrivilegedAction<ColumnBatch>) () -> {
+                    try {
+                        while (!builder.isFull() && !(recordReader == null || !nextRecord())) {
+                            builder.addRow(readNextWithKerberos());
+                        }
+                        return builder.build();
+                    } catch (Exception e) {
+                        throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+                    }
+                });
+    }
+
+    /**
+     * 在当前切片内读取下一条数据
+     *
+     * @return 当前切片是否还有数据
+     */
+    private boolean nextInCurrentSplit() {
+        try {
+            return recordReader.next(key, value);
+        } catch (IOException e) {
+            throw new DtLoaderException(String.format("Download file is abnormal,%s", e.getMessage()), e);
+        }
+    }
+
     @Override
     public boolean reachedEnd() {
+        if (splitReader != null) {
+            return !splitReader.advance();
+        }
+        // recordReader 在 doAs 中打开，hdfs rpc 使用创建时的 UGI，同一个切片内继续读取不需要进入 doAs，切换切片时才进入
+        if (recordReader != null && nextInCurrentSplit()) {
+            return false;
+        }
         return KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs(
                 (PrivilegedAction<Boolean>) ()->{
                     try {
@@ -267,6 +395,9 @@ public class HiveORCDownload implements IDownloader {
 
     @Override
     public boolean close() throws IOException {
+        if (splitReader != null) {
+            splitReader.close();
+        }
         if(recordReader != null){
             recordReader.close();
         }
@@ -290,6 +421,10 @@ public class HiveORCDownload implements IDownloader {
      * @return 分区是否存在
      */
     private boolean isPartitionExists(String path) {
+        // 不满足分区条件的文件不读取
+        if (!HdfsOperator.isRequiredPartition(path, filterPartition)) {
+            return false;
+        }
         // 如果 partitions 为 null，表示非分区表，返回 true
         if (Objects.isNull(partitions)) {
             return true;
@@ -25,6 +25,7 @@ import com.dtstack.dtcenter.loader.dto.source.ImpalaSourceDTO;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import com.dtstack.dtcenter.loader.source.DataBaseType;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.security.UserGroupInformation;
 
 import java.security.PrivilegedAction;
 import java.sql.Connection;
@@ -46,15 +47,34 @@ public class ImpalaConnFactory extends ConnFactory {
     public Connection getConn(ISourceDTO iSource, String taskParams) throws Exception {
         init();
         ImpalaSourceDTO impalaSourceDTO = (ImpalaSourceDTO) iSource;
-        Connection connection = KerberosLoginUtil.loginWithUGI(impalaSourceDTO.getKerberosConfig()).doAs(
-                (PrivilegedAction<Connection>) () -> {
-                    try {
-                        return super.getConn(impalaSourceDTO, taskParams);
-                    } catch (Exception e) {
-                        throw new DtLoaderException(e.getMessage(), e);
+        Connection connection;
+        if (isKerberosCp(impalaSourceDTO)) {
+            // 连接池按 principal 区分，物理连接在 Hikari 线程中创建，需要在 doAs 中重新登录获取 UGI
+            UserGroupInformation ugi = KerberosLoginUtil.loginWithUGI(impalaSourceDTO.getKerberosConfig());
+            try {
+                connection = getKerberosCpConn(impalaSourceDTO, taskParams, ugi.getUserName(), KerberosLoginUtil.getTicketLifetime(ugi),
+                        () -> KerberosLoginUtil.loginWithUGI(impalaSourceDTO.getKerberosConfig()).doAs(
+                                (PrivilegedAction<Connection>) () -> {
+                                    try {
+                                        return getSimpleConn(impalaSourceDTO);
+                                    } catch (Exception e) {
+                                        throw new DtLoaderException(e.getMessage(), e);
+                                    }
+                                }));
+            } catch (Exception e) {
+                throw new DtLoaderException(errorAdapter.connAdapter(e.getMessage(), errorPattern), e);
+            }
+        } else {
+            connection = KerberosLoginUtil.loginWithUGI(impalaSourceDTO.getKerberosConfig()).doAs(
+                    (PrivilegedAction<Connection>) () -> {
+                        try {
+                            return super.getConn(impalaSourceDTO, taskParams);
+                        } catch (Exception e) {
+                            throw new DtLoaderException(e.getMessage(), e);
+                        }
                     }
-                }
-        );
+            );
+        }
 
         return ImpalaDriverUtil.setSchema(connection, impalaSourceDTO.getSchema());
     }
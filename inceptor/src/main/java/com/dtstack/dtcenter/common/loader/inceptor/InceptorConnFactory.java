@@ -26,6 +26,7 @@ import com.dtstack.dtcenter.loader.dto.source.InceptorSourceDTO;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import com.dtstack.dtcenter.loader.source.DataBaseType;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.security.UserGroupInformation;
 
 import java.security.PrivilegedAction;
 import java.sql.Connection;
@@ -52,20 +53,42 @@ public class InceptorConnFactory extends ConnFactory {
     public Connection getConn(ISourceDTO iSource, String taskParams) throws Exception {
         init();
         InceptorSourceDTO inceptorSourceDTO = (InceptorSourceDTO) iSource;
-        Connection connection = KerberosLoginUtil.loginWithUGI(inceptorSourceDTO.getKerberosConfig()).doAs(
-                (PrivilegedAction<Connection>) () -> {
-                    try {
-                        DriverManager.setLoginTimeout(30);
-                        String urlWithoutSchema = InceptorDriverUtil.removeSchema(inceptorSourceDTO.getUrl());
-
-                        Properties properties = PropertiesUtil.convertToProp(inceptorSourceDTO);
-                        return DriverManager.getConnection(urlWithoutSchema, properties);
-                    } catch (SQLException e) {
-                        // 对异常进行统一处理
-                        throw new DtLoaderException(errorAdapter.connAdapter(e.getMessage(), errorPattern), e);
-                    }
-                }
-        );
+        Connection connection;
+        if (isKerberosCp(inceptorSourceDTO)) {
+            // 连接池按 principal 区分，物理连接在 Hikari 线程中创建，需要在 doAs 中重新登录获取 UGI
+            UserGroupInformation ugi = KerberosLoginUtil.loginWithUGI(inceptorSourceDTO.getKerberosConfig());
+            try {
+                connection = getKerberosCpConn(inceptorSourceDTO, taskParams, ugi.getUserName(), KerberosLoginUtil.getTicketLifetime(ugi),
+                        () -> KerberosLoginUtil.loginWithUGI(inceptorSourceDTO.getKerberosConfig()).doAs(
+                                (PrivilegedAction<Connection>) () -> createConn(inceptorSourceDTO)));
+            } catch (DtLoaderException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new DtLoaderException(errorAdapter.connAdapter(e.getMessage(), errorPattern), e);
+            }
+        } else {
+            connection = KerberosLoginUtil.loginWithUGI(inceptorSourceDTO.getKerberosConfig()).doAs(
+                    (PrivilegedAction<Connection>) () -> createConn(inceptorSourceDTO));
+        }
         return InceptorDriverUtil.setSchema(connection, inceptorSourceDTO.getUrl(), inceptorSourceDTO.getSchema());
     }
+
+    /**
+     * 创建物理连接，需要在 UGI doAs 中调用
+     *
+     * @param inceptorSourceDTO 数据源信息
+     * @return 连接
+     */
+    private Connection createConn(InceptorSourceDTO inceptorSourceDTO) {
+        try {
+            DriverManager.setLoginTimeout(30);
+            String urlWithoutSchema = InceptorDriverUtil.removeSchema(inceptorSourceDTO.getUrl());
+
+            Properties properties = PropertiesUtil.convertToProp(inceptorSourceDTO);
+            return DriverManager.getConnection(urlWithoutSchema, properties);
+        } catch (SQLException e) {
+            // 对异常进行统一处理
+            throw new DtLoaderException(errorAdapter.connAdapter(e.getMessage(), errorPattern), e);
+        }
+    }
 }
@@ -28,6 +28,8 @@ import com.dtstack.dtcenter.common.loader.common.utils.SearchUtil;
 import com.dtstack.dtcenter.common.loader.common.utils.TableUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HadoopConfUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HdfsOperator;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.ParallelSplitReader;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.TextFieldTokenizer;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosConfigUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.common.loader.inceptor.InceptorConnFactory;
@@ -457,6 +459,10 @@ public class InceptorClient extends AbsRdbmsClient {
             throw new DtLoaderException("defaultFS incorrect format");
         }
         Configuration conf = HadoopConfUtil.getHdfsConf(inceptorSourceDTO.getDefaultFS(), inceptorSourceDTO.getConfig(), inceptorSourceDTO.getKerberosConfig());
+        // 并发读取切片的参数
+        ParallelSplitReader.setSplitReadConf(conf, queryDTO);
+        // text 表的转义字符和 null 值
+        TextFieldTokenizer.setSerdeConf(conf, table);
         List<String> finalPartitions = partitions;
         return KerberosLoginUtil.loginWithUGI(inceptorSourceDTO.getKerberosConfig()).doAs(
                 (PrivilegedAction<IDownloader>) () -> {
@@ -504,7 +510,7 @@ public class InceptorClient extends AbsRdbmsClient {
 
         if (StringUtils.containsIgnoreCase(storageMode, "orc")) {
             InceptorORCDownload inceptorORCDownload = new InceptorORCDownload(conf, tableLocation, columnNames,
-                    partitionColumns, needIndex, partitions, kerberosConfig);
+                    partitionColumns, needIndex, filterPartitions, partitions, kerberosConfig);
             inceptorORCDownload.configure();
             return inceptorORCDownload;
         }
@@ -628,6 +634,11 @@ public class InceptorClient extends AbsRdbmsClient {
                 continue;
             }
 
+            // 转义字符和 null 值
+            if (TextFieldTokenizer.setSerdeProperty(tableInfo, category, attribute)) {
+                continue;
+            }
+
             if (StringUtils.containsIgnoreCase(category, "field.delim")) {
                 tableInfo.setDelim(DelimiterUtil.charAtIgnoreEscape(attribute));
                 continue;
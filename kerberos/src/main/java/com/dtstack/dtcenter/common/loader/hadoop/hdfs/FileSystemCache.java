@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.hadoop.hdfs;
+
+import com.dtstack.dtcenter.common.loader.common.DtClassThreadFactory;
+import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import com.dtstack.dtcenter.loader.source.DataSourceType;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections.MapUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.security.UserGroupInformation;
+
+import java.io.IOException;
+import java.security.PrivilegedAction;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FileSystem 缓存
+ * <p>
+ * HadoopConfUtil 中关闭了 hadoop 自带的 FileSystem 缓存，每次 FileSystem.get 都会创建新的 DFSClient 且不会关闭，
+ * 这里按数据源和 principal 缓存 FileSystem：
+ * 1. 通过 {@link #acquire} 获取租约，使用完后关闭租约归还，引用计数为 0 且空闲超时后关闭 FileSystem
+ * 2. FileSystem 绑定创建时的 UGI，principal 重新登录得到新的 UGI 后，旧的 FileSystem 不再分配，归还后关闭
+ */
+@Slf4j
+public class FileSystemCache {
+
+    /**
+     * 引用计数为 0 的 FileSystem 最大空闲时间
+     */
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String CACHE_KEY = "defaultFS:%s,config:%s,kerberosConfig:%s,principal:%s";
+
+    private static final Map<String, FileSystemEntry> CACHE = new ConcurrentHashMap<>();
+
+    private static final LongAdder HIT_COUNT = new LongAdder();
+
+    private static final LongAdder MISS_COUNT = new LongAdder();
+
+    private static final LongAdder CLOSE_COUNT = new LongAdder();
+
+    private static final ScheduledExecutorService SCHEDULED_THREAD_POOL_EXECUTOR = new ScheduledThreadPoolExecutor(1, new DtClassThreadFactory("fileSystemCacheFactory"));
+
+    static {
+        SCHEDULED_THREAD_POOL_EXECUTOR.scheduleAtFixedRate(new IdleCloseTask(), 1, 1, TimeUnit.MINUTES);
+    }
+
+    private FileSystemCache() {
+    }
+
+    /**
+     * 获取数据源对应的 FileSystem 租约，使用完后需要关闭租约，不能直接关闭 FileSystem
+     *
+     * @param kerberosConfig kerberos 配置
+     * @param config         hdfs 配置
+     * @param defaultFS      defaultFS
+     * @return FileSystem 租约
+     */
+    public static FileSystemLease acquire(Map<String, Object> kerberosConfig, String config, String defaultFS) {
+        UserGroupInformation ugi = KerberosLoginUtil.loginWithUGI(kerberosConfig);
+        String cacheKey = buildCacheKey(kerberosConfig, config, defaultFS, ugi.getUserName());
+        while (true) {
+            FileSystemEntry entry = CACHE.get(cacheKey);
+            if (entry != null) {
+                if (entry.ugi.equals(ugi) && entry.tryAcquire()) {
+                    HIT_COUNT.increment();
+                    return new FileSystemLease(entry);
+                }
+                // principal 已重新登录或者已被关闭，不再分配
+                retire(cacheKey, entry);
+                continue;
+            }
+            MISS_COUNT.increment();
+            FileSystemEntry created = new FileSystemEntry(createFileSystem(ugi, kerberosConfig, config, defaultFS), ugi, cacheKey);
+            // 放入缓存前先占用一次引用，避免放入后被空闲清理关闭
+            created.tryAcquire();
+            if (CACHE.putIfAbsent(cacheKey, created) == null) {
+                log.info("create cached FileSystem, defaultFS : {}, principal : {}, cached count : {}", defaultFS, ugi.getUserName(), CACHE.size());
+                return new FileSystemLease(created);
+            }
+            // 并发创建时使用先放入缓存的 FileSystem
+            created.release();
+            created.retire();
+        }
+    }
+
+    private static FileSystem createFileSystem(UserGroupInformation ugi, Map<String, Object> kerberosConfig, String config, String defaultFS) {
+        Configuration conf = HadoopConfUtil.getHdfsConf(defaultFS, config, kerberosConfig);
+        // 加锁原因：UGI.doAs 没有锁，如果已经认证成功，在 FileSystem.get(conf) 执行前别的线程进行 kerberos 认证，此时 fs 正常获取，但是是不可用的
+        synchronized (DataSourceType.class) {
+            return ugi.doAs((PrivilegedAction<FileSystem>) () -> {
+                try {
+                    return FileSystem.get(conf);
+                } catch (IOException e) {
+                    throw new DtLoaderException(String.format("Hdfs check connect error,%s", e.getMessage()), e);
+                }
+            });
+        }
+    }
+
+    private static String buildCacheKey(Map<String, Object> kerberosConfig, String config, String defaultFS, String principal) {
+        Map<String, String> sortedKerberosConfig = new TreeMap<>();
+        if (MapUtils.isNotEmpty(kerberosConfig)) {
+            for (Map.Entry<String, Object> entry : kerberosConfig.entrySet()) {
+                sortedKerberosConfig.put(entry.getKey(), entry.getValue() == null ? null : entry.getValue().toString());
+            }
+        }
+        return String.format(CACHE_KEY, defaultFS, config, sortedKerberosConfig, principal);
+    }
+
+    private static void retire(String cacheKey, FileSystemEntry entry) {
+        if (CACHE.remove(cacheKey, entry)) {
+            log.info("retire cached FileSystem, key principal : {}", entry.ugi.getUserName());
+        }
+        entry.retire();
+    }
+
+    /**
+     * 获取缓存统计信息
+     *
+     * @return 统计信息
+     */
+    public static Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("cachedCount", (long) CACHE.size());
+        metrics.put("hitCount", HIT_COUNT.sum());
+        metrics.put("missCount", MISS_COUNT.sum());
+        metrics.put("closeCount", CLOSE_COUNT.sum());
+        long inUse = 0;
+        for (FileSystemEntry entry : CACHE.values()) {
+            inUse += entry.refCount;
+        }
+        metrics.put("inUseCount", inUse);
+        return metrics;
+    }
+
+    /**
+     * 缓存的 FileSystem，引用计数相关操作都在对象锁内完成
+     */
+    static class FileSystemEntry {
+
+        private final FileSystem fileSystem;
+
+        private final UserGroupInformation ugi;
+
+        private final String cacheKey;
+
+        private int refCount;
+
+        private long lastAccessTime = System.currentTimeMillis();
+
+        // 不再分配新的租约，引用计数为 0 时关闭
+        private boolean retired;
+
+        private boolean closed;
+
+        private FileSystemEntry(FileSystem fileSystem, UserGroupInformation ugi, String cacheKey) {
+            this.fileSystem = fileSystem;
+            this.ugi = ugi;
+            this.cacheKey = cacheKey;
+        }
+
+        FileSystem getFileSystem() {
+            return fileSystem;
+        }
+
+        private synchronized boolean tryAcquire() {
+            if (retired || closed) {
+                return false;
+            }
+            refCount++;
+            lastAccessTime = System.currentTimeMillis();
+            return true;
+        }
+
+        synchronized void release() {
+            refCount--;
+            lastAccessTime = System.currentTimeMillis();
+            if (retired && refCount <= 0) {
+                close();
+            }
+        }
+
+        private synchronized void retire() {
+            retired = true;
+            if (refCount <= 0) {
+                close();
+            }
+        }
+
+        private synchronized boolean closeIfIdle(long now) {
+            if (refCount > 0 || now - lastAccessTime < IDLE_TIMEOUT) {
+                return false;
+            }
+            retired = true;
+            close();
+            return true;
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            CLOSE_COUNT.increment();
+            try {
+                fileSystem.close();
+            } catch (Exception e) {
+                log.warn("close cached FileSystem error, {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 关闭空闲的 FileSystem
+     */
+    static class IdleCloseTask implements Runnable {
+        @Override
+        public void run() {
+            long now = System.currentTimeMillis();
+            for (FileSystemEntry entry : CACHE.values()) {
+                try {
+                    if (entry.closeIfIdle(now)) {
+                        CACHE.remove(entry.cacheKey, entry);
+                        log.info("close idle cached FileSystem, principal : {}", entry.ugi.getUserName());
+                    }
+                } catch (Exception e) {
+                    log.error("close idle cached FileSystem error", e);
+                }
+            }
+        }
+    }
+}
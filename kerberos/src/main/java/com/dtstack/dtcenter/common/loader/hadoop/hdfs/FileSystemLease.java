@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.hadoop.hdfs;
+
+import org.apache.hadoop.fs.FileSystem;
+
+/**
+ * 缓存 FileSystem 的租约，关闭租约时归还 FileSystem，FileSystem 本身由 {@link FileSystemCache} 关闭
+ */
+public class FileSystemLease implements AutoCloseable {
+
+    private final FileSystemCache.FileSystemEntry entry;
+
+    private boolean released;
+
+    FileSystemLease(FileSystemCache.FileSystemEntry entry) {
+        this.entry = entry;
+    }
+
+    /**
+     * 获取 FileSystem，不能关闭
+     *
+     * @return FileSystem
+     */
+    public FileSystem get() {
+        return entry.getFileSystem();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (released) {
+            return;
+        }
+        released = true;
+        entry.release();
+    }
+}
@@ -26,7 +26,13 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * @company: www.dtstack.com
@@ -45,6 +51,18 @@ public class HadoopConfUtil {
      */
     private static Configuration defaultConfiguration = new Configuration(false);
 
+    /**
+     * 配置快照缓存最大个数
+     */
+    private static final int MAX_CONF_CACHE_SIZE = 256;
+
+    private static final String CONF_CACHE_KEY = "defaultFS:%s,config:%s,kerberosConfig:%s";
+
+    /**
+     * 按 defaultFS、config、kerberosConfig 缓存组装好的配置快照，避免每次调用重新解析 config 和设置属性
+     */
+    private static final Map<String, ConfSnapshot> CONF_CACHE = new ConcurrentHashMap<>();
+
     /**
      * 获取默认集群信息
      *
@@ -87,22 +105,99 @@ public class HadoopConfUtil {
      * @return
      */
     public static Configuration getHdfsConf(String defaultFS, String config, Map<String, Object> kerberosConfig) {
-        Configuration conf = new Configuration(false);
-        // 设置默认属性
-        setHadoopDefaultConfig(conf, defaultFS, kerberosConfig);
-        return combineHdfsConfig(conf, config, kerberosConfig);
+        String cacheKey = buildCacheKey(defaultFS, config, kerberosConfig);
+        return copyOf(getSnapshot(cacheKey, () -> {
+            Configuration conf = new Configuration(false);
+            // 设置默认属性
+            setHadoopDefaultConfig(conf, defaultFS, kerberosConfig);
+            return combineHdfsConfig(conf, config, kerberosConfig);
+        }));
     }
 
     public static Configuration getHdfsConf(String tbdsUsername, String tbdsSecureId, String tbdsSecureKey, String defaultFS, String config, Map<String, Object> kerberosConfig) {
-        Configuration conf = new Configuration(false);
-        //tdbs 校验
-        conf.set("hadoop.security.authentication", "tbds");
-        conf.set("hadoop_security_authentication_tbds_username", tbdsUsername);
-        conf.set("hadoop_security_authentication_tbds_secureid", tbdsSecureId);
-        conf.set("hadoop_security_authentication_tbds_securekey", tbdsSecureKey);
-        // 设置默认属性
-        setHadoopDefaultConfig(conf, defaultFS, kerberosConfig);
-        return combineHdfsConfig(conf, config, kerberosConfig);
+        String cacheKey = String.format("tbds:%s,%s,%s,%s", tbdsUsername, tbdsSecureId, tbdsSecureKey, buildCacheKey(defaultFS, config, kerberosConfig));
+        return copyOf(getSnapshot(cacheKey, () -> {
+            Configuration conf = new Configuration(false);
+            //tdbs 校验
+            conf.set("hadoop.security.authentication", "tbds");
+            conf.set("hadoop_security_authentication_tbds_username", tbdsUsername);
+            conf.set("hadoop_security_authentication_tbds_secureid", tbdsSecureId);
+            conf.set("hadoop_security_authentication_tbds_securekey", tbdsSecureKey);
+            // 设置默认属性
+            setHadoopDefaultConfig(conf, defaultFS, kerberosConfig);
+            return combineHdfsConfig(conf, config, kerberosConfig);
+        }));
+    }
+
+    /**
+     * 获取缓存的配置快照，快照只用于复制，不对外返回
+     *
+     * @param cacheKey 缓存 key
+     * @param builder  快照不存在时的构建方法
+     * @return 配置快照
+     */
+    private static Configuration getSnapshot(String cacheKey, Supplier<Configuration> builder) {
+        ConfSnapshot snapshot = CONF_CACHE.get(cacheKey);
+        if (snapshot == null) {
+            // 构建过程没有副作用，并发时重复构建也不影响结果，不加锁
+            snapshot = new ConfSnapshot(builder.get());
+            ConfSnapshot exists = CONF_CACHE.putIfAbsent(cacheKey, snapshot);
+            if (exists != null) {
+                snapshot = exists;
+            } else {
+                evictOverflow();
+            }
+        }
+        snapshot.lastAccessTime = System.currentTimeMillis();
+        return snapshot.conf;
+    }
+
+    /**
+     * 复制配置快照，调用方可以任意修改返回的配置，不会影响缓存
+     */
+    private static Configuration copyOf(Configuration snapshot) {
+        // 没有自定义配置时和原先一样直接返回默认配置
+        if (snapshot == defaultConfiguration) {
+            return defaultConfiguration;
+        }
+        return new Configuration(snapshot);
+    }
+
+    private static String buildCacheKey(String defaultFS, String config, Map<String, Object> kerberosConfig) {
+        Map<String, String> sortedKerberosConfig = new TreeMap<>();
+        if (MapUtils.isNotEmpty(kerberosConfig)) {
+            for (Map.Entry<String, Object> entry : kerberosConfig.entrySet()) {
+                sortedKerberosConfig.put(entry.getKey(), entry.getValue() == null ? null : entry.getValue().toString());
+            }
+        }
+        return String.format(CONF_CACHE_KEY, defaultFS, config, sortedKerberosConfig);
+    }
+
+    /**
+     * 缓存个数超出限制时清除最久未使用的快照
+     */
+    private static void evictOverflow() {
+        int overflow = CONF_CACHE.size() - MAX_CONF_CACHE_SIZE;
+        if (overflow <= 0) {
+            return;
+        }
+        List<Map.Entry<String, ConfSnapshot>> entries = new ArrayList<>(CONF_CACHE.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessTime));
+        for (int i = 0; i < overflow && i < entries.size(); i++) {
+            CONF_CACHE.remove(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+    }
+
+    private static class ConfSnapshot {
+
+        private final Configuration conf;
+
+        private volatile long lastAccessTime;
+
+        private ConfSnapshot(Configuration conf) {
+            this.conf = conf;
+            this.lastAccessTime = System.currentTimeMillis();
+        }
     }
 
     /**
@@ -26,6 +26,8 @@ import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import com.dtstack.dtcenter.loader.source.DataSourceType;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.conf.Configuration;
@@ -40,13 +42,18 @@ import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.io.IOUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -91,6 +98,7 @@ public class HdfsOperator {
      * 获取 Hdfs FileSystem 信息
      * 它自己本身有一个 Hook 线程去关闭 FileSystem
      * 平台这种不频繁且之前也没有关闭没出现问题（tfs 里面之前压根没往里面写），所以暂时不关闭
+     * 频繁的短操作使用 {@link FileSystemCache#acquire} 复用 FileSystem
      *
      * @param kerberosConfig
      * @param config
@@ -514,6 +522,112 @@ public class HdfsOperator {
         }
     }
 
+    /**
+     * 根据分区信息获取需要读取的路径，只访问需要读取的分区，避免从表路径开始递归遍历所有分区
+     * <p>
+     * 1. partitions 不为 null 时，直接拼接出满足 filterPartition 的分区路径
+     * 2. partitions 为 null 时，按分区层级取 filterPartition 中连续指定的分区作为路径前缀
+     * 返回的路径只用于缩小遍历范围，文件是否需要读取仍然由下载器按分区再次判断
+     *
+     * @param tableLocation    表路径
+     * @param partitionColumns 分区字段，按分区层级排列
+     * @param partitions       表的所有分区，为 null 表示非分区表或者没有分区信息
+     * @param filterPartition  按分区下载的分区条件
+     * @return 需要读取的路径
+     */
+    public static List<String> getPartitionLocations(String tableLocation, List<String> partitionColumns, List<String> partitions, Map<String, String> filterPartition) {
+        String location = StringUtils.removeEnd(tableLocation, "/");
+        if (partitions != null) {
+            List<String> locations = new ArrayList<>();
+            for (String partition : partitions) {
+                if (isRequiredPartition(partition, filterPartition)) {
+                    locations.add(location + "/" + partition);
+                }
+            }
+            return locations;
+        }
+        if (MapUtils.isEmpty(filterPartition) || CollectionUtils.isEmpty(partitionColumns)) {
+            return Collections.singletonList(tableLocation);
+        }
+        StringBuilder prefix = new StringBuilder(location);
+        for (String partitionColumn : partitionColumns) {
+            // hdfs 上的分区字段名是小写的
+            String value = filterPartition.get(partitionColumn.toLowerCase());
+            if (value == null) {
+                break;
+            }
+            prefix.append("/").append(partitionColumn.toLowerCase()).append("=").append(value);
+        }
+        return Collections.singletonList(prefix.toString());
+    }
+
+    /**
+     * 获取存在的路径，按父路径分组，每个父路径只调用一次 listStatus，不再对每个路径调用 exists
+     *
+     * @param fs        文件系统
+     * @param locations 路径，如 {@link #getPartitionLocations} 的返回值
+     * @return 存在的路径，顺序和传入的路径一致
+     * @throws IOException 获取文件信息异常
+     */
+    public static List<Path> getExistsPaths(FileSystem fs, List<String> locations) throws IOException {
+        if (locations.size() == 1) {
+            Path path = new Path(locations.get(0));
+            return fs.exists(path) ? Collections.singletonList(path) : Collections.emptyList();
+        }
+        Map<Path, Set<String>> childNames = new HashMap<>();
+        List<Path> existsPaths = new ArrayList<>();
+        for (String location : locations) {
+            Path path = new Path(location);
+            Path parent = path.getParent();
+            if (parent == null) {
+                existsPaths.add(path);
+                continue;
+            }
+            Set<String> names = childNames.get(parent);
+            if (names == null) {
+                names = new HashSet<>();
+                try {
+                    for (FileStatus status : fs.listStatus(parent)) {
+                        names.add(status.getPath().getName());
+                    }
+                } catch (FileNotFoundException e) {
+                    // 父路径不存在时其下的路径都不存在
+                }
+                childNames.put(parent, names);
+            }
+            if (names.contains(path.getName())) {
+                existsPaths.add(path);
+            }
+        }
+        return existsPaths;
+    }
+
+    /**
+     * 判断分区是否满足分区条件，支持多级分区
+     *
+     * @param partition       分区，如 pt=20201010/hour=01，也可以是分区下的文件路径
+     * @param filterPartition 分区条件
+     * @return 是否满足
+     */
+    public static boolean isRequiredPartition(String partition, Map<String, String> filterPartition) {
+        if (MapUtils.isEmpty(filterPartition)) {
+            return true;
+        }
+        Map<String, String> partColDataMap = new HashMap<>();
+        for (String part : partition.split("/")) {
+            if (part.contains("=")) {
+                String[] parts = part.split("=");
+                partColDataMap.put(parts[0], parts.length > 1 ? parts[1] : null);
+            }
+        }
+        for (Map.Entry<String, String> entry : filterPartition.entrySet()) {
+            if (!Objects.equals(partColDataMap.get(entry.getKey()), entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * 从路径中获取分区字段信息
      *
@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.hadoop.hdfs;
+
+import com.dtstack.dtcenter.common.loader.common.DtClassThreadFactory;
+import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
+import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
+import com.dtstack.dtcenter.loader.dto.SqlQueryDTO;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+
+import java.io.Closeable;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * hive 表下载时并发读取多个切片
+ * <p>
+ * 1. 切片交给固定大小的线程池读取，每个切片在自己的线程中完成 kerberos doAs，读取的数据按块放入有界队列
+ * 2. 有序模式下同时读取的切片不超过并发数，按切片顺序输出，和串行读取的顺序一致
+ * 3. 无序模式下所有切片共用一个队列，先读到的先输出
+ * <p>
+ * 并发数等参数通过 hadoop 配置 {@link #PARALLELISM_KEY}、{@link #ORDERED_KEY}、{@link #QUEUE_CAPACITY_KEY} 设置，
+ * 并发数小于等于 1 时下载器保持原先的串行读取
+ */
+@Slf4j
+public class ParallelSplitReader<T> implements Closeable {
+
+    /**
+     * 同时读取的切片数
+     */
+    public static final String PARALLELISM_KEY = "dtloader.download.split.parallelism";
+
+    /**
+     * 是否按切片顺序输出，默认 true
+     */
+    public static final String ORDERED_KEY = "dtloader.download.split.ordered";
+
+    /**
+     * 预读数据的最大条数
+     */
+    public static final String QUEUE_CAPACITY_KEY = "dtloader.download.split.queueCapacity";
+
+    private static final int MAX_PARALLELISM = 32;
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+
+    /**
+     * 每次放入队列的条数，减少队列的同步开销
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    // 切片读取结束标识
+    private static final Object SPLIT_END = new Object();
+
+    private final List<T> splits;
+
+    private final SplitReaderFactory<T> factory;
+
+    private final Map<String, Object> kerberosConfig;
+
+    private final boolean ordered;
+
+    private final int chunkCapacity;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ClassLoader contextClassLoader;
+
+    /**
+     * 有序模式下每个切片一个队列，无序模式下只有一个共用的队列
+     */
+    private final List<BlockingQueue<Object>> queues;
+
+    // 下一个提交读取的切片
+    private int nextSubmit;
+
+    // 有序模式下当前输出的切片
+    private int currentSplit;
+
+    // 已读取结束的切片数
+    private int finishedSplits;
+
+    private List<List<String>> currentChunk;
+
+    private int chunkIndex;
+
+    private List<String> currentRow;
+
+    private volatile boolean closed;
+
+    private ParallelSplitReader(List<T> splits, SplitReaderFactory<T> factory, Map<String, Object> kerberosConfig,
+                                int parallelism, boolean ordered, int queueCapacity) {
+        this.splits = splits;
+        this.factory = factory;
+        this.kerberosConfig = kerberosConfig;
+        this.ordered = ordered;
+        int totalChunks = Math.max(parallelism, queueCapacity / CHUNK_SIZE);
+        this.chunkCapacity = ordered ? Math.max(2, totalChunks / parallelism) : totalChunks;
+        this.queues = new ArrayList<>(ordered ? splits.size() : 1);
+        if (!ordered) {
+            queues.add(new ArrayBlockingQueue<>(chunkCapacity));
+        }
+        this.contextClassLoader = Thread.currentThread().getContextClassLoader();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DtClassThreadFactory("parallelSplitReader"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 根据 hadoop 配置创建并开始预读，配置的并发数小于等于 1 时返回 null
+     *
+     * @param conf           hadoop 配置
+     * @param splits         需要读取的切片，顺序即有序模式下的输出顺序
+     * @param factory        切片读取器的创建方法
+     * @param kerberosConfig kerberos 配置
+     * @param <T>            切片类型
+     * @return 并发读取器
+     */
+    public static <T> ParallelSplitReader<T> create(Configuration conf, List<T> splits, SplitReaderFactory<T> factory,
+                                                    Map<String, Object> kerberosConfig) {
+        int parallelism = getParallelism(conf);
+        if (parallelism <= 1) {
+            return null;
+        }
+        boolean ordered = conf.getBoolean(ORDERED_KEY, true);
+        int queueCapacity = conf.getInt(QUEUE_CAPACITY_KEY, DEFAULT_QUEUE_CAPACITY);
+        ParallelSplitReader<T> reader = new ParallelSplitReader<>(new ArrayList<>(splits), factory, kerberosConfig,
+                Math.min(parallelism, Math.max(1, splits.size())), ordered, queueCapacity);
+        log.info("read {} splits in parallel, parallelism : {}, ordered : {}", splits.size(), parallelism, ordered);
+        reader.start();
+        return reader;
+    }
+
+    /**
+     * 获取配置的并发数
+     *
+     * @param conf hadoop 配置
+     * @return 并发数
+     */
+    public static int getParallelism(Configuration conf) {
+        return Math.min(MAX_PARALLELISM, conf.getInt(PARALLELISM_KEY, 1));
+    }
+
+    /**
+     * 将 SqlQueryDTO 中的并发读取参数设置到 hadoop 配置中，未设置时使用数据源配置
+     *
+     * @param conf     hadoop 配置
+     * @param queryDTO 查询信息
+     */
+    public static void setSplitReadConf(Configuration conf, SqlQueryDTO queryDTO) {
+        if (Objects.isNull(queryDTO) || !ReflectUtil.fieldExists(SqlQueryDTO.class, "splitReadParallelism")) {
+            return;
+        }
+        if (Objects.nonNull(queryDTO.getSplitReadParallelism())) {
+            conf.setInt(PARALLELISM_KEY, queryDTO.getSplitReadParallelism());
+        }
+        if (Objects.nonNull(queryDTO.getSplitReadOrdered())) {
+            conf.setBoolean(ORDERED_KEY, queryDTO.getSplitReadOrdered());
+        }
+    }
+
+    private void start() {
+        if (ordered) {
+            // 有序模式下只提交并发数个切片，输出完一个切片后再提交下一个，限制预读的数据量
+            for (int i = 0; i < executor.getCorePoolSize() && i < splits.size(); i++) {
+                submitNext();
+            }
+        } else {
+            while (nextSubmit < splits.size()) {
+                submitNext();
+            }
+        }
+    }
+
+    private void submitNext() {
+        int splitIndex = nextSubmit++;
+        BlockingQueue<Object> queue;
+        if (ordered) {
+            queue = new ArrayBlockingQueue<>(chunkCapacity);
+            queues.add(queue);
+        } else {
+            queue = queues.get(0);
+        }
+        executor.execute(new SplitTask(splits.get(splitIndex), queue));
+    }
+
+    /**
+     * 移动到下一条数据
+     *
+     * @return 是否还有数据
+     */
+    public boolean advance() {
+        while (currentChunk == null || chunkIndex >= currentChunk.size()) {
+            if (!nextChunk()) {
+                currentRow = null;
+                return false;
+            }
+        }
+        currentRow = currentChunk.get(chunkIndex++);
+        return true;
+    }
+
+    /**
+     * 当前数据，调用 {@link #advance()} 返回 true 后有效
+     *
+     * @return 当前行
+     */
+    public List<String> current() {
+        return currentRow;
+    }
+
+    /**
+     * 读取数据直到批数据读满或者读取结束
+     *
+     * @param builder 批数据构建器
+     */
+    public void fill(ColumnBatch.Builder builder) {
+        while (!builder.isFull() && advance()) {
+            builder.addRow(currentRow);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean nextChunk() {
+        while (!closed && finishedSplits < splits.size()) {
+            Object element;
+            try {
+                element = queues.get(ordered ? currentSplit : 0).take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DtLoaderException("Interrupted while reading splits", e);
+            }
+            if (element instanceof SplitFailure) {
+                Throwable cause = ((SplitFailure) element).cause;
+                throw new DtLoaderException(String.format("Download file is abnormal,%s", cause.getMessage()), cause);
+            }
+            if (element == SPLIT_END) {
+                finishedSplits++;
+                if (ordered) {
+                    // 释放已输出完的切片队列，并提交下一个切片
+                    queues.set(currentSplit++, null);
+                    if (nextSubmit < splits.size()) {
+                        submitNext();
+                    }
+                }
+                continue;
+            }
+            currentChunk = (List<List<String>>) element;
+            chunkIndex = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 停止读取，未读取完的切片在当前块读取完后退出。
+     * 不中断读取线程，中断 hadoop rpc 会关闭共用的连接，影响缓存的 FileSystem
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        currentChunk = null;
+        currentRow = null;
+        executor.shutdown();
+    }
+
+    private boolean offer(BlockingQueue<Object> queue, Object element) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取一个切片并放入队列
+     */
+    private class SplitTask implements Runnable {
+
+        private final T split;
+
+        private final BlockingQueue<Object> queue;
+
+        private SplitTask(T split, BlockingQueue<Object> queue) {
+            this.split = split;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            ClassLoader origin = Thread.currentThread().getContextClassLoader();
+            // 读取线程按需创建，显式使用创建下载器时的类加载器，避免加载到其他插件的类
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+            try {
+                Object end;
+                try {
+                    KerberosLoginUtil.loginWithUGI(kerberosConfig).doAs((PrivilegedExceptionAction<Void>) () -> {
+                        readSplit();
+                        return null;
+                    });
+                    end = SPLIT_END;
+                } catch (Throwable e) {
+                    log.error("read split {} error, {}", split, e.getMessage(), e);
+                    end = new SplitFailure(e);
+                }
+                offer(queue, end);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                Thread.currentThread().setContextClassLoader(origin);
+            }
+        }
+
+        private void readSplit() throws Exception {
+            try (SplitRowReader reader = factory.open(split)) {
+                List<List<String>> chunk = new ArrayList<>(CHUNK_SIZE);
+                List<String> row;
+                while (!closed && (row = reader.next()) != null) {
+                    chunk.add(row);
+                    if (chunk.size() >= CHUNK_SIZE) {
+                        if (!offer(queue, chunk)) {
+                            return;
+                        }
+                        chunk = new ArrayList<>(CHUNK_SIZE);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    offer(queue, chunk);
+                }
+            }
+        }
+    }
+
+    private static class SplitFailure {
+
+        private final Throwable cause;
+
+        private SplitFailure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * 根据切片创建读取器，在读取线程的 kerberos doAs 中调用
+     */
+    @FunctionalInterface
+    public interface SplitReaderFactory<T> {
+        SplitRowReader open(T split) throws Exception;
+    }
+
+    /**
+     * 单个切片的读取器，只在一个读取线程中使用
+     */
+    public interface SplitRowReader extends AutoCloseable {
+
+        /**
+         * 读取下一条数据
+         *
+         * @return 行数据，读取结束时返回 null
+         * @throws Exception 读取异常
+         */
+        List<String> next() throws Exception;
+
+        @Override
+        void close() throws Exception;
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.hadoop.hdfs;
+
+import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
+import com.dtstack.dtcenter.loader.dto.Table;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * hive text 文件的字段切分
+ * <p>
+ * 直接在 {@link Text} 的 utf-8 字节上按分隔符查找字段边界，只记录每个字段的起止位置，
+ * 调用 {@link #getField} 时才创建对应字段的字符串，不需要的字段不会解码。
+ * utf-8 多字节字符的每个字节都不会和 ascii 字符相同，按字节匹配分隔符不会切到字符中间。
+ * <p>
+ * hive 约定，和 LazySimpleSerDe 保持一致：
+ * 1. 分隔符按字面量处理，支持 \t、\n 等转义写法，其他转义写法取转义后的字符
+ * 2. 设置了转义字符（escape.delim）时，转义字符后的一个字节不作为分隔符，取字段值时去掉转义字符，\r、\n 还原为回车、换行
+ * 3. 字段原始内容和 null 值（serialization.null.format，默认为 {@link #NULL_FORMAT}）相同时表示 null
+ */
+public class TextFieldTokenizer {
+
+    /**
+     * hive text 默认的 null 值
+     */
+    public static final String NULL_FORMAT = "\\N";
+
+    /**
+     * 表的转义字符，和 hive 表属性名一致
+     */
+    public static final String ESCAPE_DELIM_KEY = "escape.delim";
+
+    /**
+     * 表的 null 值，和 hive 表属性名一致
+     */
+    public static final String NULL_FORMAT_KEY = "serialization.null.format";
+
+    /**
+     * 未设置转义字符
+     */
+    private static final int NO_ESCAPE = -1;
+
+    /**
+     * 正则元字符，包含这些字符的多字符分隔符无法确定字面量，不使用字节切分
+     */
+    private static final String REGEX_META_CHARS = ".$|()[]{}^?*+\\";
+
+    private final byte[] delimiter;
+
+    private final int escapeChar;
+
+    private final byte[] nullBytes;
+
+    private byte[] bytes;
+
+    private int[] starts = new int[16];
+
+    private int[] ends = new int[16];
+
+    private int fieldCount;
+
+    private byte[] unescaped = new byte[64];
+
+    /**
+     * @param delimiter  分隔符
+     * @param escapeChar 转义字符，{@link #NO_ESCAPE} 表示不转义
+     * @param nullFormat null 值
+     */
+    private TextFieldTokenizer(byte[] delimiter, int escapeChar, String nullFormat) {
+        this.delimiter = delimiter;
+        this.escapeChar = escapeChar;
+        this.nullBytes = nullFormat.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 根据分隔符创建字段切分器，不转义，null 值为 {@link #NULL_FORMAT}
+     *
+     * @param fieldDelimiter 分隔符
+     * @return 字段切分器，分隔符只能按正则处理时返回 null，由调用方继续使用 String.split
+     */
+    public static TextFieldTokenizer create(String fieldDelimiter) {
+        return create(fieldDelimiter, null, NULL_FORMAT);
+    }
+
+    /**
+     * 根据分隔符和 hadoop 配置中的 {@link #ESCAPE_DELIM_KEY}、{@link #NULL_FORMAT_KEY} 创建字段切分器
+     *
+     * @param fieldDelimiter 分隔符
+     * @param conf           hadoop 配置
+     * @return 字段切分器，分隔符只能按正则处理时返回 null，由调用方继续使用 String.split
+     */
+    public static TextFieldTokenizer create(String fieldDelimiter, Configuration conf) {
+        return create(fieldDelimiter, conf.get(ESCAPE_DELIM_KEY), getNullFormat(conf));
+    }
+
+    /**
+     * 根据分隔符、转义字符和 null 值创建字段切分器
+     *
+     * @param fieldDelimiter 分隔符
+     * @param escapeDelim    转义字符，和 hive 一样可以是字符或者字节的十进制值，为空表示不转义
+     * @param nullFormat     null 值，为 null 时使用 {@link #NULL_FORMAT}
+     * @return 字段切分器，分隔符只能按正则处理时返回 null，由调用方继续使用 String.split
+     */
+    public static TextFieldTokenizer create(String fieldDelimiter, String escapeDelim, String nullFormat) {
+        String literal = toLiteral(fieldDelimiter);
+        if (StringUtils.isEmpty(literal)) {
+            return null;
+        }
+        return new TextFieldTokenizer(literal.getBytes(StandardCharsets.UTF_8), toEscapeChar(escapeDelim),
+                nullFormat == null ? NULL_FORMAT : nullFormat);
+    }
+
+    /**
+     * 将表的转义字符和 null 值设置到 hadoop 配置中，低版本 core 包中的 Table 不包含这些字段
+     *
+     * @param conf  hadoop 配置
+     * @param table 表信息
+     */
+    public static void setSerdeConf(Configuration conf, Table table) {
+        if (ReflectUtil.fieldExists(Table.class, "escapeDelim") && StringUtils.isNotEmpty(table.getEscapeDelim())) {
+            conf.set(ESCAPE_DELIM_KEY, table.getEscapeDelim());
+        }
+        if (ReflectUtil.fieldExists(Table.class, "nullFormat") && table.getNullFormat() != null) {
+            conf.set(NULL_FORMAT_KEY, table.getNullFormat());
+        }
+    }
+
+    /**
+     * 解析 desc formatted 结果中的转义字符和 null 值，结果中的属性值是 java 转义后的写法，如 \\N
+     *
+     * @param table 表信息
+     * @param key   属性名
+     * @param value 属性值
+     * @return 是否为转义字符或者 null 值属性
+     */
+    public static boolean setSerdeProperty(Table table, String key, String value) {
+        if (ESCAPE_DELIM_KEY.equals(key)) {
+            if (ReflectUtil.fieldExists(Table.class, "escapeDelim")) {
+                table.setEscapeDelim(StringEscapeUtils.unescapeJava(StringUtils.trimToEmpty(value)));
+            }
+            return true;
+        }
+        if (NULL_FORMAT_KEY.equals(key)) {
+            if (ReflectUtil.fieldExists(Table.class, "nullFormat")) {
+                table.setNullFormat(StringEscapeUtils.unescapeJava(StringUtils.trimToEmpty(value)));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 获取 hadoop 配置中的 null 值
+     *
+     * @param conf hadoop 配置
+     * @return null 值，未设置时为 {@link #NULL_FORMAT}
+     */
+    public static String getNullFormat(Configuration conf) {
+        return conf.get(NULL_FORMAT_KEY, NULL_FORMAT);
+    }
+
+    /**
+     * 解析转义字符，规则和 hive LazySerDeParameters 一致：数字按字节值处理，否则取第一个字符
+     *
+     * @param escapeDelim 转义字符
+     * @return 转义字符的字节值，为空或者不是单字节字符时返回 {@link #NO_ESCAPE}
+     */
+    private static int toEscapeChar(String escapeDelim) {
+        if (StringUtils.isEmpty(escapeDelim)) {
+            return NO_ESCAPE;
+        }
+        int escapeChar;
+        try {
+            escapeChar = Byte.parseByte(escapeDelim);
+        } catch (NumberFormatException e) {
+            escapeChar = escapeDelim.charAt(0);
+        }
+        // 只支持 ascii 字符，多字节字符按字节匹配时会切到字符中间
+        return escapeChar >= 0 && escapeChar < 0x80 ? escapeChar : NO_ESCAPE;
+    }
+
+    /**
+     * 将分隔符转换为字面量
+     *
+     * @param fieldDelimiter 分隔符
+     * @return 字面量，无法确定时返回 null
+     */
+    private static String toLiteral(String fieldDelimiter) {
+        if (StringUtils.isEmpty(fieldDelimiter)) {
+            return null;
+        }
+        if (fieldDelimiter.length() == 1) {
+            return fieldDelimiter;
+        }
+        if (fieldDelimiter.length() == 2 && fieldDelimiter.charAt(0) == '\\') {
+            char escaped = fieldDelimiter.charAt(1);
+            switch (escaped) {
+                case 't':
+                    return "\t";
+                case 'n':
+                    return "\n";
+                case 'r':
+                    return "\r";
+                case 'f':
+                    return "\f";
+                case 'a':
+                    return "\u0007";
+                case 'e':
+                    return "\u001B";
+                default:
+                    // \d、\s 等字符类只能按正则处理
+                    return Character.isLetterOrDigit(escaped) ? null : String.valueOf(escaped);
+            }
+        }
+        for (int i = 0; i < fieldDelimiter.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(fieldDelimiter.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+        return fieldDelimiter;
+    }
+
+    /**
+     * 切分一行数据，记录字段边界
+     *
+     * @param line 一行数据
+     * @return 字段个数，和 String.split(delimiter, -1) 一致，空行为一个空字段
+     */
+    public int tokenize(Text line) {
+        bytes = line.getBytes();
+        int length = line.getLength();
+        fieldCount = 0;
+        int fieldStart = 0;
+        int i = 0;
+        byte first = delimiter[0];
+        while (i <= length - delimiter.length) {
+            if (bytes[i] == escapeChar && i + 1 < length) {
+                // 转义字符和后一个字节都属于字段内容
+                i += 2;
+            } else if (bytes[i] == first && matchDelimiter(i)) {
+                addField(fieldStart, i);
+                i += delimiter.length;
+                fieldStart = i;
+            } else {
+                i++;
+            }
+        }
+        addField(fieldStart, length);
+        return fieldCount;
+    }
+
+    private boolean matchDelimiter(int offset) {
+        for (int j = 1; j < delimiter.length; j++) {
+            if (bytes[offset + j] != delimiter[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * 获取上一次切分的字段个数
+     *
+     * @return 字段个数
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * 获取上一次切分中指定位置的字段，需要在 Text 内容变化前调用
+     *
+     * @param index 字段位置
+     * @return 字段值，超出字段个数或者为 null 值时返回 null
+     */
+    public String getField(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return null;
+        }
+        int start = starts[index];
+        int length = ends[index] - start;
+        // 和 hive 一样按转义前的原始内容判断 null 值
+        if (isNull(start, length)) {
+            return null;
+        }
+        if (escapeChar != NO_ESCAPE) {
+            for (int i = start; i < start + length; i++) {
+                if (bytes[i] == escapeChar) {
+                    return unescape(start, length);
+                }
+            }
+        }
+        return new String(bytes, start, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 去掉字段中的转义字符，和 hive LazyUtils.copyAndEscapeStringDataToText 一致
+     */
+    private String unescape(int start, int length) {
+        if (unescaped.length < length) {
+            unescaped = new byte[Math.max(length, unescaped.length * 2)];
+        }
+        int end = start + length;
+        int size = 0;
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b == escapeChar && i + 1 < end) {
+                b = bytes[++i];
+                if (b == 'r') {
+                    b = '\r';
+                } else if (b == 'n') {
+                    b = '\n';
+                }
+            }
+            unescaped[size++] = b;
+        }
+        return new String(unescaped, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private boolean isNull(int start, int length) {
+        if (length != nullBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[start + i] != nullBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 字段值按 hive 约定转换，{@link #NULL_FORMAT} 转换为 null，用于无法按字节切分时
+     *
+     * @param field 字段值
+     * @return 转换后的值
+     */
+    public static String toHiveValue(String field) {
+        return toHiveValue(field, NULL_FORMAT);
+    }
+
+    /**
+     * 字段值按 hive 约定转换，null 值转换为 null，用于无法按字节切分时
+     *
+     * @param field      字段值
+     * @param nullFormat null 值
+     * @return 转换后的值
+     */
+    public static String toHiveValue(String field, String nullFormat) {
+        return nullFormat.equals(field) ? null : field;
+    }
+}
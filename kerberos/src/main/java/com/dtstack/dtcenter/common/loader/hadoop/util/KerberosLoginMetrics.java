@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.hadoop.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Kerberos 登录和续期耗时统计
+ */
+public class KerberosLoginMetrics {
+
+    private static final Stat LOGIN = new Stat();
+
+    private static final Stat RENEW = new Stat();
+
+    private KerberosLoginMetrics() {
+    }
+
+    /**
+     * 记录一次 keytab 登录
+     *
+     * @param costTime 耗时，单位：毫秒
+     * @param success  是否成功
+     */
+    public static void recordLogin(long costTime, boolean success) {
+        LOGIN.record(costTime, success);
+    }
+
+    /**
+     * 记录一次票据续期
+     *
+     * @param costTime 耗时，单位：毫秒
+     * @param success  是否成功
+     */
+    public static void recordRenew(long costTime, boolean success) {
+        RENEW.record(costTime, success);
+    }
+
+    /**
+     * 获取当前统计信息，耗时单位：毫秒
+     *
+     * @return 统计信息
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        LOGIN.fill("login", metrics);
+        RENEW.fill("renew", metrics);
+        return metrics;
+    }
+
+    private static class Stat {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder failCount = new LongAdder();
+
+        private final LongAdder totalTime = new LongAdder();
+
+        private final AtomicLong maxTime = new AtomicLong();
+
+        private void record(long costTime, boolean success) {
+            count.increment();
+            if (!success) {
+                failCount.increment();
+            }
+            totalTime.add(costTime);
+            maxTime.accumulateAndGet(costTime, Math::max);
+        }
+
+        private void fill(String prefix, Map<String, Long> metrics) {
+            long total = count.sum();
+            metrics.put(prefix + "Count", total);
+            metrics.put(prefix + "FailCount", failCount.sum());
+            metrics.put(prefix + "AvgTime", total == 0 ? 0 : totalTime.sum() / total);
+            metrics.put(prefix + "MaxTime", maxTime.get());
+        }
+    }
+}
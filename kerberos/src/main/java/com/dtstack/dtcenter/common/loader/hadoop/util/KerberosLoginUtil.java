@@ -30,11 +30,17 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.security.UserGroupInformation;
 import sun.security.krb5.Config;
 
+import javax.security.auth.Subject;
+import javax.security.auth.kerberos.KerberosPrincipal;
+import javax.security.auth.kerberos.KerberosTicket;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,6 +59,31 @@ public class KerberosLoginUtil {
 
     private static ConcurrentHashMap<String, UGICacheData> UGI_INFO = new ConcurrentHashMap<>();
 
+    /**
+     * UGI 缓存最大空闲时间，超过后不再续期并清除
+     */
+    private static final long UGI_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * 获取不到 TGT 有效期时的续期间隔
+     */
+    private static final long DEFAULT_RENEW_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * 续期失败后的重试间隔
+     */
+    private static final long RENEW_RETRY_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * 在 TGT 有效期的 80% 之后续期，和 hadoop 允许重新登录的时间点保持一致
+     */
+    private static final double RENEW_RATIO = 0.8;
+
+    /**
+     * 续期时间随机延后的最大比例
+     */
+    private static final double RENEW_JITTER_RATIO = 0.05;
+
     private static final ScheduledExecutorService SCHEDULED_THREAD_POOL_EXECUTOR = new ScheduledThreadPoolExecutor(1, new DtClassThreadFactory("ugiCacheFactory"));
 
     static {
@@ -76,9 +107,36 @@ public class KerberosLoginUtil {
                 return;
             }
 
-            if (System.currentTimeMillis() > ugiCacheData.getTimeoutStamp()) {
-                UGI_INFO.remove(principal);
+            long now = System.currentTimeMillis();
+            // 长时间未使用或者续期失败导致票据过期时清除，下次使用时重新登录
+            if (now > ugiCacheData.getTimeoutStamp() || ugiCacheData.isTicketExpired()) {
+                UGI_INFO.remove(principal, ugiCacheData);
                 log.info("KerberosLogin CLEAR UGI {}", principal);
+                return;
+            }
+
+            if (now >= ugiCacheData.getRenewStamp()) {
+                renew(principal, ugiCacheData);
+            }
+        }
+
+        /**
+         * 在后台续期，续期期间调用方继续使用缓存中的 UGI
+         */
+        private void renew(String principal, UGICacheData ugiCacheData) {
+            long start = System.currentTimeMillis();
+            try {
+                runWithKerberosConfig(ugiCacheData.getConfMap(), ugiCacheData.getKrb5Conf(), () -> {
+                    ugiCacheData.getUgi().checkTGTAndReloginFromKeytab();
+                    return null;
+                });
+                KerberosLoginMetrics.recordRenew(System.currentTimeMillis() - start, true);
+                scheduleRenew(ugiCacheData);
+                log.info("KerberosLogin RENEW UGI {}, cost {} ms, next renew at {}", principal, System.currentTimeMillis() - start, ugiCacheData.getRenewStamp());
+            } catch (Exception e) {
+                KerberosLoginMetrics.recordRenew(System.currentTimeMillis() - start, false);
+                ugiCacheData.setRenewStamp(System.currentTimeMillis() + RENEW_RETRY_INTERVAL);
+                log.warn("KerberosLogin RENEW UGI {} failed, {}", principal, e.getMessage(), e);
             }
         }
     }
@@ -101,71 +159,196 @@ public class KerberosLoginUtil {
     }
 
     public static UserGroupInformation loginWithUGI(Map<String, Object> confMap, String principal, String keytab, String krb5Conf) {
-        synchronized (DataSourceType.class) {
-            // 非 Kerberos 认证，需要重新刷 UGI 信息
-            if (MapUtils.isEmpty(confMap)) {
-                try {
-                    UserGroupInformation currentUser = UserGroupInformation.getCurrentUser();
-                    if (UserGroupInformation.isSecurityEnabled() || !UserGroupInformation.AuthenticationMethod.SIMPLE.equals(currentUser.getAuthenticationMethod())) {
-                        Config.refresh();
-                        UserGroupInformation.setConfiguration(HadoopConfUtil.getDefaultConfiguration());
-                    }
-                    return currentUser;
-                } catch (Exception e) {
-                    throw new DtLoaderException(String.format("simple login failed,%s", e.getMessage()), e);
-                }
-            }
+        // 非 Kerberos 认证，需要重新刷 UGI 信息
+        if (MapUtils.isEmpty(confMap)) {
+            return loginWithSimple();
+        }
 
-            //Kerberos 认证属性
-            principal = MapUtils.getString(confMap, principal);
-            keytab = MapUtils.getString(confMap, keytab);
-            krb5Conf = MapUtils.getString(confMap, krb5Conf);
-            // 兼容历史逻辑
-            if (StringUtils.isNotEmpty(keytab) && !keytab.contains("/")) {
-                keytab = MapUtils.getString(confMap, "keytabPath");
-            }
-            // 如果前端没传 Principal 则直接从 Keytab 中获取第一个 Principal
-            if (StringUtils.isEmpty(principal) && StringUtils.isNotEmpty(keytab)) {
-                principal = KerberosConfigUtil.getPrincipals(keytab).get(0);
-            }
-            // 校验 Principal 和 Keytab 文件
-            if (StringUtils.isEmpty(principal) || StringUtils.isEmpty(keytab)) {
-                throw new DtLoaderException("Kerberos Login fail, principal or keytab is null");
-            }
+        //Kerberos 认证属性
+        principal = MapUtils.getString(confMap, principal);
+        keytab = MapUtils.getString(confMap, keytab);
+        krb5Conf = MapUtils.getString(confMap, krb5Conf);
+        // 兼容历史逻辑
+        if (StringUtils.isNotEmpty(keytab) && !keytab.contains("/")) {
+            keytab = MapUtils.getString(confMap, "keytabPath");
+        }
+        // 如果前端没传 Principal 则直接从 Keytab 中获取第一个 Principal
+        if (StringUtils.isEmpty(principal) && StringUtils.isNotEmpty(keytab)) {
+            principal = KerberosConfigUtil.getPrincipals(keytab).get(0);
+        }
+        // 校验 Principal 和 Keytab 文件
+        if (StringUtils.isEmpty(principal) || StringUtils.isEmpty(keytab)) {
+            throw new DtLoaderException("Kerberos Login fail, principal or keytab is null");
+        }
 
-            // 因为 Hive 需要下载，所有优先设置 ResourceManager Principal
-            if (confMap.get(HadoopConfTool.RM_PRINCIPAL) == null) {
-                confMap.put(HadoopConfTool.RM_PRINCIPAL, principal);
-            }
+        // 因为 Hive 需要下载，所有优先设置 ResourceManager Principal
+        if (confMap.get(HadoopConfTool.RM_PRINCIPAL) == null) {
+            confMap.put(HadoopConfTool.RM_PRINCIPAL, principal);
+        }
 
-            // 处理 auth_to_local 规则，兼容所有 principal 短名处理
-            confMap.put(SECURITY_TO_LOCAL, SECURITY_TO_LOCAL_DEFAULT);
+        // 处理 auth_to_local 规则，兼容所有 principal 短名处理
+        confMap.put(SECURITY_TO_LOCAL, SECURITY_TO_LOCAL_DEFAULT);
 
-            // 判断缓存UGI，如果存在则直接使用
-            UGICacheData cacheData = UGI_INFO.get(principal + "_" + keytab);
-            if (cacheData != null) {
+        // 判断缓存UGI，如果存在则直接使用，不加锁
+        String cacheKey = principal + "_" + keytab;
+        UGICacheData cacheData = UGI_INFO.get(cacheKey);
+        if (cacheData != null && !cacheData.isTicketExpired()) {
+            cacheData.touch(UGI_IDLE_TIMEOUT);
+            return cacheData.getUgi();
+        }
+
+        // krb5.conf 和 UGI 配置是 JVM 全局的，其他插件修改时同样锁定 DataSourceType.class
+        synchronized (DataSourceType.class) {
+            cacheData = UGI_INFO.get(cacheKey);
+            if (cacheData != null && !cacheData.isTicketExpired()) {
+                cacheData.touch(UGI_IDLE_TIMEOUT);
                 return cacheData.getUgi();
             }
+            return loginWithKeytab(confMap, principal, keytab, krb5Conf, cacheKey);
+        }
+    }
 
-            try {
-                // 设置 Krb5 配置文件
-                if (StringUtils.isNotEmpty(krb5Conf)) {
-                    System.setProperty(HadoopConfTool.KEY_JAVA_SECURITY_KRB5_CONF, krb5Conf);
+    /**
+     * 非 Kerberos 认证，当前为 Kerberos 配置时切换回默认配置
+     *
+     * @return 当前用户
+     */
+    private static UserGroupInformation loginWithSimple() {
+        try {
+            UserGroupInformation currentUser = UserGroupInformation.getCurrentUser();
+            if (!needResetSimple(currentUser)) {
+                return currentUser;
+            }
+            synchronized (DataSourceType.class) {
+                currentUser = UserGroupInformation.getCurrentUser();
+                if (needResetSimple(currentUser)) {
+                    Config.refresh();
+                    UserGroupInformation.setConfiguration(HadoopConfUtil.getDefaultConfiguration());
                 }
+            }
+            return currentUser;
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("simple login failed,%s", e.getMessage()), e);
+        }
+    }
 
+    private static boolean needResetSimple(UserGroupInformation currentUser) {
+        return UserGroupInformation.isSecurityEnabled() || !UserGroupInformation.AuthenticationMethod.SIMPLE.equals(currentUser.getAuthenticationMethod());
+    }
+
+    /**
+     * 使用 keytab 登录
+     */
+    private static UserGroupInformation loginWithKeytab(Map<String, Object> confMap, String principal, String keytab, String krb5Conf, String cacheKey) {
+        long start = System.currentTimeMillis();
+        try {
+            UserGroupInformation ugi = runWithKerberosConfig(confMap, krb5Conf, () -> {
                 // 开始 Kerberos 认证
                 log.info("login kerberos, currentUser={}, principal={}, principalFilePath={}, krb5ConfPath={}", UserGroupInformation.getCurrentUser(), principal, keytab, krb5Conf);
-                Config.refresh();
-                Configuration config = KerberosConfigUtil.getConfig(confMap);
-                config.set("hadoop.security.authentication", "Kerberos");
-                UserGroupInformation.setConfiguration(config);
-                UserGroupInformation ugi = UserGroupInformation.loginUserFromKeytabAndReturnUGI(principal, keytab);
-                UGI_INFO.put(principal + "_" + keytab, new UGICacheData(ugi));
-                log.info("login kerberos success, currentUser={}", UserGroupInformation.getCurrentUser());
-                return ugi;
-            } catch (Exception var6) {
-                throw new DtLoaderException("login kerberos failed", var6);
+                return UserGroupInformation.loginUserFromKeytabAndReturnUGI(principal, keytab);
+            });
+            KerberosLoginMetrics.recordLogin(System.currentTimeMillis() - start, true);
+            UGICacheData cacheData = new UGICacheData(ugi, confMap, krb5Conf, UGI_IDLE_TIMEOUT);
+            scheduleRenew(cacheData);
+            UGI_INFO.put(cacheKey, cacheData);
+            log.info("login kerberos success, currentUser={}, cost {} ms", UserGroupInformation.getCurrentUser(), System.currentTimeMillis() - start);
+            return ugi;
+        } catch (Exception var6) {
+            KerberosLoginMetrics.recordLogin(System.currentTimeMillis() - start, false);
+            throw new DtLoaderException("login kerberos failed", var6);
+        }
+    }
+
+    /**
+     * 在指定的 kerberos 全局配置下执行，krb5.conf 和 UGI 的 Kerberos 配置是 JVM 全局的，
+     * 其他插件中的同名类、trino、tbds 等也会修改，所以每次都重新设置，并在 DataSourceType.class 锁内执行
+     */
+    private static <T> T runWithKerberosConfig(Map<String, Object> confMap, String krb5Conf, KerberosAction<T> action) throws Exception {
+        synchronized (DataSourceType.class) {
+            // 设置 Krb5 配置文件
+            if (StringUtils.isNotEmpty(krb5Conf)) {
+                System.setProperty(HadoopConfTool.KEY_JAVA_SECURITY_KRB5_CONF, krb5Conf);
             }
+            Config.refresh();
+            Configuration config = KerberosConfigUtil.getConfig(confMap);
+            config.set("hadoop.security.authentication", "Kerberos");
+            UserGroupInformation.setConfiguration(config);
+            return action.run();
         }
     }
+
+    /**
+     * 根据 TGT 有效期计算下一次续期时间，在 hadoop 允许重新登录的时间点（有效期的 80%）之后随机延后，
+     * 避免多个 principal 同时请求 KDC
+     *
+     * @param cacheData UGI 缓存
+     */
+    private static void scheduleRenew(UGICacheData cacheData) {
+        KerberosTicket tgt = getTgt(cacheData.getUgi());
+        if (tgt == null || tgt.getStartTime() == null || tgt.getEndTime() == null) {
+            cacheData.setTicketEndStamp(null);
+            cacheData.setRenewStamp(System.currentTimeMillis() + DEFAULT_RENEW_INTERVAL);
+            return;
+        }
+        long startTime = tgt.getStartTime().getTime();
+        long endTime = tgt.getEndTime().getTime();
+        long lifetime = Math.max(0, endTime - startTime);
+        long jitter = (long) (ThreadLocalRandom.current().nextDouble() * lifetime * RENEW_JITTER_RATIO);
+        cacheData.setTicketEndStamp(endTime);
+        cacheData.setRenewStamp(startTime + (long) (lifetime * RENEW_RATIO) + jitter);
+    }
+
+    @FunctionalInterface
+    private interface KerberosAction<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * 获取 UGI 中 TGT 的有效期
+     *
+     * @param ugi kerberos 登录后的 UGI
+     * @return 有效期，单位：毫秒，获取不到时返回 null
+     */
+    public static Long getTicketLifetime(UserGroupInformation ugi) {
+        KerberosTicket tgt = getTgt(ugi);
+        if (tgt == null || tgt.getStartTime() == null || tgt.getEndTime() == null) {
+            return null;
+        }
+        return tgt.getEndTime().getTime() - tgt.getStartTime().getTime();
+    }
+
+    /**
+     * 获取 UGI 中的 TGT
+     *
+     * @param ugi kerberos 登录后的 UGI
+     * @return TGT，获取不到时返回 null
+     */
+    private static KerberosTicket getTgt(UserGroupInformation ugi) {
+        if (ugi == null) {
+            return null;
+        }
+        return ugi.doAs((PrivilegedAction<KerberosTicket>) () -> {
+            Subject subject = Subject.getSubject(AccessController.getContext());
+            if (subject == null) {
+                return null;
+            }
+            for (KerberosTicket ticket : subject.getPrivateCredentials(KerberosTicket.class)) {
+                KerberosPrincipal server = ticket.getServer();
+                // TGT 的服务端为 krbtgt/REALM@REALM
+                if (server != null && server.getName().startsWith("krbtgt/")) {
+                    return ticket;
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 获取 kerberos 登录和续期的耗时统计
+     *
+     * @return 统计信息
+     */
+    public static Map<String, Long> getLoginMetrics() {
+        return KerberosLoginMetrics.snapshot();
+    }
 }
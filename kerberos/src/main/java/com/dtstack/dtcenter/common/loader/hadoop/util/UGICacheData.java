@@ -21,6 +21,9 @@ package com.dtstack.dtcenter.common.loader.hadoop.util;
 import lombok.Data;
 import org.apache.hadoop.security.UserGroupInformation;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @company: www.dtstack.com
  * @Author ：Nanqi
@@ -30,17 +33,57 @@ import org.apache.hadoop.security.UserGroupInformation;
 @Data
 public class UGICacheData {
     /**
-     * 过期时间戳 只有头结点才存在
+     * 过期时间戳，超过该时间没有使用则清除缓存
      */
-    private Long timeoutStamp;
+    private volatile Long timeoutStamp;
 
     /**
      * UGI 信息
      */
     private UserGroupInformation ugi;
 
-    public UGICacheData(UserGroupInformation ugi) {
+    /**
+     * 登录时的 kerberos 配置，续期前需要确认全局 kerberos 配置一致
+     */
+    private Map<String, Object> confMap;
+
+    /**
+     * krb5.conf 路径
+     */
+    private String krb5Conf;
+
+    /**
+     * TGT 过期时间戳，获取不到时为 null
+     */
+    private volatile Long ticketEndStamp;
+
+    /**
+     * 下一次续期时间戳
+     */
+    private volatile long renewStamp;
+
+    public UGICacheData(UserGroupInformation ugi, Map<String, Object> confMap, String krb5Conf, long idleTimeout) {
         this.ugi = ugi;
-        timeoutStamp = System.currentTimeMillis() + 10 * 1000;
+        this.confMap = new HashMap<>(confMap);
+        this.krb5Conf = krb5Conf;
+        this.timeoutStamp = System.currentTimeMillis() + idleTimeout;
+    }
+
+    /**
+     * 使用缓存时延长过期时间
+     *
+     * @param idleTimeout 最大空闲时间，单位：毫秒
+     */
+    public void touch(long idleTimeout) {
+        timeoutStamp = System.currentTimeMillis() + idleTimeout;
+    }
+
+    /**
+     * TGT 是否已经过期，过期后不能再使用
+     *
+     * @return 是否过期
+     */
+    public boolean isTicketExpired() {
+        return ticketEndStamp != null && System.currentTimeMillis() >= ticketEndStamp;
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.hadoop.hdfs;
+
+import com.dtstack.dtcenter.loader.dto.Table;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * hive text 字段切分测试，切分结果和 String.split(delimiter, -1) 保持一致
+ */
+public class TextFieldTokenizerTest {
+
+    private static final String[] LINES = {"", "a", "a,b,c", ",,", "a,,c,", "中文,字段,😀", "\\N,b,\\N"};
+
+    @Test
+    public void sameAsSplit() {
+        for (String delimiter : new String[]{",", "\001", "\t", "##", "中"}) {
+            TextFieldTokenizer tokenizer = TextFieldTokenizer.create(delimiter);
+            Assert.assertNotNull(tokenizer);
+            for (String line : LINES) {
+                line = line.replace(",", delimiter);
+                List<String> expected = new ArrayList<>();
+                for (String field : line.split(Pattern.quote(delimiter), -1)) {
+                    expected.add(TextFieldTokenizer.toHiveValue(field));
+                }
+                Assert.assertEquals(expected, tokenize(tokenizer, line));
+            }
+        }
+    }
+
+    @Test
+    public void literalDelimiter() {
+        // 单字符按字面量处理，不按正则处理
+        Assert.assertEquals(Arrays.asList("a", "b"), tokenize(TextFieldTokenizer.create("|"), "a|b"));
+        Assert.assertEquals(Arrays.asList("a", "b"), tokenize(TextFieldTokenizer.create("."), "a.b"));
+        // 转义写法
+        Assert.assertEquals(Arrays.asList("a", "b"), tokenize(TextFieldTokenizer.create("\\t"), "a\tb"));
+        Assert.assertEquals(Arrays.asList("a", "b"), tokenize(TextFieldTokenizer.create("\\|"), "a|b"));
+        // 只能按正则处理的分隔符
+        Assert.assertNull(TextFieldTokenizer.create("\\s"));
+        Assert.assertNull(TextFieldTokenizer.create("a|b"));
+        Assert.assertNull(TextFieldTokenizer.create(""));
+    }
+
+    @Test
+    public void getFieldOutOfRange() {
+        TextFieldTokenizer tokenizer = TextFieldTokenizer.create(",");
+        Assert.assertEquals(2, tokenizer.tokenize(new Text("a,b")));
+        Assert.assertNull(tokenizer.getField(2));
+        // Text 复用时只按有效长度切分
+        Text text = new Text("a,b,c,d");
+        text.set("x,y");
+        Assert.assertEquals(2, tokenizer.tokenize(text));
+        Assert.assertEquals("y", tokenizer.getField(1));
+    }
+
+    @Test
+    public void escapedDelimiter() {
+        TextFieldTokenizer tokenizer = TextFieldTokenizer.create(",", "\\", null);
+        // 转义后的分隔符不切分，取值时去掉转义字符
+        Assert.assertEquals(Arrays.asList("a,b", "c"), tokenize(tokenizer, "a\\,b,c"));
+        // 转义字符本身被转义
+        Assert.assertEquals(Arrays.asList("a\\", "b"), tokenize(tokenizer, "a\\\\,b"));
+        // \r、\n 还原为回车、换行
+        Assert.assertEquals(Arrays.asList("x\ny", "z\r"), tokenize(tokenizer, "x\\ny,z\\r"));
+        // 行尾的转义字符按原样保留
+        Assert.assertEquals(Arrays.asList("a", "b\\"), tokenize(tokenizer, "a,b\\"));
+        // 多字符分隔符
+        Assert.assertEquals(Arrays.asList("a##b", "c"), tokenize(TextFieldTokenizer.create("##", "\\", null), "a\\##b##c"));
+        // 和 hive 一样支持字节的十进制值
+        Assert.assertEquals(Arrays.asList("a,b", "c"), tokenize(TextFieldTokenizer.create(",", "92", null), "a\\,b,c"));
+        // 未设置转义字符时按分隔符切分
+        Assert.assertEquals(Arrays.asList("a\\", "b", "c"), tokenize(TextFieldTokenizer.create(","), "a\\,b,c"));
+    }
+
+    @Test
+    public void customNullFormat() {
+        TextFieldTokenizer tokenizer = TextFieldTokenizer.create(",", null, "NULL");
+        Assert.assertEquals(Arrays.asList(null, "\\N", "", "x"), tokenize(tokenizer, "NULL,\\N,,x"));
+        // 空字符串作为 null 值
+        Assert.assertEquals(Arrays.asList("a", null, "b"), tokenize(TextFieldTokenizer.create(",", null, ""), "a,,b"));
+        // 按转义前的原始内容判断 null 值
+        Assert.assertEquals(Arrays.asList(null, "xN"), tokenize(TextFieldTokenizer.create(",", "\\", "\\N"), "\\N,x\\N"));
+        Assert.assertNull(TextFieldTokenizer.toHiveValue("NULL", "NULL"));
+        Assert.assertEquals("\\N", TextFieldTokenizer.toHiveValue("\\N", "NULL"));
+    }
+
+    @Test
+    public void serdeConf() {
+        // desc formatted 中的属性值是转义后的写法
+        Table table = new Table();
+        Assert.assertTrue(TextFieldTokenizer.setSerdeProperty(table, TextFieldTokenizer.ESCAPE_DELIM_KEY, "\\\\"));
+        Assert.assertTrue(TextFieldTokenizer.setSerdeProperty(table, TextFieldTokenizer.NULL_FORMAT_KEY, "NULL  "));
+        Assert.assertFalse(TextFieldTokenizer.setSerdeProperty(table, "serialization.format", ","));
+        Configuration conf = new Configuration(false);
+        TextFieldTokenizer.setSerdeConf(conf, table);
+        Assert.assertEquals("\\", conf.get(TextFieldTokenizer.ESCAPE_DELIM_KEY));
+        Assert.assertEquals("NULL", TextFieldTokenizer.getNullFormat(conf));
+        Assert.assertEquals(Arrays.asList("a,b", null), tokenize(TextFieldTokenizer.create(",", conf), "a\\,b,NULL"));
+        // 未设置时使用默认值
+        Assert.assertEquals(TextFieldTokenizer.NULL_FORMAT, TextFieldTokenizer.getNullFormat(new Configuration(false)));
+    }
+
+    private static List<String> tokenize(TextFieldTokenizer tokenizer, String line) {
+        int fieldCount = tokenizer.tokenize(new Text(line));
+        List<String> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            fields.add(tokenizer.getField(i));
+        }
+        return fields;
+    }
+}
@@ -19,6 +19,7 @@
 package com.dtstack.dtcenter.common.loader.mongo;
 
 import com.dtstack.dtcenter.common.loader.common.nosql.AbsNoSqlClient;
+import com.dtstack.dtcenter.loader.IQueryCursor;
 import com.dtstack.dtcenter.loader.dto.SqlQueryDTO;
 import com.dtstack.dtcenter.loader.dto.source.ISourceDTO;
 import lombok.extern.slf4j.Slf4j;
@@ -61,4 +62,9 @@ public class MongoDBClient<T> extends AbsNoSqlClient<T> {
     public List<Map<String, Object>> executeQuery(ISourceDTO source, SqlQueryDTO queryDTO) {
         return mongoExecutor.execute(source, queryDTO);
     }
+
+    @Override
+    public IQueryCursor executeQueryStream(ISourceDTO source, SqlQueryDTO queryDTO) {
+        return mongoExecutor.executeStream(source, queryDTO);
+    }
 }
\ No newline at end of file
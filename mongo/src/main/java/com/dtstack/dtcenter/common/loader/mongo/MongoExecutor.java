@@ -18,6 +18,8 @@
 
 package com.dtstack.dtcenter.common.loader.mongo;
 
+import com.dtstack.dtcenter.common.loader.common.cursor.ListQueryCursor;
+import com.dtstack.dtcenter.loader.IQueryCursor;
 import com.dtstack.dtcenter.loader.dto.SqlQueryDTO;
 import com.dtstack.dtcenter.loader.dto.source.ISourceDTO;
 import com.dtstack.dtcenter.loader.dto.source.MongoSourceDTO;
@@ -31,6 +33,7 @@ import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.MongoIterable;
 import com.mongodb.util.JSON;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
@@ -44,6 +47,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @company: www.dtstack.com
@@ -76,6 +80,9 @@ public class MongoExecutor {
 
     private static final String COUNT_KEY = "count";
 
+    // 流式查询默认每批条数
+    private static final int DEFAULT_STREAM_BATCH_SIZE = 1000;
+
     private MongoExecutor() {}
 
     public static MongoExecutor getInstance() {
@@ -143,21 +150,97 @@ public class MongoExecutor {
         return list;
     }
 
+    /**
+     * 流式查询，find、aggregate 通过服务端游标按批读取，其他操作结果较少，查询后按批返回
+     * 和 execute 不同，find 不在第一条返回 count 结果
+     *
+     * @param source
+     * @param queryDTO
+     * @return
+     */
+    public IQueryCursor executeStream(ISourceDTO source, SqlQueryDTO queryDTO) {
+        MongoSourceDTO mongoSourceDTO = (MongoSourceDTO) source;
+        MongoQueryInfo mongoQueryInfo = new MongoQueryInfo(queryDTO.getSql(), mongoSourceDTO).build();
+        String operationName = mongoQueryInfo.getOperationName();
+        String sqlQuery = mongoQueryInfo.getSqlQuery();
+        Integer fetchSize = queryDTO.getFetchSize();
+        int batchSize = Objects.nonNull(fetchSize) && fetchSize > 0 ? fetchSize : DEFAULT_STREAM_BATCH_SIZE;
+
+        boolean isFind = FIND.equals(operationName) && !RegExpUtil.isCount(sqlQuery);
+        if (!isFind && !AGGREGATE.equals(operationName)) {
+            return new ListQueryCursor(execute(source, queryDTO), batchSize);
+        }
+
+        MongoClient mongoClient = MongoDBUtils.getClient(mongoSourceDTO);
+        boolean closeClient = !BooleanUtils.isTrue(MongoDBUtils.IS_OPEN_POOL.get());
+        try {
+            MongoDatabase mongoDatabase = mongoClient.getDatabase(mongoQueryInfo.getDataBaseName());
+            MongoCollection<Document> collection = mongoDatabase.getCollection(mongoQueryInfo.getCollectionName());
+            MongoIterable<Document> iterable;
+            if (isFind) {
+                FindIterable<Document> findIterable = buildFindIterable(sqlQuery, queryDTO.getStartRow(), queryDTO.getLimit(), collection, false, parseFindQuery(sqlQuery));
+                if (Objects.nonNull(queryDTO.getQueryTimeout())) {
+                    findIterable.maxTime(queryDTO.getQueryTimeout(), TimeUnit.SECONDS);
+                }
+                iterable = findIterable;
+            } else {
+                AggregateIterable<Document> aggregateIterable = buildAggregateIterable(sqlQuery, collection, getAggregateQuery(sqlQuery));
+                if (Objects.nonNull(queryDTO.getQueryTimeout())) {
+                    aggregateIterable.maxTime(queryDTO.getQueryTimeout(), TimeUnit.SECONDS);
+                }
+                iterable = aggregateIterable;
+            }
+            // sql 中没有指定 batchSize 时使用 fetchSize
+            if (StringUtils.isBlank(RegExpUtil.getBatchSize(sqlQuery))) {
+                iterable.batchSize(batchSize);
+            }
+            return new MongoQueryCursor(iterable.iterator(), closeClient ? mongoClient : null, batchSize);
+        } catch (Exception e) {
+            if (closeClient) {
+                mongoClient.close();
+            }
+            throw new DtLoaderException(e.getMessage(), e);
+        }
+    }
+
     private void find(String sqlQuery, Integer startRow, Integer limit, List<Map<String, Object>> list, MongoCollection<Document> collection, boolean isOne) {
         // 走 count 逻辑, 此时其他参数都不生效
         if (RegExpUtil.isCount(sqlQuery)) {
             count(sqlQuery, list, collection);
             return;
         }
-        FindIterable<Document> findIterable;
+        BasicDBList queryList = parseFindQuery(sqlQuery);
+        FindIterable<Document> findIterable = buildFindIterable(sqlQuery, startRow, limit, collection, isOne, queryList);
+
+        for (Document document : findIterable) {
+            if(document == null){
+                continue;
+            }
+            list.add(dealDocumentId(document));
+        }
+
+        //count -
+        long count = collection.count(getFindObject(queryList));
+        Map<String, Object> countMap = Maps.newHashMap();
+        countMap.put(COUNT_KEY, count);
+        list.add(0, countMap);
+    }
+
+    private BasicDBList parseFindQuery(String sqlQuery) {
         String queryStr = String.format("[%s]", RegExpUtil.getQuery(sqlQuery));
-        BasicDBList queryList = (BasicDBList) JSON.parse(queryStr);
-        //find
-        BasicDBObject findObject = new BasicDBObject();
+        return (BasicDBList) JSON.parse(queryStr);
+    }
+
+    private BasicDBObject getFindObject(BasicDBList queryList) {
         if (queryList.size() > 0) {
-            findObject = (BasicDBObject) queryList.get(0);
+            return (BasicDBObject) queryList.get(0);
         }
-        findIterable = collection.find(findObject);
+        return new BasicDBObject();
+    }
+
+    private FindIterable<Document> buildFindIterable(String sqlQuery, Integer startRow, Integer limit, MongoCollection<Document> collection, boolean isOne, BasicDBList queryList) {
+        //find
+        FindIterable<Document> findIterable = collection.find(getFindObject(queryList));
 
         //projection
         if (queryList.size() > 1) {
@@ -184,25 +267,23 @@ public class MongoExecutor {
         if (StringUtils.isNotBlank(batchSize)) {
             findIterable.batchSize(Integer.valueOf(batchSize));
         }
+        return findIterable;
+    }
 
-        for (Document document : findIterable) {
-            if(document == null){
-                continue;
-            }
-            if (document.containsKey("_id")) {
-                Object value = document.get("_id");
-                if (value != null) {
-                    document.put("_id", value.toString());
-                }
+    /**
+     * _id 转为字符串返回
+     *
+     * @param document 文档
+     * @return 处理后的文档
+     */
+    static Document dealDocumentId(Document document) {
+        if (document.containsKey("_id")) {
+            Object value = document.get("_id");
+            if (value != null) {
+                document.put("_id", value.toString());
             }
-            list.add(document);
         }
-
-        //count -
-        long count = collection.count(findObject);
-        Map<String, Object> countMap = Maps.newHashMap();
-        countMap.put(COUNT_KEY, count);
-        list.add(0, countMap);
+        return document;
     }
 
     private void count(String sqlQuery, List<Map<String, Object>> list, MongoCollection<Document> collection) {
@@ -220,9 +301,12 @@ public class MongoExecutor {
     }
 
     private void aggregate(String sqlQuery, List<Map<String, Object>> list, MongoCollection<Document> collection) {
+        aggregateWithQuery(sqlQuery, list, collection, getAggregateQuery(sqlQuery));
+    }
+
+    private String getAggregateQuery(String sqlQuery) {
         String queryStr = RegExpUtil.getQuery(sqlQuery);
-        queryStr = addBrackets(queryStr);
-        aggregateWithQuery(sqlQuery, list, collection, queryStr);
+        return addBrackets(queryStr);
     }
 
     private void distinct(String sqlQuery, List<Map<String, Object>> list, MongoCollection<Document> collection) {
@@ -261,6 +345,17 @@ public class MongoExecutor {
      * @param queryStr
      */
     private void aggregateWithQuery(String sqlQuery, List<Map<String, Object>> list, MongoCollection<Document> collection, String queryStr) {
+        AggregateIterable<Document> aggregateIterable = buildAggregateIterable(sqlQuery, collection, queryStr);
+        for (Document document : aggregateIterable) {
+            if(document == null){
+                continue;
+            }
+            list.add(dealDocumentId(document));
+
+        }
+    }
+
+    private AggregateIterable<Document> buildAggregateIterable(String sqlQuery, MongoCollection<Document> collection, String queryStr) {
         AggregateIterable<Document> aggregateIterable;
         BasicDBList dbList = (BasicDBList) JSON.parse(queryStr);
         List<BasicDBObject> pipeline = new ArrayList<>();
@@ -277,20 +372,7 @@ public class MongoExecutor {
         if (StringUtils.isNotBlank(batchSize)) {
             aggregateIterable.batchSize(Integer.valueOf(batchSize));
         }
-
-        for (Document document : aggregateIterable) {
-            if(document == null){
-                continue;
-            }
-            if (document.containsKey("_id")) {
-                Object value = document.get("_id");
-                if (value != null) {
-                    document.put("_id", value.toString());
-                }
-            }
-            list.add(document);
-
-        }
+        return aggregateIterable;
     }
 
     private class MongoQueryInfo {
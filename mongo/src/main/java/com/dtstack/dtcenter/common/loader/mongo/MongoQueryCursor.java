@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.mongo;
+
+import com.dtstack.dtcenter.loader.IQueryCursor;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import com.mongodb.MongoClient;
+import com.mongodb.client.MongoCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * mongodb 流式查询游标，通过服务端游标按 batchSize 分批拉取文档
+ */
+@Slf4j
+public class MongoQueryCursor implements IQueryCursor {
+
+    private final MongoCursor<Document> cursor;
+
+    // 未开启连接池时关闭游标需要关闭 client，开启连接池时为 null
+    private final MongoClient mongoClient;
+
+    private final int batchSize;
+
+    private boolean closed;
+
+    public MongoQueryCursor(MongoCursor<Document> cursor, MongoClient mongoClient, int batchSize) {
+        this.cursor = cursor;
+        this.mongoClient = mongoClient;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        // 文档字段不固定
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !closed && cursor.hasNext();
+    }
+
+    @Override
+    public List<Map<String, Object>> nextBatch() {
+        if (closed) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+        try {
+            while (batch.size() < batchSize && cursor.hasNext()) {
+                Document document = cursor.next();
+                if (Objects.isNull(document)) {
+                    continue;
+                }
+                batch.add(MongoExecutor.dealDocumentId(document));
+            }
+        } catch (Exception e) {
+            throw new DtLoaderException(e.getMessage(), e);
+        }
+        return batch;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            cursor.close();
+        } catch (Exception e) {
+            log.warn("close mongo cursor error, {}", e.getMessage());
+        }
+        if (Objects.nonNull(mongoClient)) {
+            mongoClient.close();
+        }
+    }
+}
@@ -162,11 +162,21 @@ public class MysqlClient extends AbsRdbmsClient {
     @Override
     public IDownloader getDownloader(ISourceDTO source, SqlQueryDTO queryDTO) throws Exception {
         Mysql5SourceDTO mysql5SourceDTO = (Mysql5SourceDTO) source;
-        MysqlDownloader mysqlDownloader = new MysqlDownloader(getCon(source), queryDTO.getSql(), mysql5SourceDTO.getSchema());
+        if (isStreamDownload(queryDTO)) {
+            String switchSchemaSql = StringUtils.isNotEmpty(mysql5SourceDTO.getSchema()) ? String.format("USE %s", mysql5SourceDTO.getSchema()) : null;
+            return getStreamDownloader(source, queryDTO, switchSchemaSql);
+        }
+        MysqlDownloader mysqlDownloader = new MysqlDownloader(getCon(source), queryDTO.getSql(), mysql5SourceDTO.getSchema(), getRowCountMode(queryDTO));
         mysqlDownloader.configure();
         return mysqlDownloader;
     }
 
+    @Override
+    protected Integer getStreamFetchSize(SqlQueryDTO queryDTO) {
+        // mysql 驱动只有 fetchSize 为 Integer.MIN_VALUE 时才逐行流式读取，否则会将整个结果集加载到内存
+        return Integer.MIN_VALUE;
+    }
+
     @Override
     public List<ColumnMetaDTO> getPartitionColumn(ISourceDTO source, SqlQueryDTO queryDTO) {
         throw new DtLoaderException("Not Support");
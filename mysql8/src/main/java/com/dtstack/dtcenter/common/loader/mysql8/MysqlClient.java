@@ -108,11 +108,21 @@ public class MysqlClient extends AbsRdbmsClient {
     @Override
     public IDownloader getDownloader(ISourceDTO source, SqlQueryDTO queryDTO) throws Exception {
         Mysql8SourceDTO mysql8SourceDTO = (Mysql8SourceDTO) source;
-        MysqlDownloader mysqlDownloader = new MysqlDownloader(getCon(source), queryDTO.getSql(), mysql8SourceDTO.getSchema());
+        if (isStreamDownload(queryDTO)) {
+            String switchSchemaSql = StringUtils.isNotEmpty(mysql8SourceDTO.getSchema()) ? String.format("USE %s", mysql8SourceDTO.getSchema()) : null;
+            return getStreamDownloader(source, queryDTO, switchSchemaSql);
+        }
+        MysqlDownloader mysqlDownloader = new MysqlDownloader(getCon(source), queryDTO.getSql(), mysql8SourceDTO.getSchema(), getRowCountMode(queryDTO));
         mysqlDownloader.configure();
         return mysqlDownloader;
     }
 
+    @Override
+    protected Integer getStreamFetchSize(SqlQueryDTO queryDTO) {
+        // mysql 驱动只有 fetchSize 为 Integer.MIN_VALUE 时才逐行流式读取，否则会将整个结果集加载到内存
+        return Integer.MIN_VALUE;
+    }
+
     @Override
     protected Map<String, String> getColumnComments(RdbmsSourceDTO sourceDTO, SqlQueryDTO queryDTO) {
         Integer clearStatus = beforeColumnQuery(sourceDTO, queryDTO);
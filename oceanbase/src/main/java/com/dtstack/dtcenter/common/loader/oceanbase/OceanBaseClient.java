@@ -119,7 +119,10 @@ public class OceanBaseClient<T> extends AbsRdbmsClient<T> {
 
     @Override
     public IDownloader getDownloader(ISourceDTO source, SqlQueryDTO queryDTO) throws Exception {
-        OceanBaseDownloader oceanBaseDownloader = new OceanBaseDownloader(getCon(source), queryDTO.getSql());
+        if (isStreamDownload(queryDTO)) {
+            return getStreamDownloader(source, queryDTO, null);
+        }
+        OceanBaseDownloader oceanBaseDownloader = new OceanBaseDownloader(getCon(source), queryDTO.getSql(), getRowCountMode(queryDTO));
         oceanBaseDownloader.configure();
         return oceanBaseDownloader;
     }
@@ -306,7 +306,11 @@ public class OracleClient extends AbsRdbmsClient {
     @Override
     public IDownloader getDownloader(ISourceDTO source, SqlQueryDTO queryDTO) throws Exception {
         OracleSourceDTO oracleSourceDTO = (OracleSourceDTO) source;
-        OracleDownloader oracleDownloader = new OracleDownloader(getCon(oracleSourceDTO), queryDTO.getSql(), oracleSourceDTO.getSchema());
+        if (isStreamDownload(queryDTO)) {
+            String switchSchemaSql = StringUtils.isNotEmpty(oracleSourceDTO.getSchema()) ? String.format("alter session set current_schema=%s", oracleSourceDTO.getSchema()) : null;
+            return getStreamDownloader(source, queryDTO, switchSchemaSql);
+        }
+        OracleDownloader oracleDownloader = new OracleDownloader(getCon(oracleSourceDTO), queryDTO.getSql(), oracleSourceDTO.getSchema(), getRowCountMode(queryDTO));
         oracleDownloader.configure();
         return oracleDownloader;
     }
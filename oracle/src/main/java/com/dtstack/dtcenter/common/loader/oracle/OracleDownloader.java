@@ -16,22 +16,15 @@
  * limitations under the License.
  */
 
+
 package com.dtstack.dtcenter.common.loader.oracle;
 
-import com.dtstack.dtcenter.common.loader.common.utils.SqlFormatUtil;
-import com.dtstack.dtcenter.loader.IDownloader;
-import com.dtstack.dtcenter.loader.dto.Column;
-import com.dtstack.dtcenter.loader.exception.DtLoaderException;
-import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
+import com.dtstack.dtcenter.common.loader.rdbms.downloader.AbsRdbmsPageDownloader;
+import com.dtstack.dtcenter.loader.enums.RowCountMode;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
-import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.sql.SQLException;
 
 /**
  * @company: www.dtstack.com
@@ -39,135 +32,63 @@ import java.util.stream.Collectors;
  * @Date ：Created in 上午10:15 2020/5/29
  * @Description：oracle表下载
  */
-public class OracleDownloader implements IDownloader {
-
-    private int pageNum;
-
-    private int pageAll;
-
-    private List<Column> columnNames;
-
-    private int totalLine;
-
-    private Connection connection;
-
-    private String sql;
-
-    private String schema;
+public class OracleDownloader extends AbsRdbmsPageDownloader {
 
-    private Statement statement;
+    private static final String EXPLAIN_SQL = "EXPLAIN PLAN SET STATEMENT_ID = '%s' FOR %s";
 
-    private int pageSize;
+    private static final String PLAN_CARDINALITY_SQL = "SELECT CARDINALITY FROM PLAN_TABLE WHERE STATEMENT_ID = '%s' AND ID = 0";
 
-    private int columnCount;
+    private static final String DELETE_PLAN_SQL = "DELETE FROM PLAN_TABLE WHERE STATEMENT_ID = '%s'";
 
     public OracleDownloader(Connection connection, String sql, String schema) {
-        this.connection = connection;
-        this.sql = SqlFormatUtil.formatSql(sql);
-        this.schema = schema;
+        this(connection, sql, schema, RowCountMode.EXACT);
     }
 
-    @Override
-    public boolean configure() throws Exception {
-        if (null == connection || StringUtils.isEmpty(sql)) {
-            throw new DtLoaderException("file is not exist");
-        }
-        totalLine = 0;
-        pageSize = 100;
-        pageNum = 1;
-        statement = connection.createStatement();
-        if (StringUtils.isNotEmpty(schema)) {
-            //选择schema
-            String useSchema = String.format("alter session set current_schema=%s", schema);
-            statement.execute(useSchema);
-        }
-        String countSQL = String.format("SELECT COUNT(*) FROM (%s) temp", sql);
-        String showColumns = String.format("SELECT * FROM (%s) t where rownum<=1", sql);
-
-        ResultSet totalResultSet = null;
-        ResultSet columnsResultSet = null;
-        try {
-            totalResultSet = statement.executeQuery(countSQL);
-            while (totalResultSet.next()) {
-                //获取总行数
-                totalLine = totalResultSet.getInt(1);
-            }
-            columnsResultSet = statement.executeQuery(showColumns);
-            //获取列信息
-            columnNames = new ArrayList<>();
-            columnCount = columnsResultSet.getMetaData().getColumnCount();
-            for (int i = 1; i <= columnCount; i++) {
-                Column column = new Column();
-                column.setName(columnsResultSet.getMetaData().getColumnName(i));
-                column.setType(columnsResultSet.getMetaData().getColumnTypeName(i));
-                column.setIndex(i);
-                columnNames.add(column);
-            }
-            //获取总页数
-            pageAll = (int) Math.ceil(totalLine / (double) pageSize);
-        } catch (Exception e) {
-            throw new DtLoaderException("build Oracle downloader message exception : " + e.getMessage(), e);
-        } finally {
-            if (totalResultSet != null) {
-                totalResultSet.close();
-            }
-            if (columnsResultSet != null) {
-                columnsResultSet.close();
-            }
-        }
-        return true;
+    public OracleDownloader(Connection connection, String sql, String schema, RowCountMode rowCountMode) {
+        super(connection, sql, schema, rowCountMode);
     }
 
     @Override
-    public List<String> getMetaInfo() {
-        if (CollectionUtils.isNotEmpty(columnNames)) {
-            return columnNames.stream().map(Column::getName).collect(Collectors.toList());
-        }
-        return Collections.emptyList();
+    protected String getSourceName() {
+        return "Oracle";
     }
 
     @Override
-    public List<List<String>> readNext() {
-        //分页查询，一次一百条
-        String limitSQL = String.format("SELECT * FROM (SELECT a.*, ROWNUM rn FROM (SELECT * FROM (%s)) a WHERE " +
-                "ROWNUM <= %s) WHERE rn > %s", sql, pageSize * pageNum, pageSize * (pageNum - 1));
-        List<List<String>> pageTemp = new ArrayList<>(100);
-
-        try (ResultSet resultSet = statement.executeQuery(limitSQL)) {
-            while (resultSet.next()) {
-                List<String> columns = new ArrayList<>(columnCount);
-                for (int i = 1; i <= columnCount; i++) {
-                    columns.add(resultSet.getString(i));
-                }
-                pageTemp.add(columns);
-            }
-        } catch (Exception e) {
-            throw new DtLoaderException("read Oracle message exception : " + e.getMessage(), e);
-        }
-
-        pageNum++;
-        return pageTemp;
+    protected String getSwitchSchemaSql(String schema) {
+        return String.format("alter session set current_schema=%s", schema);
     }
 
     @Override
-    public boolean reachedEnd() {
-        return pageAll < pageNum;
+    protected String getShowColumnsSql() {
+        return String.format("SELECT * FROM (%s) t where rownum<=1", sql);
     }
 
     @Override
-    public boolean close() throws Exception {
-        statement.close();
-        connection.close();
-        return true;
+    protected String getPageSql(long offset, int limit) {
+        return String.format("SELECT * FROM (SELECT a.*, ROWNUM rn FROM (SELECT * FROM (%s)) a WHERE " +
+                "ROWNUM <= %s) WHERE rn > %s", sql, offset + limit, offset);
     }
 
     @Override
-    public String getFileName() {
-        return null;
+    protected int getPageSqlExtraColumnCount() {
+        // 分页 sql 末尾追加了 rn 字段
+        return 1;
     }
 
     @Override
-    public List<String> getContainers() {
-        return Collections.emptyList();
+    protected Long estimateTotalLine() throws SQLException {
+        // 通过 explain plan 获取优化器估算的根节点基数
+        String statementId = "DT" + System.nanoTime();
+        try {
+            statement.execute(String.format(EXPLAIN_SQL, statementId, sql));
+            try (ResultSet planResultSet = statement.executeQuery(String.format(PLAN_CARDINALITY_SQL, statementId))) {
+                if (planResultSet.next()) {
+                    return planResultSet.getLong(1);
+                }
+            }
+        } finally {
+            statement.execute(String.format(DELETE_PLAN_SQL, statementId));
+        }
+        return null;
     }
 }
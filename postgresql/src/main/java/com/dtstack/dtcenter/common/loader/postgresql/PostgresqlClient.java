@@ -261,7 +261,11 @@ public class PostgresqlClient extends AbsRdbmsClient {
     public IDownloader getDownloader(ISourceDTO source, SqlQueryDTO queryDTO) throws Exception {
         PostgresqlSourceDTO postgresqlSourceDTO = (PostgresqlSourceDTO) source;
         String schema = StringUtils.isNotBlank(queryDTO.getSchema()) ? queryDTO.getSchema() : postgresqlSourceDTO.getSchema();
-        PostgresqlDownloader postgresqlDownloader = new PostgresqlDownloader(getCon(postgresqlSourceDTO), queryDTO.getSql(), schema);
+        if (isStreamDownload(queryDTO)) {
+            String switchSchemaSql = StringUtils.isNotBlank(schema) ? String.format("set search_path to %s", schema) : null;
+            return getStreamDownloader(source, queryDTO, switchSchemaSql);
+        }
+        PostgresqlDownloader postgresqlDownloader = new PostgresqlDownloader(getCon(postgresqlSourceDTO), queryDTO.getSql(), schema, getRowCountMode(queryDTO));
         postgresqlDownloader.configure();
         return postgresqlDownloader;
     }
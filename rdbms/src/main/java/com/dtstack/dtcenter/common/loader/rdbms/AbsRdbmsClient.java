@@ -26,7 +26,10 @@ import com.dtstack.dtcenter.common.loader.common.utils.DBUtil;
 import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
 import com.dtstack.dtcenter.common.loader.common.utils.SearchUtil;
 import com.dtstack.dtcenter.common.loader.common.utils.StringUtil;
+import com.dtstack.dtcenter.common.loader.rdbms.cursor.RdbmsQueryCursor;
+import com.dtstack.dtcenter.common.loader.rdbms.downloader.RdbmsStreamDownloader;
 import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.IQueryCursor;
 import com.dtstack.dtcenter.loader.cache.connection.CacheConnectionHelper;
 import com.dtstack.dtcenter.loader.client.IClient;
 import com.dtstack.dtcenter.loader.dto.ColumnMetaDTO;
@@ -38,6 +41,7 @@ import com.dtstack.dtcenter.loader.dto.source.ISourceDTO;
 import com.dtstack.dtcenter.loader.dto.source.RdbmsSourceDTO;
 import com.dtstack.dtcenter.loader.enums.ConnectionClearStatus;
 import com.dtstack.dtcenter.loader.enums.MatchType;
+import com.dtstack.dtcenter.loader.enums.RowCountMode;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import com.dtstack.dtcenter.loader.source.DataSourceType;
 import com.dtstack.dtcenter.loader.utils.AssertUtils;
@@ -45,6 +49,7 @@ import com.google.common.collect.Lists;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -94,6 +99,9 @@ public abstract class AbsRdbmsClient<T> implements IClient<T> {
 
     private static final String SHOW_DB_SQL = "show databases";
 
+    // 流式下载默认游标每次拉取的条数
+    private static final Integer DEFAULT_STREAM_FETCH_SIZE = 1000;
+
     //线程池 - 用于部分数据源测试连通性超时处理
     protected static ExecutorService executor = new ThreadPoolExecutor(5, 10, 1L, TimeUnit.MINUTES, new ArrayBlockingQueue<>(5), new DtClassThreadFactory("testConnFactory"));
 
@@ -163,6 +171,17 @@ public abstract class AbsRdbmsClient<T> implements IClient<T> {
         return executeQuery(rdbmsSourceDTO, queryDTO, clearStatus);
     }
 
+    @Override
+    public IQueryCursor executeQueryStream(ISourceDTO iSource, SqlQueryDTO queryDTO) {
+        Integer clearStatus = beforeQuery(iSource, queryDTO, true);
+        RdbmsSourceDTO rdbmsSourceDTO = (RdbmsSourceDTO) iSource;
+        Connection connection = rdbmsSourceDTO.getConnection();
+        // 连接由游标持有，需要关闭的连接在游标关闭时一起关闭
+        boolean closeConnection = Objects.nonNull(DBUtil.clearAfterGetConnection(rdbmsSourceDTO, clearStatus));
+        return RdbmsQueryCursor.open(connection, closeConnection, queryDTO.getSql(), queryDTO.getPreFields(),
+                getStreamFetchSize(queryDTO), getStreamBatchSize(queryDTO), queryDTO.getLimit(), queryDTO.getQueryTimeout(), this::dealResult);
+    }
+
     @Override
     public Boolean executeSqlWithoutResultSet(ISourceDTO iSource, SqlQueryDTO queryDTO) {
         Integer clearStatus = beforeQuery(iSource, queryDTO, true);
@@ -609,6 +628,66 @@ public abstract class AbsRdbmsClient<T> implements IClient<T> {
         throw new DtLoaderException(ErrorCode.NOT_SUPPORT.getDesc());
     }
 
+    /**
+     * 是否使用流式游标下载
+     *
+     * @param queryDTO 查询信息
+     * @return 是否流式下载
+     */
+    protected boolean isStreamDownload(SqlQueryDTO queryDTO) {
+        return Objects.nonNull(queryDTO)
+                && ReflectUtil.fieldExists(SqlQueryDTO.class, "streamDownload")
+                && BooleanUtils.isTrue(queryDTO.getStreamDownload());
+    }
+
+    /**
+     * 获取下载器统计总条数的方式，默认精确统计
+     *
+     * @param queryDTO 查询信息
+     * @return 统计方式
+     */
+    protected RowCountMode getRowCountMode(SqlQueryDTO queryDTO) {
+        RowCountMode rowCountMode = Objects.nonNull(queryDTO) && ReflectUtil.fieldExists(SqlQueryDTO.class, "rowCountMode") ? queryDTO.getRowCountMode() : null;
+        return Objects.isNull(rowCountMode) ? RowCountMode.EXACT : rowCountMode;
+    }
+
+    /**
+     * 获取流式下载时游标每次拉取的条数，优先使用 SqlQueryDTO 中的 fetchSize
+     *
+     * @param queryDTO 查询信息
+     * @return fetchSize
+     */
+    protected Integer getStreamFetchSize(SqlQueryDTO queryDTO) {
+        Integer fetchSize = ReflectUtil.fieldExists(SqlQueryDTO.class, "fetchSize") ? queryDTO.getFetchSize() : null;
+        return Objects.nonNull(fetchSize) && fetchSize > 0 ? fetchSize : DEFAULT_STREAM_FETCH_SIZE;
+    }
+
+    /**
+     * 获取流式查询每批返回的条数，优先使用 SqlQueryDTO 中的 fetchSize
+     *
+     * @param queryDTO 查询信息
+     * @return 每批条数
+     */
+    protected int getStreamBatchSize(SqlQueryDTO queryDTO) {
+        Integer fetchSize = ReflectUtil.fieldExists(SqlQueryDTO.class, "fetchSize") ? queryDTO.getFetchSize() : null;
+        return Objects.nonNull(fetchSize) && fetchSize > 0 ? fetchSize : DEFAULT_STREAM_FETCH_SIZE;
+    }
+
+    /**
+     * 获取流式游标下载器
+     *
+     * @param source          数据源信息
+     * @param queryDTO        查询信息
+     * @param switchSchemaSql 切换 schema 的 sql，不需要切换时传 null
+     * @return 流式下载器
+     * @throws Exception 异常
+     */
+    protected IDownloader getStreamDownloader(ISourceDTO source, SqlQueryDTO queryDTO, String switchSchemaSql) throws Exception {
+        RdbmsStreamDownloader streamDownloader = new RdbmsStreamDownloader(getCon(source), queryDTO.getSql(), switchSchemaSql, getStreamFetchSize(queryDTO));
+        streamDownloader.configure();
+        return streamDownloader;
+    }
+
     @Override
     public List<String> getAllDatabases(ISourceDTO source, SqlQueryDTO queryDTO){
         // 获取表信息需要通过show databases 语句
@@ -25,6 +25,7 @@ import com.dtstack.dtcenter.common.loader.common.service.IErrorAdapter;
 import com.dtstack.dtcenter.common.loader.common.utils.DBUtil;
 import com.dtstack.dtcenter.common.loader.common.utils.PropertiesUtil;
 import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
+import com.dtstack.dtcenter.loader.cache.pool.config.PoolConfig;
 import com.dtstack.dtcenter.loader.dto.source.ISourceDTO;
 import com.dtstack.dtcenter.loader.dto.source.RdbmsSourceDTO;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
@@ -37,7 +38,6 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
 import java.util.Properties;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -62,12 +62,15 @@ public class ConnFactory {
 
     protected String testSql;
 
-    private static ConcurrentHashMap<String, Object> hikariDataSources = new ConcurrentHashMap<>();
-
     private AtomicBoolean isFirstLoaded = new AtomicBoolean(true);
 
     private static final String CP_POOL_KEY = "url:%s,username:%s,password:%s,properties:%s";
 
+    private static final String KERBEROS_CP_POOL_KEY = "%s,taskParams:%s,schema:%s,principal:%s";
+
+    // hikari 允许的最小连接存活时间
+    private static final long MIN_MAX_LIFETIME = TimeUnit.SECONDS.toMillis(30);
+
     /**
      * 线程池 - 用于部分数据源获取连接超时处理
      */
@@ -135,18 +138,41 @@ public class ConnFactory {
         RdbmsSourceDTO rdbmsSourceDTO = (RdbmsSourceDTO) source;
         String poolKey = getPrimaryKey(rdbmsSourceDTO);
         log.info("datasource connected(Hikari), url : {}, userName : {}, kerberosConfig : {}", rdbmsSourceDTO.getUrl(), rdbmsSourceDTO.getUsername(), rdbmsSourceDTO.getKerberosConfig());
-        HikariDataSource hikariData = (HikariDataSource) hikariDataSources.get(poolKey);
-        if (hikariData == null) {
-            synchronized (ConnFactory.class) {
-                hikariData = (HikariDataSource) hikariDataSources.get(poolKey);
-                if (hikariData == null) {
-                    hikariData = transHikari(source);
-                    hikariDataSources.put(poolKey, hikariData);
-                }
-            }
-        }
+        // 只对同一个数据源加锁创建连接池，连接池个数和空闲淘汰由注册表管理
+        String displayName = String.format("url:%s,username:%s", rdbmsSourceDTO.getUrl(), rdbmsSourceDTO.getUsername());
+        return HikariPoolRegistry.getConnection(poolKey, displayName, () -> transHikari(source));
+    }
 
-        return hikariData.getConnection();
+    /**
+     * 是否使用 Kerberos 数据源的连接池
+     *
+     * @param source 数据源信息
+     * @return 开启连接池且配置了 kerberos 时返回 true
+     */
+    protected boolean isKerberosCp(RdbmsSourceDTO source) {
+        return source.getPoolConfig() != null && MapUtils.isNotEmpty(source.getKerberosConfig());
+    }
+
+    /**
+     * 从 Kerberos 数据源的连接池获取连接，连接池按 principal 区分
+     * <p>
+     * 物理连接由 creator 在 principal 对应的 UGI doAs 中创建，连接的最大存活时间不超过票据有效期的一半，
+     * 保证连接在票据过期之前被替换
+     *
+     * @param source         数据源信息
+     * @param taskParams     任务参数，和 schema 一起参与连接池 key 的计算，避免切换过 schema 的连接被其他 schema 复用
+     * @param principal      kerberos principal
+     * @param ticketLifetime 票据有效期，单位：毫秒，为 null 时只使用连接池配置的最大存活时间
+     * @param creator        物理连接创建方法
+     * @return 连接
+     * @throws Exception 获取连接异常
+     */
+    protected Connection getKerberosCpConn(RdbmsSourceDTO source, String taskParams, String principal, Long ticketLifetime,
+                                           KerberosDataSource.ConnectionCreator creator) throws Exception {
+        String poolKey = String.format(KERBEROS_CP_POOL_KEY, getPrimaryKey(source), taskParams, source.getSchema(), principal);
+        String displayName = String.format("url:%s,principal:%s", source.getUrl(), principal);
+        log.info("datasource connected(Hikari), url : {}, principal : {}", source.getUrl(), principal);
+        return HikariPoolRegistry.getConnection(poolKey, displayName, () -> transKerberosHikari(source, ticketLifetime, creator));
     }
 
     /**
@@ -210,15 +236,7 @@ public class ConnFactory {
         hikariData.setUsername(rdbmsSourceDTO.getUsername());
         hikariData.setPassword(rdbmsSourceDTO.getPassword());
         hikariData.setJdbcUrl(rdbmsSourceDTO.getUrl());
-        hikariData.setConnectionInitSql(testSql);
-
-        hikariData.setConnectionTestQuery(testSql);
-        hikariData.setConnectionTimeout(rdbmsSourceDTO.getPoolConfig().getConnectionTimeout());
-        hikariData.setIdleTimeout(rdbmsSourceDTO.getPoolConfig().getIdleTimeout());
-        hikariData.setMaxLifetime(rdbmsSourceDTO.getPoolConfig().getMaxLifetime());
-        hikariData.setMaximumPoolSize(rdbmsSourceDTO.getPoolConfig().getMaximumPoolSize());
-        hikariData.setMinimumIdle(rdbmsSourceDTO.getPoolConfig().getMinimumIdle());
-        hikariData.setReadOnly(rdbmsSourceDTO.getPoolConfig().getReadOnly());
+        setPoolConfig(hikariData, rdbmsSourceDTO.getPoolConfig());
 
         Properties properties = PropertiesUtil.convertToProp(rdbmsSourceDTO);
         for (Object key : properties.keySet()) {
@@ -227,6 +245,37 @@ public class ConnFactory {
         return hikariData;
     }
 
+    /**
+     * Kerberos 数据源转化为 HikariDataSource，物理连接由 creator 创建
+     *
+     * @param source         数据源信息
+     * @param ticketLifetime 票据有效期，单位：毫秒
+     * @param creator        物理连接创建方法
+     * @return HikariDataSource
+     */
+    protected HikariDataSource transKerberosHikari(RdbmsSourceDTO source, Long ticketLifetime, KerberosDataSource.ConnectionCreator creator) {
+        HikariDataSource hikariData = new HikariDataSource();
+        hikariData.setDataSource(new KerberosDataSource(creator));
+        setPoolConfig(hikariData, source.getPoolConfig());
+        if (ticketLifetime != null && ticketLifetime > 0) {
+            // hikari 最大存活时间小于 30 秒时会重置为默认值
+            long maxLifetime = Math.max(MIN_MAX_LIFETIME, Math.min(hikariData.getMaxLifetime(), ticketLifetime / 2));
+            hikariData.setMaxLifetime(maxLifetime);
+        }
+        return hikariData;
+    }
+
+    private void setPoolConfig(HikariDataSource hikariData, PoolConfig poolConfig) {
+        hikariData.setConnectionInitSql(testSql);
+        hikariData.setConnectionTestQuery(testSql);
+        hikariData.setConnectionTimeout(poolConfig.getConnectionTimeout());
+        hikariData.setIdleTimeout(poolConfig.getIdleTimeout());
+        hikariData.setMaxLifetime(poolConfig.getMaxLifetime());
+        hikariData.setMaximumPoolSize(poolConfig.getMaximumPoolSize());
+        hikariData.setMinimumIdle(poolConfig.getMinimumIdle());
+        hikariData.setReadOnly(poolConfig.getReadOnly());
+    }
+
     protected String getDriverClassName(ISourceDTO source) {
         return driverName;
     }
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.rdbms;
+
+import com.dtstack.dtcenter.common.loader.common.DtClassThreadFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hikari 连接池注册表
+ * <p>
+ * 1. 按连接池 key 创建连接池，只对同一个 key 加锁，不同数据源之间创建连接池互不阻塞
+ * 2. 限制连接池的最大个数，超出时关闭最久未使用且没有活跃连接的连接池
+ * 3. 定时关闭长时间未使用且没有活跃连接的连接池
+ * 4. 提供当前存活连接池的信息查询
+ * <p>
+ * 最大个数和空闲时间可以通过系统参数 {@link #MAX_POOL_COUNT_KEY}、{@link #POOL_IDLE_TIMEOUT_KEY} 调整
+ */
+@Slf4j
+public class HikariPoolRegistry {
+
+    /**
+     * 连接池最大个数
+     */
+    public static final String MAX_POOL_COUNT_KEY = "dtloader.hikari.maxPoolCount";
+
+    /**
+     * 连接池最大空闲时间，单位：毫秒
+     */
+    public static final String POOL_IDLE_TIMEOUT_KEY = "dtloader.hikari.poolIdleTimeout";
+
+    private static final int DEFAULT_MAX_POOL_COUNT = 200;
+
+    private static final long DEFAULT_POOL_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+    private static final int MAX_POOL_COUNT = Math.max(1, NumberUtils.toInt(System.getProperty(MAX_POOL_COUNT_KEY), DEFAULT_MAX_POOL_COUNT));
+
+    private static final long POOL_IDLE_TIMEOUT = Math.max(TimeUnit.MINUTES.toMillis(1),
+            NumberUtils.toLong(System.getProperty(POOL_IDLE_TIMEOUT_KEY), DEFAULT_POOL_IDLE_TIMEOUT));
+
+    private static final Map<String, PoolEntry> POOLS = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService SCHEDULED_EXECUTOR = new ScheduledThreadPoolExecutor(1, new DtClassThreadFactory("hikariPoolEvict"));
+
+    static {
+        SCHEDULED_EXECUTOR.scheduleAtFixedRate(new IdlePoolEvictor(), 1, 1, TimeUnit.MINUTES);
+    }
+
+    private HikariPoolRegistry() {
+    }
+
+    /**
+     * 从 key 对应的连接池中获取连接，连接池不存在时创建
+     *
+     * @param poolKey     连接池唯一 key
+     * @param displayName 连接池展示名称，不能包含密码等敏感信息
+     * @param creator     连接池创建方法
+     * @return 连接
+     * @throws SQLException 获取连接异常
+     */
+    public static Connection getConnection(String poolKey, String displayName, Supplier<HikariDataSource> creator) throws SQLException {
+        PoolEntry entry = getOrCreate(poolKey, displayName, creator);
+        try {
+            return entry.getConnection();
+        } catch (SQLException e) {
+            if (!entry.dataSource.isClosed()) {
+                throw e;
+            }
+            // 获取连接时连接池刚好被淘汰关闭，重新创建一次
+            POOLS.remove(poolKey, entry);
+            return getOrCreate(poolKey, displayName, creator).getConnection();
+        }
+    }
+
+    private static PoolEntry getOrCreate(String poolKey, String displayName, Supplier<HikariDataSource> creator) {
+        PoolEntry entry = POOLS.get(poolKey);
+        if (Objects.nonNull(entry) && !entry.dataSource.isClosed()) {
+            return entry;
+        }
+        if (Objects.nonNull(entry)) {
+            POOLS.remove(poolKey, entry);
+        }
+        // computeIfAbsent 只锁定当前 key，HikariDataSource 在第一次获取连接时才初始化，创建本身不会建立连接
+        boolean[] created = {false};
+        entry = POOLS.computeIfAbsent(poolKey, key -> {
+            created[0] = true;
+            return new PoolEntry(displayName, creator.get());
+        });
+        if (created[0]) {
+            log.info("create hikari pool : {}, live pool count : {}", displayName, POOLS.size());
+            evictOverflow(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * 连接池个数超出限制时，按最近使用时间从早到晚关闭没有活跃连接的连接池
+     *
+     * @param current 当前新建的连接池，不参与淘汰
+     */
+    private static void evictOverflow(PoolEntry current) {
+        int overflow = POOLS.size() - MAX_POOL_COUNT;
+        if (overflow <= 0) {
+            return;
+        }
+        List<Map.Entry<String, PoolEntry>> candidates = new ArrayList<>(POOLS.entrySet());
+        candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccessTime));
+        for (Map.Entry<String, PoolEntry> candidate : candidates) {
+            if (overflow <= 0) {
+                break;
+            }
+            PoolEntry entry = candidate.getValue();
+            if (entry == current || entry.getActiveConnections() > 0) {
+                continue;
+            }
+            if (evict(candidate.getKey(), entry, "pool count exceeds " + MAX_POOL_COUNT)) {
+                overflow--;
+            }
+        }
+        if (overflow > 0) {
+            log.warn("hikari pool count {} exceeds max pool count {}, all other pools are in use", POOLS.size(), MAX_POOL_COUNT);
+        }
+    }
+
+    /**
+     * 从注册表中移除并关闭连接池
+     *
+     * @param poolKey 连接池唯一 key
+     * @param entry   连接池
+     * @param reason  关闭原因
+     * @return 是否由当前调用移除
+     */
+    private static boolean evict(String poolKey, PoolEntry entry, String reason) {
+        if (!POOLS.remove(poolKey, entry)) {
+            return false;
+        }
+        log.info("close hikari pool : {}, reason : {}", entry.displayName, reason);
+        try {
+            entry.dataSource.close();
+        } catch (Exception e) {
+            log.warn("close hikari pool {} error, {}", entry.displayName, e.getMessage(), e);
+        }
+        return true;
+    }
+
+    /**
+     * 获取当前存活的连接池信息
+     *
+     * @return 连接池信息
+     */
+    public static List<PoolInfo> getLivePools() {
+        List<PoolInfo> poolInfos = new ArrayList<>(POOLS.size());
+        for (PoolEntry entry : POOLS.values()) {
+            HikariPoolMXBean poolMXBean = entry.getPoolMXBean();
+            poolInfos.add(PoolInfo.builder()
+                    .name(entry.displayName)
+                    .createTime(entry.createTime)
+                    .lastAccessTime(entry.lastAccessTime)
+                    .activeConnections(Objects.isNull(poolMXBean) ? 0 : poolMXBean.getActiveConnections())
+                    .idleConnections(Objects.isNull(poolMXBean) ? 0 : poolMXBean.getIdleConnections())
+                    .totalConnections(Objects.isNull(poolMXBean) ? 0 : poolMXBean.getTotalConnections())
+                    .threadsAwaitingConnection(Objects.isNull(poolMXBean) ? 0 : poolMXBean.getThreadsAwaitingConnection())
+                    .build());
+        }
+        return poolInfos;
+    }
+
+    /**
+     * 当前存活的连接池个数
+     *
+     * @return 连接池个数
+     */
+    public static int getLivePoolCount() {
+        return POOLS.size();
+    }
+
+    /**
+     * 连接池信息
+     */
+    @Data
+    @Builder
+    public static class PoolInfo {
+
+        /**
+         * 连接池名称，不包含密码
+         */
+        private String name;
+
+        private long createTime;
+
+        /**
+         * 最近一次获取连接的时间
+         */
+        private long lastAccessTime;
+
+        private int activeConnections;
+
+        private int idleConnections;
+
+        private int totalConnections;
+
+        private int threadsAwaitingConnection;
+    }
+
+    private static class PoolEntry {
+
+        private final String displayName;
+
+        private final HikariDataSource dataSource;
+
+        private final long createTime;
+
+        private volatile long lastAccessTime;
+
+        private PoolEntry(String displayName, HikariDataSource dataSource) {
+            this.displayName = displayName;
+            this.dataSource = dataSource;
+            this.createTime = System.currentTimeMillis();
+            this.lastAccessTime = createTime;
+        }
+
+        private Connection getConnection() throws SQLException {
+            lastAccessTime = System.currentTimeMillis();
+            return dataSource.getConnection();
+        }
+
+        /**
+         * 连接池在第一次获取连接时才初始化，初始化之前为 null
+         */
+        private HikariPoolMXBean getPoolMXBean() {
+            try {
+                return dataSource.getHikariPoolMXBean();
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        private int getActiveConnections() {
+            HikariPoolMXBean poolMXBean = getPoolMXBean();
+            return Objects.isNull(poolMXBean) ? 0 : poolMXBean.getActiveConnections() + poolMXBean.getThreadsAwaitingConnection();
+        }
+    }
+
+    /**
+     * 关闭长时间未使用的连接池
+     */
+    static class IdlePoolEvictor implements Runnable {
+        @Override
+        public void run() {
+            try {
+                long now = System.currentTimeMillis();
+                for (Map.Entry<String, PoolEntry> poolEntry : POOLS.entrySet()) {
+                    PoolEntry entry = poolEntry.getValue();
+                    if (now - entry.lastAccessTime < POOL_IDLE_TIMEOUT || entry.getActiveConnections() > 0) {
+                        continue;
+                    }
+                    evict(poolEntry.getKey(), entry, String.format("idle more than %s ms", POOL_IDLE_TIMEOUT));
+                }
+            } catch (Exception e) {
+                log.error("evict idle hikari pool error", e);
+            }
+        }
+    }
+}
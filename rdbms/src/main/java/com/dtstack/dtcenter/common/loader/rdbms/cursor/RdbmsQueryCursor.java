@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.rdbms.cursor;
+
+import com.dtstack.dtcenter.common.loader.common.base.CallBack;
+import com.dtstack.dtcenter.common.loader.common.base.RowSchema;
+import com.dtstack.dtcenter.common.loader.common.utils.DBUtil;
+import com.dtstack.dtcenter.loader.IQueryCursor;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 关系型数据库流式查询游标
+ * 通过 fetchSize 让驱动使用服务端游标分批拉取数据，nextBatch 在同一个 ResultSet 上按批读取，
+ * 行格式和 {@link DBUtil#executeQuery} 保持一致
+ */
+@Slf4j
+public class RdbmsQueryCursor implements IQueryCursor {
+
+    private final Connection connection;
+
+    // 关闭游标时是否关闭连接，连接由缓存管理时不关闭
+    private final boolean closeConnection;
+
+    private final int batchSize;
+
+    private final CallBack<Object, Object> fieldProcess;
+
+    private List<String> columnNames = Collections.emptyList();
+
+    private RowSchema rowSchema;
+
+    private PreparedStatement statement;
+
+    private ResultSet resultSet;
+
+    // 游标是否还有未读取的数据，为 true 时 resultSet 停留在下一条待读取的数据上
+    private boolean hasNext;
+
+    // 连接原本的自动提交状态，关闭时还原
+    private Boolean originAutoCommit;
+
+    private boolean closed;
+
+    private RdbmsQueryCursor(Connection connection, boolean closeConnection, int batchSize, CallBack<Object, Object> fieldProcess) {
+        this.connection = connection;
+        this.closeConnection = closeConnection;
+        this.batchSize = batchSize;
+        this.fieldProcess = fieldProcess;
+    }
+
+    /**
+     * 执行查询并打开游标
+     *
+     * @param connection      连接
+     * @param closeConnection 关闭游标时是否关闭连接
+     * @param sql             查询 sql
+     * @param preFields       预编译字段
+     * @param fetchSize       驱动每次从服务端拉取的条数，为 null 或 0 时使用驱动默认值
+     * @param batchSize       每次 nextBatch 返回的条数
+     * @param limit           最大条数，为 null 时不限制
+     * @param queryTimeout    查询超时时间，单位：秒
+     * @param fieldProcess    字段处理
+     * @return 查询游标
+     */
+    public static RdbmsQueryCursor open(Connection connection, boolean closeConnection, String sql, List<Object> preFields,
+                                        Integer fetchSize, int batchSize, Integer limit, Integer queryTimeout,
+                                        CallBack<Object, Object> fieldProcess) {
+        RdbmsQueryCursor cursor = new RdbmsQueryCursor(connection, closeConnection, batchSize, fieldProcess);
+        try {
+            cursor.execute(sql, preFields, fetchSize, limit, queryTimeout);
+        } catch (Exception e) {
+            cursor.close();
+            throw new DtLoaderException(String.format("SQL executed exception, %s", e.getMessage()), e);
+        }
+        return cursor;
+    }
+
+    private void execute(String sql, List<Object> preFields, Integer fetchSize, Integer limit, Integer queryTimeout) throws Exception {
+        disableAutoCommit();
+        statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        //设置查询超时时间
+        if (Objects.nonNull(queryTimeout)) {
+            try {
+                statement.setQueryTimeout(queryTimeout);
+            } catch (Exception e) {
+                log.debug(String.format("statement set QueryTimeout exception,%s", e.getMessage()), e);
+            }
+        }
+        if (Objects.nonNull(limit) && limit > 0) {
+            statement.setMaxRows(limit);
+        }
+        if (Objects.nonNull(fetchSize) && fetchSize != 0) {
+            // mysql 需要设置为 Integer.MIN_VALUE 才会逐行流式读取，所以这里不限制为正数
+            statement.setFetchSize(fetchSize);
+        }
+        if (CollectionUtils.isNotEmpty(preFields)) {
+            for (int i = 0; i < preFields.size(); i++) {
+                statement.setObject(i + 1, preFields.get(i));
+            }
+        }
+        resultSet = statement.executeQuery();
+        // 字段名只处理一次，所有行共用
+        rowSchema = RowSchema.of(resultSet.getMetaData());
+        columnNames = rowSchema.getColumns();
+        hasNext = resultSet.next();
+    }
+
+    /**
+     * postgresql、greenplum 等驱动只有在关闭自动提交的事务中才会使用游标分批拉取数据
+     */
+    private void disableAutoCommit() {
+        try {
+            originAutoCommit = connection.getAutoCommit();
+            if (Boolean.TRUE.equals(originAutoCommit)) {
+                connection.setAutoCommit(false);
+            }
+        } catch (Exception e) {
+            originAutoCommit = null;
+            log.warn("disable autoCommit error, {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public List<Map<String, Object>> nextBatch() {
+        if (closed || !hasNext) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+        try {
+            while (hasNext && batch.size() < batchSize) {
+                batch.add(DBUtil.readRow(resultSet, rowSchema, fieldProcess));
+                hasNext = resultSet.next();
+            }
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("SQL executed exception, %s", e.getMessage()), e);
+        }
+        return batch;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        hasNext = false;
+        DBUtil.closeDBResources(resultSet, statement, null);
+        if (Boolean.TRUE.equals(originAutoCommit)) {
+            try {
+                // 还原自动提交，连接池中的连接归还后需要保持原状态
+                connection.setAutoCommit(true);
+            } catch (Exception e) {
+                log.warn("reset autoCommit error, {}", e.getMessage());
+            }
+        }
+        if (closeConnection) {
+            DBUtil.closeDBResources(null, null, connection);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.rdbms.downloader;
+
+import com.dtstack.dtcenter.common.loader.common.utils.SqlFormatUtil;
+import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.dto.Column;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
+import com.dtstack.dtcenter.loader.enums.RowCountMode;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import com.google.common.collect.Lists;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 关系型数据库分页下载器，各数据源只需要提供分页 sql、切换 schema 等方言
+ * <p>
+ * 总条数统计方式见 {@link RowCountMode}，非 EXACT 方式下 configure 不执行 count 和 limit 1 查询，
+ * 列信息从第一页数据中获取，是否读取完毕根据最后一页是否读满判断
+ * <p>
+ * 分页按已读条数作为 offset，readNextBatch 时一次查询 maxRows 条直接写入列式批数据，不再按固定页大小查询
+ */
+@Slf4j
+public abstract class AbsRdbmsPageDownloader implements IDownloader {
+
+    // 分页查询，一次一百条
+    protected static final int PAGE_SIZE = 100;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM (%s) temp";
+
+    protected final Connection connection;
+
+    protected final String sql;
+
+    protected final String schema;
+
+    protected final RowCountMode rowCountMode;
+
+    protected Statement statement;
+
+    protected int columnCount;
+
+    private final List<Column> columnNames = Lists.newArrayList();
+
+    // 已读取的条数，同时作为下一页的 offset
+    private long readLine;
+
+    // 总条数，为 null 表示还未统计
+    private Long totalLine;
+
+    // 非 EXACT 方式下 configure 时读取的第一页数据
+    private List<List<String>> firstPage;
+
+    // 读取到不满一页的数据说明已经读取完毕
+    private boolean lastPageRead;
+
+    // 是否已经估算过总条数，估算失败或不支持时不再重复估算
+    private boolean estimated;
+
+    // ESTIMATE 方式下估算的总条数，和准确的 totalLine 分开保存，读取完毕后不再返回
+    private Long estimatedTotalLine;
+
+    protected AbsRdbmsPageDownloader(Connection connection, String sql, String schema, RowCountMode rowCountMode) {
+        this.connection = connection;
+        this.sql = SqlFormatUtil.formatSql(sql);
+        this.schema = schema;
+        this.rowCountMode = Objects.isNull(rowCountMode) ? RowCountMode.EXACT : rowCountMode;
+    }
+
+    /**
+     * 数据源名称，用于异常信息
+     *
+     * @return 数据源名称
+     */
+    protected abstract String getSourceName();
+
+    /**
+     * 获取分页查询 sql
+     *
+     * @param offset 跳过的条数，从 0 开始
+     * @param limit  查询条数
+     * @return 分页 sql
+     */
+    protected abstract String getPageSql(long offset, int limit);
+
+    /**
+     * 获取只查询一条数据的 sql，EXACT 方式下用于获取列信息
+     *
+     * @return sql
+     */
+    protected abstract String getShowColumnsSql();
+
+    /**
+     * 获取切换 schema 的 sql，返回 null 则不切换
+     *
+     * @param schema schema
+     * @return 切换 schema 的 sql
+     */
+    protected String getSwitchSchemaSql(String schema) {
+        return null;
+    }
+
+    /**
+     * 通过执行计划/统计信息估算总条数，不支持时返回 null
+     *
+     * @return 估算的总条数
+     * @throws Exception 异常
+     */
+    protected Long estimateTotalLine() throws Exception {
+        return null;
+    }
+
+    /**
+     * 获取字段名
+     *
+     * @param metaData 结果集元数据
+     * @param index    字段下标，从 1 开始
+     * @return 字段名
+     * @throws SQLException 异常
+     */
+    protected String getColumnName(ResultSetMetaData metaData, int index) throws SQLException {
+        return metaData.getColumnName(index);
+    }
+
+    /**
+     * 分页 sql 在结果集末尾额外追加的字段数，如 oracle 的 ROWNUM，从分页结果集中获取列信息时需要去掉
+     *
+     * @return 额外字段数
+     */
+    protected int getPageSqlExtraColumnCount() {
+        return 0;
+    }
+
+    /**
+     * 切换 schema
+     *
+     * @throws SQLException 异常
+     */
+    protected void switchSchema() throws SQLException {
+        if (StringUtils.isEmpty(schema)) {
+            return;
+        }
+        String switchSchemaSql = getSwitchSchemaSql(schema);
+        if (StringUtils.isNotEmpty(switchSchemaSql)) {
+            statement.execute(switchSchemaSql);
+        }
+    }
+
+    @Override
+    public boolean configure() throws Exception {
+        if (Objects.isNull(connection) || StringUtils.isEmpty(sql)) {
+            throw new DtLoaderException("connection is close or sql is null");
+        }
+        statement = connection.createStatement();
+        switchSchema();
+        try {
+            if (RowCountMode.EXACT.equals(rowCountMode)) {
+                totalLine = queryTotalLine();
+                try (ResultSet columnsResultSet = statement.executeQuery(getShowColumnsSql())) {
+                    initColumns(columnsResultSet.getMetaData(), 0);
+                }
+            } else {
+                // 不单独查询列信息，直接读取第一页数据
+                firstPage = readPage(true);
+            }
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("build %s downloader message exception : %s", getSourceName(), e.getMessage()), e);
+        }
+        return true;
+    }
+
+    /**
+     * 执行 count 查询获取总条数
+     *
+     * @return 总条数
+     * @throws SQLException 异常
+     */
+    private long queryTotalLine() throws SQLException {
+        long count = 0;
+        try (ResultSet totalResultSet = statement.executeQuery(String.format(COUNT_SQL, sql))) {
+            while (totalResultSet.next()) {
+                count = totalResultSet.getLong(1);
+            }
+        }
+        return count;
+    }
+
+    private void initColumns(ResultSetMetaData metaData, int extraColumnCount) throws SQLException {
+        columnNames.clear();
+        columnCount = metaData.getColumnCount() - extraColumnCount;
+        for (int i = 1; i <= columnCount; i++) {
+            Column column = new Column();
+            column.setName(getColumnName(metaData, i));
+            column.setType(metaData.getColumnTypeName(i));
+            column.setIndex(i);
+            columnNames.add(column);
+        }
+    }
+
+    /**
+     * 读取下一页数据
+     *
+     * @param initColumns 是否根据本页结果集初始化列信息
+     * @return 本页数据
+     */
+    private List<List<String>> readPage(boolean initColumns) {
+        List<List<String>> pageTemp = new ArrayList<>(PAGE_SIZE);
+        queryPage(PAGE_SIZE, initColumns, resultSet -> {
+            List<String> columns = new ArrayList<>(columnCount);
+            for (int i = 1; i <= columnCount; i++) {
+                columns.add(resultSet.getString(i));
+            }
+            pageTemp.add(columns);
+        });
+        return pageTemp;
+    }
+
+    /**
+     * 从已读条数处查询下一页数据，逐行交给 rowHandler 处理
+     *
+     * @param limit       查询条数
+     * @param initColumns 是否根据本页结果集初始化列信息
+     * @param rowHandler  行处理
+     */
+    private void queryPage(int limit, boolean initColumns, RowHandler rowHandler) {
+        int rowNum = 0;
+        try (ResultSet resultSet = statement.executeQuery(getPageSql(readLine, limit))) {
+            if (initColumns) {
+                initColumns(resultSet.getMetaData(), getPageSqlExtraColumnCount());
+            }
+            while (resultSet.next()) {
+                rowHandler.handle(resultSet);
+                rowNum++;
+            }
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("read %s message exception : %s", getSourceName(), e.getMessage()), e);
+        }
+        readLine += rowNum;
+        if (rowNum < limit) {
+            lastPageRead = true;
+        }
+    }
+
+    @Override
+    public List<String> getMetaInfo() {
+        if (columnNames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return columnNames.stream().map(Column::getName).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<List<String>> readNext() {
+        if (Objects.nonNull(firstPage)) {
+            List<List<String>> page = firstPage;
+            firstPage = null;
+            return page;
+        }
+        return readPage(false);
+    }
+
+    @Override
+    public ColumnBatch readNextBatch(int maxRows) {
+        ColumnBatch.Builder builder = ColumnBatch.builder(getMetaInfo(), maxRows);
+        // 先消费 configure 时读取的第一页数据，剩余部分留给下一次读取
+        if (Objects.nonNull(firstPage)) {
+            int rowNum = Math.min(maxRows, firstPage.size());
+            for (int i = 0; i < rowNum; i++) {
+                builder.addRow(firstPage.get(i));
+            }
+            firstPage = rowNum < firstPage.size() ? new ArrayList<>(firstPage.subList(rowNum, firstPage.size())) : null;
+        }
+        while (!builder.isFull() && !reachedEnd()) {
+            queryPage(maxRows - builder.size(), false, resultSet -> {
+                for (int i = 1; i <= columnCount; i++) {
+                    builder.setValue(i - 1, resultSet.getString(i));
+                }
+                builder.endRow();
+            });
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean reachedEnd() {
+        if (Objects.nonNull(firstPage)) {
+            return false;
+        }
+        if (RowCountMode.EXACT.equals(rowCountMode)) {
+            return lastPageRead || readLine >= totalLine;
+        }
+        return lastPageRead;
+    }
+
+    @Override
+    public Long getTotalLine() {
+        // 已经读取完毕时已读条数即为总条数
+        if (lastPageRead) {
+            return readLine;
+        }
+        if (Objects.nonNull(totalLine)) {
+            return totalLine;
+        }
+        try {
+            if (RowCountMode.LAZY.equals(rowCountMode)) {
+                totalLine = queryTotalLine();
+            } else if (RowCountMode.ESTIMATE.equals(rowCountMode)) {
+                if (!estimated) {
+                    estimated = true;
+                    estimatedTotalLine = estimateTotalLine();
+                }
+                return estimatedTotalLine;
+            }
+        } catch (Exception e) {
+            log.warn("get {} total line error, rowCountMode : {}, {}", getSourceName(), rowCountMode, e.getMessage());
+        }
+        return totalLine;
+    }
+
+    @Override
+    public boolean close() throws Exception {
+        statement.close();
+        connection.close();
+        return true;
+    }
+
+    @Override
+    public String getFileName() {
+        return null;
+    }
+
+    @Override
+    public List<String> getContainers() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * 分页结果集的行处理
+     */
+    @FunctionalInterface
+    private interface RowHandler {
+
+        void handle(ResultSet resultSet) throws SQLException;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.rdbms.downloader;
+
+import com.dtstack.dtcenter.common.loader.common.utils.DBUtil;
+import com.dtstack.dtcenter.common.loader.common.utils.SqlFormatUtil;
+import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import com.google.common.collect.Lists;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 关系型数据库流式下载器
+ * 只执行一次查询 sql，通过 fetchSize 让驱动使用服务端游标分批拉取数据，readNext 在同一个 ResultSet 上按页读取，
+ * 避免分页下载时 limit offset 每页重新执行一次 sql
+ */
+@Slf4j
+public class RdbmsStreamDownloader implements IDownloader {
+
+    // 默认每次 readNext 返回的条数，和分页下载保持一致
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final List<String> columnNames = Lists.newArrayList();
+
+    private final Connection connection;
+
+    private final String sql;
+
+    // 切换 schema 的 sql，为空则不切换
+    private final String switchSchemaSql;
+
+    // 游标每次从服务端拉取的条数，为 null 则使用驱动默认值
+    private final Integer fetchSize;
+
+    private final int pageSize;
+
+    private Statement statement;
+
+    private ResultSet resultSet;
+
+    private int columnCount;
+
+    // 游标是否还有未读取的数据，为 true 时 resultSet 停留在下一条待读取的数据上
+    private boolean hasNext;
+
+    // 已读取的条数
+    private long readLine;
+
+    // 连接原本的自动提交状态，关闭时还原
+    private Boolean originAutoCommit;
+
+    public RdbmsStreamDownloader(Connection connection, String sql, String switchSchemaSql, Integer fetchSize) {
+        this(connection, sql, switchSchemaSql, fetchSize, DEFAULT_PAGE_SIZE);
+    }
+
+    public RdbmsStreamDownloader(Connection connection, String sql, String switchSchemaSql, Integer fetchSize, int pageSize) {
+        this.connection = connection;
+        this.sql = SqlFormatUtil.formatSql(sql);
+        this.switchSchemaSql = switchSchemaSql;
+        this.fetchSize = fetchSize;
+        this.pageSize = pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE;
+    }
+
+    @Override
+    public boolean configure() throws Exception {
+        if (Objects.isNull(connection) || StringUtils.isEmpty(sql)) {
+            throw new DtLoaderException("connection is close or sql is null");
+        }
+        try {
+            switchSchema();
+            disableAutoCommit();
+            statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            if (Objects.nonNull(fetchSize) && fetchSize != 0) {
+                // mysql 需要设置为 Integer.MIN_VALUE 才会逐行流式读取，所以这里不限制为正数
+                statement.setFetchSize(fetchSize);
+            }
+            resultSet = statement.executeQuery(sql);
+            //获取列信息
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            columnCount = metaData.getColumnCount();
+            for (int i = 1; i <= columnCount; i++) {
+                columnNames.add(metaData.getColumnLabel(i));
+            }
+            hasNext = resultSet.next();
+        } catch (Exception e) {
+            // 初始化失败时调用方拿不到下载器，需要在这里归还连接
+            releaseResources();
+            throw new DtLoaderException("build stream downloader message exception : " + e.getMessage(), e);
+        }
+        return true;
+    }
+
+    /**
+     * 切换 schema，需要在打开游标之前执行，mysql 流式读取时同一连接上不能再执行其他语句
+     */
+    private void switchSchema() throws SQLException {
+        if (StringUtils.isBlank(switchSchemaSql)) {
+            return;
+        }
+        Statement switchStatement = null;
+        try {
+            switchStatement = connection.createStatement();
+            switchStatement.execute(switchSchemaSql);
+        } catch (SQLException e) {
+            log.error("switch schema error, sql : {}", switchSchemaSql, e);
+            throw e;
+        } finally {
+            DBUtil.closeDBResources(null, switchStatement, null);
+        }
+    }
+
+    /**
+     * postgresql、greenplum 等驱动只有在关闭自动提交的事务中才会使用游标分批拉取数据
+     */
+    private void disableAutoCommit() {
+        try {
+            originAutoCommit = connection.getAutoCommit();
+            if (Boolean.TRUE.equals(originAutoCommit)) {
+                connection.setAutoCommit(false);
+            }
+        } catch (Exception e) {
+            originAutoCommit = null;
+            log.warn("disable autoCommit error, {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> getMetaInfo() {
+        return columnNames;
+    }
+
+    @Override
+    public List<List<String>> readNext() {
+        List<List<String>> pageTemp = new ArrayList<>(pageSize);
+        try {
+            while (hasNext && pageTemp.size() < pageSize) {
+                List<String> columns = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    columns.add(resultSet.getString(i));
+                }
+                pageTemp.add(columns);
+                hasNext = resultSet.next();
+            }
+        } catch (Exception e) {
+            throw new DtLoaderException("read stream message exception : " + e.getMessage(), e);
+        }
+        readLine += pageTemp.size();
+        return pageTemp;
+    }
+
+    @Override
+    public ColumnBatch readNextBatch(int maxRows) {
+        ColumnBatch.Builder builder = ColumnBatch.builder(columnNames, maxRows);
+        try {
+            while (hasNext && !builder.isFull()) {
+                for (int i = 1; i <= columnCount; i++) {
+                    builder.setValue(i - 1, resultSet.getString(i));
+                }
+                builder.endRow();
+                hasNext = resultSet.next();
+            }
+        } catch (Exception e) {
+            throw new DtLoaderException("read stream message exception : " + e.getMessage(), e);
+        }
+        readLine += builder.size();
+        return builder.build();
+    }
+
+    @Override
+    public boolean reachedEnd() {
+        return !hasNext;
+    }
+
+    /**
+     * 流式下载不执行 count 查询，读取完毕后返回已读条数
+     *
+     * @return 总条数
+     */
+    @Override
+    public Long getTotalLine() {
+        return hasNext ? null : readLine;
+    }
+
+    @Override
+    public boolean close() throws Exception {
+        releaseResources();
+        return true;
+    }
+
+    /**
+     * 关闭游标并还原自动提交后归还连接
+     */
+    private void releaseResources() {
+        DBUtil.closeDBResources(resultSet, statement, null);
+        resultSet = null;
+        statement = null;
+        if (Boolean.TRUE.equals(originAutoCommit)) {
+            try {
+                // 还原自动提交，连接池中的连接归还后需要保持原状态
+                connection.setAutoCommit(true);
+            } catch (Exception e) {
+                log.warn("reset autoCommit error, {}", e.getMessage());
+            }
+            originAutoCommit = null;
+        }
+        DBUtil.closeDBResources(null, null, connection);
+    }
+
+    @Override
+    public String getFileName() {
+        return null;
+    }
+
+    @Override
+    public List<String> getContainers() {
+        return Collections.emptyList();
+    }
+}
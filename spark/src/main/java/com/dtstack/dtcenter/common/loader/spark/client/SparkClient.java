@@ -28,6 +28,8 @@ import com.dtstack.dtcenter.common.loader.common.utils.SearchUtil;
 import com.dtstack.dtcenter.common.loader.common.utils.TableUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HadoopConfUtil;
 import com.dtstack.dtcenter.common.loader.hadoop.hdfs.HdfsOperator;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.ParallelSplitReader;
+import com.dtstack.dtcenter.common.loader.hadoop.hdfs.TextFieldTokenizer;
 import com.dtstack.dtcenter.common.loader.hadoop.util.KerberosLoginUtil;
 import com.dtstack.dtcenter.common.loader.rdbms.AbsRdbmsClient;
 import com.dtstack.dtcenter.common.loader.rdbms.ConnFactory;
@@ -427,6 +429,10 @@ public class SparkClient<T> extends AbsRdbmsClient<T> {
             throw new DtLoaderException("defaultFS incorrect format");
         }
         Configuration conf = HadoopConfUtil.getHdfsConf(sparkSourceDTO.getDefaultFS(), sparkSourceDTO.getConfig(), sparkSourceDTO.getKerberosConfig());
+        // 并发读取切片的参数
+        ParallelSplitReader.setSplitReadConf(conf, queryDTO);
+        // text 表的转义字符和 null 值
+        TextFieldTokenizer.setSerdeConf(conf, table);
         List<String> finalPartitions = partitions;
         return KerberosLoginUtil.loginWithUGI(sparkSourceDTO.getKerberosConfig()).doAs(
                 (PrivilegedAction<IDownloader>) () -> {
@@ -475,7 +481,7 @@ public class SparkClient<T> extends AbsRdbmsClient<T> {
 
         if (StringUtils.containsIgnoreCase(storageMode, "orc")) {
             SparkORCDownload sparkORCDownload = new SparkORCDownload(conf, tableLocation, columnNames,
-                    partitionColumns, needIndex, partitions, kerberosConfig);
+                    partitionColumns, needIndex, filterPartitions, partitions, kerberosConfig);
             sparkORCDownload.configure();
             return sparkORCDownload;
         }
@@ -617,6 +623,12 @@ public class SparkClient<T> extends AbsRdbmsClient<T> {
                 continue;
             }
 
+            // 转义字符和 null 值，属性名可能在 col_name 中，也可能在 data_type 中
+            if (TextFieldTokenizer.setSerdeProperty(tableInfo, colName.trim(), dataTypeOrigin)
+                    || TextFieldTokenizer.setSerdeProperty(tableInfo, dataType, MapUtils.getString(row, "comment", ""))) {
+                continue;
+            }
+
             // ThriftServer 2.4.x 处理存储属性里面 [field.delim=,, serialization.format=,]
             // ThriftServer 2.2.x 处理存储属性里面 [serialization.format=,, field.delim=,]
             if ("Storage Properties".equals(colName)) {
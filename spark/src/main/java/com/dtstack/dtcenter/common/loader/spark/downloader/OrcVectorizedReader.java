@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.common.loader.spark.downloader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.orc.OrcSplit;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hadoop.hive.serde2.io.HiveCharWritable;
+import org.apache.hadoop.hive.serde2.io.TimestampWritable;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.RecordReader;
+import org.apache.orc.TypeDescription;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * orc 切片的向量化读取
+ * <p>
+ * 通过 {@link RecordReader#nextBatch} 按批读取，只读取 needIndex 中的字段，直接从列向量转换为字符串，
+ * 转换结果和 OrcSerde 行式读取时 writable 的 toString 保持一致。
+ * <p>
+ * 以下情况返回 null，由调用方使用 OrcInputFormat 行式读取：
+ * 1. 通过 {@link #VECTORIZED_KEY} 关闭了向量化读取
+ * 2. acid 表的切片，行式读取时需要合并 delta 文件
+ * 3. 需要读取的字段中包含 map、array、struct、union 等复杂类型
+ */
+@Slf4j
+public class OrcVectorizedReader implements Closeable {
+
+    /**
+     * 是否开启 orc 向量化读取，默认开启
+     */
+    public static final String VECTORIZED_KEY = "dtloader.download.orc.vectorized";
+
+    private final RecordReader rows;
+
+    private final VectorizedRowBatch batch;
+
+    /**
+     * 按表字段索引存放转换器，不需要读取或者文件中不存在的字段为 null
+     */
+    private final ColumnConverter[] converters;
+
+    /**
+     * 当前行在批数据中的位置
+     */
+    private int rowInBatch = -1;
+
+    private OrcVectorizedReader(RecordReader rows, VectorizedRowBatch batch, ColumnConverter[] converters) {
+        this.rows = rows;
+        this.batch = batch;
+        this.converters = converters;
+    }
+
+    /**
+     * 打开切片的向量化读取，需要在 kerberos doAs 中调用
+     *
+     * @param split       orc 切片
+     * @param conf        配置
+     * @param columnCount 表字段个数，不包含分区字段
+     * @param needIndex   需要查询字段的索引，为空表示所有字段
+     * @return 向量化读取器，不支持向量化读取时返回 null
+     * @throws IOException 打开文件异常
+     */
+    public static OrcVectorizedReader open(OrcSplit split, JobConf conf, int columnCount, List<Integer> needIndex) throws IOException {
+        if (!conf.getBoolean(VECTORIZED_KEY, true)) {
+            return null;
+        }
+        if (!split.isOriginal() || CollectionUtils.isNotEmpty(split.getDeltas())) {
+            return null;
+        }
+        Reader reader = OrcFile.createReader(split.getPath(), OrcFile.readerOptions(conf));
+        TypeDescription schema = reader.getSchema();
+        if (schema.getCategory() != TypeDescription.Category.STRUCT) {
+            return null;
+        }
+        List<TypeDescription> children = schema.getChildren();
+        boolean[] include = new boolean[schema.getMaximumId() + 1];
+        include[0] = true;
+        ColumnConverter[] converters = new ColumnConverter[columnCount];
+        for (int index = 0; index < columnCount && index < children.size(); index++) {
+            if (CollectionUtils.isNotEmpty(needIndex) && !needIndex.contains(index)) {
+                continue;
+            }
+            TypeDescription type = children.get(index);
+            ColumnConverter converter = createConverter(type);
+            if (converter == null) {
+                log.info("orc file {} column {} type is {}, use row reader", split.getPath(), index, type);
+                return null;
+            }
+            converters[index] = converter;
+            Arrays.fill(include, type.getId(), type.getMaximumId() + 1, true);
+        }
+        RecordReader rows = reader.rows(new Reader.Options()
+                .include(include)
+                .range(split.getStart(), split.getLength()));
+        return new OrcVectorizedReader(rows, schema.createRowBatch(), converters);
+    }
+
+    /**
+     * 移动到下一行，当前批读完时读取下一批
+     *
+     * @return 是否还有数据
+     * @throws IOException 读取异常
+     */
+    public boolean next() throws IOException {
+        rowInBatch++;
+        while (rowInBatch >= batch.size) {
+            if (!rows.nextBatch(batch)) {
+                return false;
+            }
+            rowInBatch = 0;
+        }
+        return true;
+    }
+
+    /**
+     * 获取当前行指定字段的值
+     *
+     * @param index 表字段索引
+     * @return 字段值
+     */
+    public String getValue(int index) {
+        if (index >= converters.length || converters[index] == null) {
+            return null;
+        }
+        ColumnVector vector = batch.cols[index];
+        int row = vector.isRepeating ? 0 : rowInBatch;
+        if (!vector.noNulls && vector.isNull[row]) {
+            return null;
+        }
+        return converters[index].convert(vector, row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        rows.close();
+    }
+
+    /**
+     * 创建字段转换器，复杂类型返回 null
+     *
+     * @param type 字段类型
+     * @return 转换器
+     */
+    private static ColumnConverter createConverter(TypeDescription type) {
+        switch (type.getCategory()) {
+            case BOOLEAN:
+                return (vector, row) -> String.valueOf(((LongColumnVector) vector).vector[row] != 0);
+            case BYTE:
+                return (vector, row) -> String.valueOf((byte) ((LongColumnVector) vector).vector[row]);
+            case SHORT:
+                return (vector, row) -> String.valueOf((short) ((LongColumnVector) vector).vector[row]);
+            case INT:
+                return (vector, row) -> String.valueOf((int) ((LongColumnVector) vector).vector[row]);
+            case LONG:
+                return (vector, row) -> String.valueOf(((LongColumnVector) vector).vector[row]);
+            case FLOAT:
+                return (vector, row) -> String.valueOf((float) ((DoubleColumnVector) vector).vector[row]);
+            case DOUBLE:
+                return (vector, row) -> String.valueOf(((DoubleColumnVector) vector).vector[row]);
+            case STRING:
+            case VARCHAR:
+                return (vector, row) -> ((BytesColumnVector) vector).toString(row);
+            case CHAR:
+                // 读取时去掉了末尾的空格，和 HiveCharWritable 保持一致重新补齐
+                HiveCharWritable charWritable = new HiveCharWritable();
+                int maxLength = type.getMaxLength();
+                return (vector, row) -> {
+                    charWritable.set(((BytesColumnVector) vector).toString(row), maxLength);
+                    return charWritable.toString();
+                };
+            case BINARY:
+                return (vector, row) -> {
+                    BytesColumnVector bytesVector = (BytesColumnVector) vector;
+                    BytesWritable bytesWritable = new BytesWritable();
+                    bytesWritable.set(bytesVector.vector[row], bytesVector.start[row], bytesVector.length[row]);
+                    return bytesWritable.toString();
+                };
+            case DECIMAL:
+                return (vector, row) -> ((DecimalColumnVector) vector).vector[row].toString();
+            case DATE:
+                DateWritable dateWritable = new DateWritable();
+                return (vector, row) -> {
+                    dateWritable.set((int) ((LongColumnVector) vector).vector[row]);
+                    return dateWritable.toString();
+                };
+            case TIMESTAMP:
+                TimestampWritable timestampWritable = new TimestampWritable();
+                return (vector, row) -> {
+                    timestampWritable.set(((TimestampColumnVector) vector).asScratchTimestamp(row));
+                    return timestampWritable.toString();
+                };
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 列向量转换为字符串
+     */
+    @FunctionalInterface
+    private interface ColumnConverter {
+        String convert(ColumnVector vector, int row);
+    }
+}
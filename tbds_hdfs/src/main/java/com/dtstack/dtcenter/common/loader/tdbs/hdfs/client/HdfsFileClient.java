@@ -7,11 +7,12 @@ import com.dtstack.dtcenter.common.loader.tdbs.hdfs.downloader.HdfsORCDownload;
 import com.dtstack.dtcenter.common.loader.tdbs.hdfs.downloader.HdfsParquetDownload;
 import com.dtstack.dtcenter.common.loader.tdbs.hdfs.downloader.HdfsTextDownload;
 import com.dtstack.dtcenter.common.loader.tdbs.hdfs.downloader.YarnLogDownload.YarnTFileDownload;
+import com.dtstack.dtcenter.common.loader.tdbs.hdfs.fileMerge.core.CombineJob;
 import com.dtstack.dtcenter.common.loader.tdbs.hdfs.fileMerge.core.CombineMergeBuilder;
-import com.dtstack.dtcenter.common.loader.tdbs.hdfs.fileMerge.core.CombineServer;
 import com.dtstack.dtcenter.common.loader.tdbs.hdfs.hdfswriter.HdfsOrcWriter;
 import com.dtstack.dtcenter.common.loader.tdbs.hdfs.hdfswriter.HdfsParquetWriter;
 import com.dtstack.dtcenter.common.loader.tdbs.hdfs.hdfswriter.HdfsTextWriter;
+import com.dtstack.dtcenter.common.loader.tdbs.hdfs.util.ContentSummaryUtil;
 import com.dtstack.dtcenter.common.loader.tdbs.hdfs.util.SecurityUtils;
 import com.dtstack.dtcenter.common.loader.tdbs.hdfs.util.StringUtil;
 import com.dtstack.dtcenter.loader.IDownloader;
@@ -30,7 +31,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.ContentSummary;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.LocatedFileStatus;
@@ -224,15 +224,16 @@ public class HdfsFileClient implements IHdfsFile {
         return SecurityUtils.login(() -> {
             try {
                 Configuration conf = HadoopConfUtil.getHdfsConf(hdfsSourceDTO.getDefaultFS(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getKerberosConfig());
-                CombineServer build = new CombineMergeBuilder()
+                // 按分区目录并发合并，每个分区合并完成后单独提交
+                CombineJob job = new CombineMergeBuilder()
                         .sourcePath(src)
                         .mergedPath(mergePath)
                         .fileType(fileFormat)
                         .maxCombinedFileSize(maxCombinedFileSize)
                         .needCombineFileSizeLimit(needCombineFileSizeLimit)
                         .configuration(conf)
-                        .build();
-                build.combine();
+                        .buildJob();
+                job.run();
                 return true;
             } catch (Exception e) {
                 throw new DtLoaderException(String.format("File merge exception：%s", e.getMessage()), e);
@@ -422,34 +423,14 @@ public class HdfsFileClient implements IHdfsFile {
             throw new DtLoaderException("hdfs path cannot be empty！");
         }
         TbdsHdfsSourceDTO hdfsSourceDTO = (TbdsHdfsSourceDTO) source;
-        List<HDFSContentSummary> hdfsContentSummaries = Lists.newArrayList();
 
         return SecurityUtils.login(() -> {
             try {
                 Configuration conf = HadoopConfUtil.getHdfsConf(hdfsSourceDTO.getTbdsUsername(), hdfsSourceDTO.getTbdsSecureId(), hdfsSourceDTO.getTbdsSecureKey(), hdfsSourceDTO.getDefaultFS(), hdfsSourceDTO.getConfig(), hdfsSourceDTO.getKerberosConfig());
                 FileSystem fs = FileSystem.get(conf);
-                for (String hdfsDirPath : hdfsDirPaths) {
-                    Path hdfsPath = new Path(hdfsDirPath);
-                    if (!fs.exists(hdfsPath)) {
-                        log.warn("hdfs path : {} does not exist", hdfsDirPath);
-                        HDFSContentSummary contentSummaryEmpty = HDFSContentSummary.builder()
-                                .directoryCount(0L)
-                                .fileCount(0L)
-                                .ModifyTime(0L)
-                                .spaceConsumed(0L).build();
-                        hdfsContentSummaries.add(contentSummaryEmpty);
-                        continue;
-                    }
-                    org.apache.hadoop.fs.FileStatus fileStatus = fs.getFileStatus(hdfsPath);
-                    ContentSummary contentSummary = fs.getContentSummary(hdfsPath);
-                    HDFSContentSummary hdfsContentSummary = HDFSContentSummary.builder()
-                            .directoryCount(contentSummary.getDirectoryCount())
-                            .fileCount(contentSummary.getFileCount())
-                            .ModifyTime(fileStatus.getModificationTime())
-                            .spaceConsumed(contentSummary.getLength()).build();
-                    hdfsContentSummaries.add(hdfsContentSummary);
-                }
-                return hdfsContentSummaries;
+                return ContentSummaryUtil.getContentSummary(fs, hdfsDirPaths);
+            } catch (DtLoaderException e) {
+                throw e;
             } catch (Exception e) {
                 throw new DtLoaderException(String.format("Failed to obtain HDFS file information：%s", e.getMessage()), e);
             }
@@ -0,0 +1,256 @@
+package com.dtstack.dtcenter.common.loader.tdbs.hdfs.fileMerge.core;
+
+import com.dtstack.dtcenter.common.loader.common.DtClassThreadFactory;
+import com.dtstack.dtcenter.loader.enums.FileFormat;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按分区并发合并小文件
+ * <p>
+ * 1. 遍历源目录，包含文件的每个目录作为一个分区单独合并，非分区表只有源目录本身，以 . 或 _ 开头的目录不处理
+ * 2. 分区交给固定大小的线程池合并，线程池在调用方认证后的上下文中创建，合并线程继承调用方的认证信息
+ * 3. 分区先合并到临时目录，合并完成后提交到目标目录中相同的相对路径，合并或提交失败的分区不会在目标目录中留下部分结果，
+ * 提交在任务内串行执行：目标目录不存在时整个临时目录 rename，已存在时（如根目录或已提交子分区的父目录）逐个文件 rename，失败时将已移动的文件移回
+ * 4. 所有分区共用一个 FileSystem，任务结束后关闭
+ * 5. 每个分区提交后输出进度和吞吐
+ * <p>
+ * 并发数通过 hadoop 配置 {@link #PARALLELISM_KEY} 设置
+ */
+@Slf4j
+public class CombineJob {
+
+    /**
+     * 同时合并的分区数
+     */
+    public static final String PARALLELISM_KEY = "dtloader.file.merge.parallelism";
+
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private static final int MAX_PARALLELISM = 32;
+
+    private static final String STAGING_DIR_PREFIX = ".combine_staging_";
+
+    private final Path sourcePath;
+
+    private final Path mergedPath;
+
+    private final FileFormat fileFormat;
+
+    private final long needCombineFileSizeLimit;
+
+    private final long maxCombinedFileSize;
+
+    private final Configuration configuration;
+
+    /**
+     * 分区提交锁，避免子分区创建父目录和父分区 rename 目录交错执行
+     */
+    private final Object commitLock = new Object();
+
+    CombineJob(Path sourcePath, Path mergedPath, FileFormat fileFormat, long needCombineFileSizeLimit,
+               long maxCombinedFileSize, Configuration configuration) {
+        this.sourcePath = sourcePath;
+        this.mergedPath = mergedPath;
+        this.fileFormat = fileFormat;
+        this.needCombineFileSizeLimit = needCombineFileSizeLimit;
+        this.maxCombinedFileSize = maxCombinedFileSize;
+        this.configuration = configuration;
+    }
+
+    /**
+     * 合并所有分区，所有分区处理结束后，有分区合并失败时抛出异常，已经提交的分区保留
+     *
+     * @throws IOException 遍历源目录异常
+     */
+    public void run() throws IOException {
+        // hadoop 配置关闭了 FileSystem 缓存，所有分区共用一个实例，结束后关闭
+        try (FileSystem fs = FileSystem.get(configuration)) {
+            run(fs);
+        }
+    }
+
+    private void run(FileSystem fs) throws IOException {
+        // 分区目录 -> 分区下文件的总大小
+        Map<Path, Long> partitions = new LinkedHashMap<>();
+        collectPartitions(fs, fs.getFileStatus(sourcePath), partitions);
+        if (partitions.isEmpty()) {
+            log.info("There are no files to be merged in the source directory {}", sourcePath);
+            return;
+        }
+
+        int parallelism = Math.max(1, Math.min(Math.min(configuration.getInt(PARALLELISM_KEY, DEFAULT_PARALLELISM), MAX_PARALLELISM), partitions.size()));
+        long totalBytes = partitions.values().stream().mapToLong(Long::longValue).sum();
+        log.info("start combine {} partitions on {}, bytes : {}, parallelism : {}", partitions.size(), sourcePath, totalBytes, parallelism);
+
+        // 临时目录放在目标目录旁边，目标目录不存在时根分区也能整个目录 rename 提交
+        Path stagingRoot = mergedPath.getParent() == null ? new Path(mergedPath, STAGING_DIR_PREFIX + System.currentTimeMillis())
+                : new Path(mergedPath.getParent(), STAGING_DIR_PREFIX + mergedPath.getName() + "_" + System.currentTimeMillis());
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DtClassThreadFactory("combineJob"));
+        AtomicInteger finishedPartitions = new AtomicInteger();
+        AtomicLong finishedBytes = new AtomicLong();
+        long start = System.currentTimeMillis();
+        Map<Path, Future<?>> futures = new LinkedHashMap<>();
+        List<String> failures = new ArrayList<>();
+        try {
+            int partitionIndex = 0;
+            for (Map.Entry<Path, Long> partition : partitions.entrySet()) {
+                Path staging = new Path(stagingRoot, String.valueOf(partitionIndex++));
+                futures.put(partition.getKey(), executor.submit(() -> {
+                    ClassLoader origin = Thread.currentThread().getContextClassLoader();
+                    // 合并线程按需创建，显式使用创建任务时的类加载器，避免加载到其他插件的类
+                    Thread.currentThread().setContextClassLoader(contextClassLoader);
+                    try {
+                        combinePartition(fs, partition.getKey(), staging);
+                    } finally {
+                        Thread.currentThread().setContextClassLoader(origin);
+                    }
+                    int finished = finishedPartitions.incrementAndGet();
+                    long bytes = finishedBytes.addAndGet(partition.getValue());
+                    long cost = Math.max(1L, System.currentTimeMillis() - start);
+                    log.info("combine partition {} finished, progress : {}/{}, bytes : {}/{}, cost : {} ms, bytes/sec : {}",
+                            partition.getKey(), finished, partitions.size(), bytes, totalBytes, cost, bytes * 1000 / cost);
+                    return null;
+                }));
+            }
+            for (Map.Entry<Path, Future<?>> future : futures.entrySet()) {
+                try {
+                    future.getValue().get();
+                } catch (ExecutionException e) {
+                    log.error("combine partition {} error, {}", future.getKey(), e.getCause().getMessage(), e.getCause());
+                    failures.add(future.getKey() + " : " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DtLoaderException("combine job is interrupted", e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            fs.delete(stagingRoot, true);
+        }
+
+        if (!failures.isEmpty()) {
+            throw new DtLoaderException(String.format("combine %s of %s partitions failed：%s", failures.size(), partitions.size(), String.join("; ", failures)));
+        }
+        log.info("combine {} partitions on {} to {} successful", partitions.size(), sourcePath, mergedPath);
+    }
+
+    /**
+     * 查找包含文件的目录
+     */
+    private void collectPartitions(FileSystem fs, FileStatus directory, Map<Path, Long> partitions) throws IOException {
+        long bytes = 0L;
+        boolean hasFile = false;
+        for (FileStatus fileStatus : fs.listStatus(directory.getPath())) {
+            if (fileStatus.isDirectory()) {
+                String name = fileStatus.getPath().getName();
+                if (!name.startsWith(".") && !name.startsWith("_")) {
+                    collectPartitions(fs, fileStatus, partitions);
+                }
+            } else {
+                hasFile = true;
+                bytes += fileStatus.getLen();
+            }
+        }
+        if (hasFile) {
+            partitions.put(directory.getPath(), bytes);
+        }
+    }
+
+    /**
+     * 合并一个分区并提交到目标目录
+     *
+     * @param fs        文件系统
+     * @param partition 分区目录
+     * @param staging   分区的临时目录
+     */
+    private void combinePartition(FileSystem fs, Path partition, Path staging) throws IOException {
+        fs.mkdirs(staging);
+        CombineServer combineServer = new CombineMergeBuilder()
+                .sourcePath(partition.toString())
+                .mergedPath(staging.toString())
+                .fileType(fileFormat)
+                .maxCombinedFileSize(maxCombinedFileSize)
+                .needCombineFileSizeLimit(needCombineFileSizeLimit)
+                .configuration(configuration)
+                .fileSystem(fs)
+                .build();
+        // 子目录作为单独的分区合并
+        combineServer.setCopyDirectory(false);
+        combineServer.combine();
+
+        String relativePath = partition.toUri().getPath().substring(sourcePath.toUri().getPath().length());
+        while (relativePath.startsWith("/")) {
+            relativePath = relativePath.substring(1);
+        }
+        Path target = relativePath.isEmpty() ? mergedPath : new Path(mergedPath, relativePath);
+        commit(fs, staging, target);
+    }
+
+    /**
+     * 将临时目录提交到目标目录，串行执行，保证 exists 判断和 rename 之间目标目录不会被其他分区创建
+     * <p>
+     * 目标目录不存在时整个临时目录 rename，一次完成提交；
+     * 已存在时目录中包含其他分区的结果，无法整体替换，逐个文件 rename，任意文件失败时将已移动的文件移回临时目录
+     */
+    private void commit(FileSystem fs, Path staging, Path target) throws IOException {
+        synchronized (commitLock) {
+            if (!fs.exists(target)) {
+                fs.mkdirs(target.getParent());
+                if (!fs.rename(staging, target)) {
+                    throw new DtLoaderException(String.format("rename %s to %s failed", staging, target));
+                }
+                return;
+            }
+            List<Path[]> renamed = new ArrayList<>();
+            try {
+                for (FileStatus fileStatus : fs.listStatus(staging)) {
+                    Path targetFile = new Path(target, fileStatus.getPath().getName());
+                    // 目标已存在时 rename 文件会失败，rename 目录会移动到目标目录内部，提前判断
+                    if (fs.exists(targetFile) || !fs.rename(fileStatus.getPath(), targetFile)) {
+                        throw new DtLoaderException(String.format("rename %s to %s failed", fileStatus.getPath(), targetFile));
+                    }
+                    renamed.add(new Path[]{fileStatus.getPath(), targetFile});
+                }
+            } catch (IOException | RuntimeException e) {
+                rollback(fs, renamed);
+                throw e;
+            }
+            fs.delete(staging, true);
+        }
+    }
+
+    /**
+     * 将已提交的文件移回临时目录
+     */
+    private void rollback(FileSystem fs, List<Path[]> renamed) {
+        for (Path[] pair : renamed) {
+            try {
+                if (!fs.rename(pair[1], pair[0])) {
+                    log.error("rollback {} to {} failed", pair[1], pair[0]);
+                }
+            } catch (IOException e) {
+                log.error("rollback {} to {} failed, {}", pair[1], pair[0], e.getMessage(), e);
+            }
+        }
+    }
+}
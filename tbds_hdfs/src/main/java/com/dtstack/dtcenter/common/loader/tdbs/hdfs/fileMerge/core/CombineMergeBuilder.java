@@ -41,6 +41,11 @@ public class CombineMergeBuilder {
     private Configuration configuration;
 
 
+    /**
+     * 文件系统，为空时根据 hadoop 配置创建，由调用方负责关闭
+     */
+    private FileSystem fileSystem;
+
     /**
      * 合并后的文件的最大值
      */
@@ -81,6 +86,23 @@ public class CombineMergeBuilder {
         return this;
     }
 
+    public CombineMergeBuilder fileSystem(FileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+        return this;
+    }
+
+    /**
+     * 构建按分区并发合并的任务
+     */
+    public CombineJob buildJob() {
+        check();
+
+        CombineJob job = new CombineJob(new Path(sourcePath), new Path(mergedPath), fileFormat, needCombineFileSizeLimit,
+                maxCombinedFileSize, configuration);
+        log.info("combine job info, sourcePath : {}, mergedPath : {}, fileFormat : {}", sourcePath, mergedPath, fileFormat);
+        return job;
+    }
+
     public CombineServer build() throws IOException {
         check();
 
@@ -90,7 +112,7 @@ public class CombineMergeBuilder {
         combine.setConfiguration(configuration);
         combine.setNeedCombineFileSizeLimit(needCombineFileSizeLimit);
         combine.setMaxCombinedFileSize(maxCombinedFileSize);
-        combine.setFs(FileSystem.get(configuration));
+        combine.setFs(Objects.nonNull(fileSystem) ? fileSystem : FileSystem.get(configuration));
 
         log.info("combine info {}",combine);
         return combine;
@@ -6,13 +6,16 @@ import com.dtstack.dtcenter.common.loader.tdbs.hdfs.util.FileSystemUtils;
 import com.dtstack.dtcenter.loader.enums.FileFormat;
 import com.dtstack.dtcenter.loader.exception.DtLoaderException;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.CompressionKind;
 import org.apache.orc.OrcFile;
+import org.apache.orc.OrcProto;
 import org.apache.orc.Reader;
 import org.apache.orc.RecordReader;
+import org.apache.orc.StripeInformation;
 import org.apache.orc.TypeDescription;
 import org.apache.orc.Writer;
 
@@ -21,6 +24,9 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static java.math.BigDecimal.ROUND_HALF_UP;
@@ -43,21 +49,143 @@ public class OrcCombineServer extends CombineServer {
     protected void doCombine(ArrayList<FileStatus> combineFiles, Path mergedTempPath) throws IOException {
         init(combineFiles);
 
+        // schema、压缩格式、版本等信息和合并后文件一致的小文件直接按 stripe 拼接，不需要解码和重新压缩
+        List<FileStatus> stripeFiles = new ArrayList<>();
+        List<Reader> stripeReaders = new ArrayList<>();
+        List<FileStatus> rewriteFiles = new ArrayList<>();
+        List<Reader> rewriteReaders = new ArrayList<>();
+        for (FileStatus fileStatus : combineFiles) {
+            Reader reader = getReader(fileStatus);
+            if (isStripeCompatible(reader)) {
+                stripeFiles.add(fileStatus);
+                stripeReaders.add(reader);
+            } else {
+                rewriteFiles.add(fileStatus);
+                rewriteReaders.add(reader);
+            }
+        }
+
+        if (!stripeFiles.isEmpty()) {
+            long start = System.currentTimeMillis();
+            long bytes = appendStripes(stripeFiles, stripeReaders);
+            logThroughput("append stripes", stripeFiles.size(), bytes, start);
+        }
+        if (!rewriteFiles.isEmpty()) {
+            long start = System.currentTimeMillis();
+            rewriteRows(rewriteFiles, rewriteReaders);
+            logThroughput("rewrite rows", rewriteFiles.size(), rewriteFiles.stream().mapToLong(FileStatus::getLen).sum(), start);
+        }
+    }
+
+    /**
+     * 按 stripe 拼接文件，stripe 的数据和统计信息原样写入，合并后文件大小达到上限时切换文件
+     *
+     * @param files   需要合并的文件
+     * @param readers 文件对应的 reader
+     * @return 拼接的字节数
+     */
+    private long appendStripes(List<FileStatus> files, List<Reader> readers) {
+        Writer writer = null;
+        long currentBytes = 0L;
+        long totalBytes = 0L;
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                FileStatus fileStatus = files.get(i);
+                Reader reader = readers.get(i);
+                log.info("start append stripes of {}", fileStatus.getPath());
+                List<StripeInformation> stripes = reader.getStripes();
+                List<OrcProto.StripeStatistics> stripeStatistics = reader.getOrcProtoStripeStatistics();
+                // 已经写入当前文件 user metadata 的 writer
+                Writer metadataWriter = null;
+                try (FSDataInputStream inputStream = fs.open(fileStatus.getPath())) {
+                    for (int stripeIndex = 0; stripeIndex < stripes.size(); stripeIndex++) {
+                        StripeInformation stripe = stripes.get(stripeIndex);
+                        int length = (int) stripe.getLength();
+                        //写入后会超过合并后文件的大小上限时 先切换文件
+                        if (writer != null && currentBytes + length > maxCombinedFileSize) {
+                            currentBytes = 0L;
+                            writer.close();
+                            writer = null;
+                        }
+                        if (writer == null) {
+                            writer = getWriter(index++, mergedFileName, metaData.getSchema(), true);
+                        }
+                        if (metadataWriter != writer) {
+                            for (String key : reader.getMetadataKeys()) {
+                                writer.addUserMetadata(key, reader.getMetadataValue(key));
+                            }
+                            metadataWriter = writer;
+                        }
+                        byte[] buffer = new byte[length];
+                        inputStream.readFully(stripe.getOffset(), buffer, 0, length);
+                        writer.appendStripe(buffer, 0, length, stripe, stripeStatistics.get(stripeIndex));
+                        currentBytes += length;
+                        totalBytes += length;
+                        //如果达到了合并后文件的大小上限 此文件就不会再进行写入
+                        if (currentBytes >= maxCombinedFileSize) {
+                            currentBytes = 0L;
+                            writer.close();
+                            writer = null;
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("combine file failed,errorMessage :%s", e.getMessage()), e);
+        } finally {
+            cleanPackage(writer);
+        }
+        return totalBytes;
+    }
+
+    /**
+     * 按行解码后重新写入，用于 schema、压缩格式等信息不一致的文件
+     * 行数据只能写入 schema 相同的 writer，所以按 schema 分组，每组写入单独的文件
+     *
+     * @param files   需要合并的文件
+     * @param readers 文件对应的 reader
+     */
+    private void rewriteRows(List<FileStatus> files, List<Reader> readers) {
+        Map<TypeDescription, List<Integer>> schemaGroups = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            schemaGroups.computeIfAbsent(readers.get(i).getSchema(), schema -> new ArrayList<>()).add(i);
+        }
+        if (schemaGroups.size() > 1) {
+            log.warn("orc files to rewrite have {} different schemas, each schema is written to separate files", schemaGroups.size());
+        }
+        for (Map.Entry<TypeDescription, List<Integer>> schemaGroup : schemaGroups.entrySet()) {
+            List<FileStatus> groupFiles = new ArrayList<>();
+            List<Reader> groupReaders = new ArrayList<>();
+            for (Integer i : schemaGroup.getValue()) {
+                groupFiles.add(files.get(i));
+                groupReaders.add(readers.get(i));
+            }
+            rewriteRows(schemaGroup.getKey(), groupFiles, groupReaders);
+        }
+    }
+
+    /**
+     * 将 schema 相同的文件按行重新写入
+     *
+     * @param schema  文件的 schema
+     * @param files   需要合并的文件
+     * @param readers 文件对应的 reader
+     */
+    private void rewriteRows(TypeDescription schema, List<FileStatus> files, List<Reader> readers) {
         Writer writer = null;
         long currentCount = 0L;
 
         try {
-            for (FileStatus fileStatus : combineFiles) {
-                log.info("start read {}",fileStatus.getPath());
-                Reader reader = getReader(fileStatus);
+            for (int i = 0; i < files.size(); i++) {
+                log.info("start read {}", files.get(i).getPath());
+                Reader reader = readers.get(i);
 
                 RecordReader rows = reader.rows();
-                TypeDescription schema = reader.getSchema();
                 VectorizedRowBatch batch = schema.createRowBatch();
 
                 while (rows.nextBatch(batch)) {
                     if (writer == null) {
-                        writer = getWriter(index++, mergedFileName);
+                        writer = getWriter(index++, mergedFileName, schema, false);
                     }
                     currentCount += batch.size;
                     if (batch.size != 0) {
@@ -80,6 +208,27 @@ public class OrcCombineServer extends CombineServer {
         }
     }
 
+    /**
+     * 判断文件是否可以直接按 stripe 拼接到合并后的文件
+     *
+     * @param reader 文件 reader
+     * @return 是否可以按 stripe 拼接
+     */
+    private boolean isStripeCompatible(Reader reader) {
+        return reader.getCompressionKind() == metaData.getCompressionKind()
+                && reader.getCompressionSize() == metaData.getCompressionSize()
+                && reader.getFileVersion() == metaData.getFileVersion()
+                && reader.getWriterVersion() == metaData.getWriterVersion()
+                && reader.getRowIndexStride() == metaData.getRowIndexStride()
+                && reader.getSchema().equals(metaData.getSchema())
+                // 老版本文件可能没有 stripe 统计信息
+                && reader.getOrcProtoStripeStatistics().size() == reader.getStripes().size();
+    }
+
+    private void logThroughput(String mode, int fileCount, long bytes, long start) {
+        long cost = Math.max(1L, System.currentTimeMillis() - start);
+        log.info("{} of {} orc files finished, bytes : {}, cost : {} ms, bytes/sec : {}", mode, fileCount, bytes, cost, bytes * 1000 / cost);
+    }
 
     @Override
     public String getFileSuffix() {
@@ -107,7 +256,16 @@ public class OrcCombineServer extends CombineServer {
     }
 
 
-    private Writer getWriter(int index, String radonPath) throws IOException {
+    /**
+     * 创建合并后文件的 writer
+     *
+     * @param index        文件编号
+     * @param radonPath    文件名前缀
+     * @param schema       写入数据的 schema
+     * @param appendStripe 是否按 stripe 拼接，拼接时压缩格式、压缩块大小、索引间隔和版本需要和原文件一致
+     * @return writer
+     */
+    private Writer getWriter(int index, String radonPath, TypeDescription schema, boolean appendStripe) throws IOException {
 
         String combineFileName = mergedTempPath.toString() + File.separator
                 + radonPath + index + "." + getFileSuffix();
@@ -121,10 +279,15 @@ public class OrcCombineServer extends CombineServer {
                     .fileSystem(fs)
                     //Writer 操作单元，stripe 内容先写入内存，内存满了之后Flush到磁盘
                     .stripeSize(64L * 1024 * 1024)
-                    .setSchema(metaData.getSchema());
+                    .setSchema(schema);
 
             //设置压缩格式
-            if (metaData.isCompressed()) {
+            if (appendStripe) {
+                writerOptions.compress(metaData.getCompressionKind())
+                        .bufferSize(metaData.getCompressionSize())
+                        .rowIndexStride(metaData.getRowIndexStride())
+                        .version(metaData.getFileVersion());
+            } else if (metaData.isCompressed()) {
                 writerOptions.compress(CompressionKind.valueOf(metaData.geteCompressType().getType()));
             } else {
                 writerOptions.compress(CompressionKind.NONE);
@@ -161,6 +324,11 @@ public class OrcCombineServer extends CombineServer {
         orcMetaData.setSchema(reader.getSchema());
         orcMetaData.seteCompressType(ECompressType.getByTypeAndFileType(compressionKind.name(), "orc"));
         orcMetaData.setCompressed(orcMetaData.geteCompressType() != null && !compressionKind.equals(CompressionKind.NONE));
+        orcMetaData.setCompressionKind(compressionKind);
+        orcMetaData.setCompressionSize(reader.getCompressionSize());
+        orcMetaData.setFileVersion(reader.getFileVersion());
+        orcMetaData.setWriterVersion(reader.getWriterVersion());
+        orcMetaData.setRowIndexStride(reader.getRowIndexStride());
 
         long rowSize = reader.getNumberOfRows();
         BigDecimal divide = new BigDecimal(rowSize + "").divide(new BigDecimal(fileStatus.getLen() + ""), 8, ROUND_HALF_UP);
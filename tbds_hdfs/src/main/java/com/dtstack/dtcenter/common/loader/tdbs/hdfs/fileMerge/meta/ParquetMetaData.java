@@ -1,5 +1,6 @@
 package com.dtstack.dtcenter.common.loader.tdbs.hdfs.fileMerge.meta;
 
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.schema.MessageType;
 
 /**
@@ -9,6 +10,9 @@ public class ParquetMetaData extends FileMetaData {
     //新的parquet文件的schema
     private MessageType schema;
 
+    //column chunk 的压缩格式，schema 和压缩格式都相同的文件可以直接按 row group 拷贝
+    private CompressionCodecName codec;
+
     public MessageType getSchema() {
         return schema;
     }
@@ -16,4 +20,12 @@ public class ParquetMetaData extends FileMetaData {
     public void setSchema(MessageType schema) {
         this.schema = schema;
     }
+
+    public CompressionCodecName getCodec() {
+        return codec;
+    }
+
+    public void setCodec(CompressionCodecName codec) {
+        this.codec = codec;
+    }
 }
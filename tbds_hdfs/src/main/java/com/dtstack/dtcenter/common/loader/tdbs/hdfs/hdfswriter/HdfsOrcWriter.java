@@ -16,10 +16,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.common.type.HiveDecimal;
-import org.apache.hadoop.hive.ql.io.orc.OrcFile;
-import org.apache.hadoop.hive.ql.io.orc.Writer;
 import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
-import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.StructTypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
@@ -29,7 +26,6 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
-import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -44,11 +40,6 @@ public class HdfsOrcWriter {
 
     private static final Logger logger = LoggerFactory.getLogger(HdfsOrcWriter.class);
 
-    /**
-     * 10行刷新到远程一次
-     **/
-    public static final int FLUSH_LINE_NUM = 1000;
-
     /**
      * 按位置写入
      *
@@ -71,13 +62,16 @@ public class HdfsOrcWriter {
         String typeInfoStr = buildTypeInfo(hdfsWriterDTO.getColumnsList());
 
         TypeInfo typeInfo = TypeInfoUtils.getTypeInfoFromTypeString(typeInfoStr);
-        ObjectInspector inspector = TypeInfoUtils.getStandardJavaObjectInspectorFromTypeInfo(typeInfo);
-        OrcFile.WriterOptions options = OrcFile.writerOptions(conf).inspector(inspector);
-        List<TypeInfo> structList = ((StructTypeInfo) typeInfo).getAllStructFieldTypeInfos();
+
+        int parallelism = ParallelCsvImporter.getParallelism(hdfsWriterDTO);
+        if (parallelism > 1) {
+            return ParallelCsvImporter.writeByPos(hdfsSourceDTO, hdfsWriterDTO, parallelism,
+                    (partPath, partWriterDTO) -> OrcBatchWriter.create(conf, partPath, (StructTypeInfo) typeInfo, partWriterDTO));
+        }
 
         //FIXME 暂时根据uuid生成文件名称--需要改成和hive原始的名称eg: part-0000
         Path path = new Path(hdfsWriterDTO.getHdfsDirPath(), UUID.randomUUID().toString());
-        Writer writer = OrcFile.createWriter(path, options);
+        OrcBatchWriter writer = OrcBatchWriter.create(conf, path, (StructTypeInfo) typeInfo, hdfsWriterDTO);
         int writeLineNum = 0;
         int currLineNum = 0;
 
@@ -92,24 +86,8 @@ public class HdfsOrcWriter {
                     continue;
                 }
 
-                String[] lineArray = reader.getValues();
-                int size = 0;
-                if (lineArray.length > hdfsWriterDTO.getColumnsList().size()) {
-                    size = hdfsWriterDTO.getColumnsList().size();
-                } else {
-                    size = lineArray.length;
-                }
-
-                List<Object> targetList = Lists.newArrayList();
-                for (int i = 0; i < size; i++) {
-                    targetList.add(HdfsWriter.convertToTargetType(structList.get(i).getTypeName(), lineArray[i], hdfsWriterDTO.getKeyList().get(i).getDateFormat(), hdfsWriterDTO));
-                }
-
-                writer.addRow(targetList);
-                if (writeLineNum % FLUSH_LINE_NUM == 0) {
-                    writer.writeIntermediateFooter();
-                }
-
+                // 超出表字段个数的部分忽略，不足的字段写入 null
+                writer.write(reader.getValues());
                 writeLineNum++;
             }
         } catch (Exception e) {
@@ -151,17 +129,14 @@ public class HdfsOrcWriter {
 
         int startLine = hdfsWriterDTO.getStartLine();
         TypeInfo typeInfo = TypeInfoUtils.getTypeInfoFromTypeString(typeInfoStr);
-        ObjectInspector inspector = TypeInfoUtils.getStandardJavaObjectInspectorFromTypeInfo(typeInfo);
-        OrcFile.WriterOptions options = OrcFile.writerOptions(conf).inspector(inspector);
 
         //FIXME 暂时根据uuid生成文件名称--需要改成和hive原始的名称eg: part-0000
         Path path = new Path(hdfsWriterDTO.getHdfsDirPath(), UUID.randomUUID().toString());
-        Writer writer = OrcFile.createWriter(path, options);
+        OrcBatchWriter writer = OrcBatchWriter.create(conf, path, (StructTypeInfo) typeInfo, hdfsWriterDTO);
 
         int currLineNum = 0;
         int writeLineNum = 0;
         List<Integer> indexList = Lists.newArrayList();
-        List<TypeInfo> structList = ((StructTypeInfo) typeInfo).getAllStructFieldTypeInfos();
 
         InputStreamReader inputStreamReader = null;
         CsvReader reader = null;
@@ -209,25 +184,17 @@ public class HdfsOrcWriter {
                     continue;
                 }
 
-                Object[] recordArr = new Object[indexList.size()];
+                String[] recordArr = new String[indexList.size()];
 
                 for (int i = 0; i < indexList.size(); i++) {
                     Integer index = indexList.get(i);
-                    String val = null;
                     //根据schema进行类型转换
                     if (index != -1 && index <= (columnArr.length - 1)) {
-                        val = columnArr[index].trim();
+                        recordArr[i] = columnArr[index].trim();
                     }
-
-                    TypeInfo struct = structList.get(i);
-                    Object record = HdfsWriter.convertToTargetType(struct.getTypeName(), val, hdfsWriterDTO.getKeyList().get(i).getDateFormat(), hdfsWriterDTO);
-                    recordArr[i] = record;
                 }
 
-                writer.addRow(Arrays.asList(recordArr));
-                if (writeLineNum % FLUSH_LINE_NUM == 0) {
-                    writer.writeIntermediateFooter();
-                }
+                writer.write(recordArr);
 
                 currLineNum++;
                 writeLineNum++;
@@ -0,0 +1,289 @@
+package com.dtstack.dtcenter.common.loader.tdbs.hdfs.hdfswriter;
+
+import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
+import com.dtstack.dtcenter.loader.dto.HDFSImportColumn;
+import com.dtstack.dtcenter.loader.dto.HdfsWriterDTO;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.CharTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.DecimalTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.StructTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.VarcharTypeInfo;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+/**
+ * orc 文件按批写入
+ * <p>
+ * 直接将 csv 解析出的字段写入 {@link VectorizedRowBatch} 的列向量，批满后整批写入，
+ * 不经过 ObjectInspector 逐行转换，也不会每写入一部分数据就写一次中间 footer。
+ * 字段值的转换规则和 {@link HdfsWriter#convertToTargetType} 保持一致
+ */
+public class OrcBatchWriter implements ParallelCsvImporter.PartWriter {
+
+    private static final int DEFAULT_BATCH_SIZE = VectorizedRowBatch.DEFAULT_SIZE;
+
+    private final Writer writer;
+
+    private final VectorizedRowBatch batch;
+
+    private final ColumnSetter[] setters;
+
+    /**
+     * 空白字段设置默认值时使用的值，为 null 表示写入 null
+     */
+    private final String[] defaultValues;
+
+    private final boolean isSetDefault;
+
+    private OrcBatchWriter(Writer writer, VectorizedRowBatch batch, ColumnSetter[] setters, String[] defaultValues, boolean isSetDefault) {
+        this.writer = writer;
+        this.batch = batch;
+        this.setters = setters;
+        this.defaultValues = defaultValues;
+        this.isSetDefault = isSetDefault;
+        batch.reset();
+    }
+
+    /**
+     * 创建 orc 文件
+     *
+     * @param conf          hadoop 配置
+     * @param path          文件路径
+     * @param typeInfo      表结构
+     * @param hdfsWriterDTO hdfs 写入配置类
+     * @return orc 写入器
+     * @throws IOException 创建文件异常
+     */
+    public static OrcBatchWriter create(Configuration conf, Path path, StructTypeInfo typeInfo, HdfsWriterDTO hdfsWriterDTO) throws IOException {
+        List<String> names = typeInfo.getAllStructFieldNames();
+        List<TypeInfo> types = typeInfo.getAllStructFieldTypeInfos();
+        List<HDFSImportColumn> keyList = hdfsWriterDTO.getKeyList();
+        TypeDescription schema = TypeDescription.createStruct();
+        ColumnSetter[] setters = new ColumnSetter[types.size()];
+        String[] defaultValues = new String[types.size()];
+        for (int i = 0; i < types.size(); i++) {
+            TypeInfo type = types.get(i);
+            SimpleDateFormat dateFormat = keyList != null && i < keyList.size() ? keyList.get(i).getDateFormat() : null;
+            schema.addField(names.get(i), createType(type));
+            setters[i] = createSetter(type, dateFormat);
+            defaultValues[i] = getDefaultValue(type);
+        }
+
+        OrcFile.WriterOptions options = OrcFile.writerOptions(conf).setSchema(schema);
+        Long stripeSize = ReflectUtil.getFieldValueNotThrow(Long.class, hdfsWriterDTO, "orcStripeSize", null);
+        if (stripeSize != null && stripeSize > 0) {
+            options.stripeSize(stripeSize);
+        }
+        Integer batchSize = ReflectUtil.getFieldValueNotThrow(Integer.class, hdfsWriterDTO, "batchSize", DEFAULT_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+        Boolean isSetDefault = ReflectUtil.getFieldValueNotThrow(Boolean.class, hdfsWriterDTO, "setDefault", true, true);
+        Writer writer = OrcFile.createWriter(path, options);
+        return new OrcBatchWriter(writer, schema.createRowBatch(Math.max(1, batchSize)), setters, defaultValues, isSetDefault);
+    }
+
+    /**
+     * 写入一行数据，批满时整批写入文件
+     *
+     * @param values 字段值，按表字段顺序，长度不足的字段写入 null，超出的部分忽略
+     * @throws ParseException 日期类型解析异常
+     * @throws IOException    写入异常
+     */
+    @Override
+    public void write(String[] values) throws ParseException, IOException {
+        int row = batch.size;
+        for (int i = 0; i < setters.length; i++) {
+            ColumnVector vector = batch.cols[i];
+            if (i >= values.length) {
+                setNull(vector, row);
+                continue;
+            }
+            String value = values[i];
+            if (StringUtils.isBlank(value)) {
+                value = isSetDefault ? defaultValues[i] : null;
+            } else if (StringUtils.equalsIgnoreCase(value, HdfsWriter.DEFAULT_NULL)) {
+                value = null;
+            }
+            if (value == null) {
+                setNull(vector, row);
+            } else {
+                setters[i].set(vector, row, value);
+            }
+        }
+        batch.size++;
+        if (batch.size == batch.getMaxSize()) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (batch.size > 0) {
+            writer.addRowBatch(batch);
+            batch.reset();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void setNull(ColumnVector vector, int row) {
+        vector.noNulls = false;
+        vector.isNull[row] = true;
+    }
+
+    private static PrimitiveObjectInspector.PrimitiveCategory getCategory(TypeInfo typeInfo) {
+        if (!(typeInfo instanceof PrimitiveTypeInfo)) {
+            throw new DtLoaderException("not support of column type" + typeInfo.getTypeName());
+        }
+        return ((PrimitiveTypeInfo) typeInfo).getPrimitiveCategory();
+    }
+
+    private static TypeDescription createType(TypeInfo typeInfo) {
+        switch (getCategory(typeInfo)) {
+            case BYTE:
+                return TypeDescription.createByte();
+            case SHORT:
+                return TypeDescription.createShort();
+            case INT:
+                return TypeDescription.createInt();
+            case LONG:
+                return TypeDescription.createLong();
+            case BOOLEAN:
+                return TypeDescription.createBoolean();
+            case FLOAT:
+                return TypeDescription.createFloat();
+            case DOUBLE:
+                return TypeDescription.createDouble();
+            case DECIMAL:
+                DecimalTypeInfo decimalTypeInfo = (DecimalTypeInfo) typeInfo;
+                return TypeDescription.createDecimal()
+                        .withPrecision(decimalTypeInfo.getPrecision())
+                        .withScale(decimalTypeInfo.getScale());
+            case DATE:
+                return TypeDescription.createDate();
+            case TIMESTAMP:
+                return TypeDescription.createTimestamp();
+            case BINARY:
+                return TypeDescription.createBinary();
+            case CHAR:
+                return TypeDescription.createChar().withMaxLength(((CharTypeInfo) typeInfo).getLength());
+            case VARCHAR:
+                return TypeDescription.createVarchar().withMaxLength(((VarcharTypeInfo) typeInfo).getLength());
+            case STRING:
+                return TypeDescription.createString();
+            default:
+                throw new DtLoaderException("not support of column type" + typeInfo.getTypeName());
+        }
+    }
+
+    /**
+     * 创建字段写入器
+     */
+    private static ColumnSetter createSetter(TypeInfo typeInfo, SimpleDateFormat dateFormat) {
+        switch (getCategory(typeInfo)) {
+            case BYTE:
+                return (vector, row, value) -> ((LongColumnVector) vector).vector[row] = Byte.parseByte(value);
+            case SHORT:
+                return (vector, row, value) -> ((LongColumnVector) vector).vector[row] = Short.parseShort(value);
+            case INT:
+                return (vector, row, value) -> ((LongColumnVector) vector).vector[row] = Integer.parseInt(value);
+            case LONG:
+                return (vector, row, value) -> ((LongColumnVector) vector).vector[row] = Long.parseLong(value);
+            case BOOLEAN:
+                return (vector, row, value) -> ((LongColumnVector) vector).vector[row] = Boolean.parseBoolean(value) ? 1 : 0;
+            case FLOAT:
+                return (vector, row, value) -> ((DoubleColumnVector) vector).vector[row] = Float.parseFloat(value);
+            case DOUBLE:
+                return (vector, row, value) -> ((DoubleColumnVector) vector).vector[row] = Double.parseDouble(value);
+            case DECIMAL:
+                return (vector, row, value) -> {
+                    HiveDecimal decimal = HiveDecimal.create(new BigDecimal(value));
+                    if (decimal == null) {
+                        setNull(vector, row);
+                    } else {
+                        ((DecimalColumnVector) vector).set(row, decimal);
+                    }
+                };
+            case DATE:
+                return (vector, row, value) -> {
+                    // 格式必须符合'yyyy-MM-dd'
+                    Date date = dateFormat != null ? new Date(dateFormat.parse(value).getTime()) : Date.valueOf(value);
+                    ((LongColumnVector) vector).vector[row] = DateWritable.dateToDays(date);
+                };
+            case TIMESTAMP:
+                return (vector, row, value) -> {
+                    // 格式必须符合'yyyy-MM-dd HH:mm:ss'
+                    Timestamp timestamp = dateFormat != null ? new Timestamp(dateFormat.parse(value).getTime()) : Timestamp.valueOf(value);
+                    ((TimestampColumnVector) vector).set(row, timestamp);
+                };
+            default:
+                // binary 类型用文件类型导入只能导入字符串
+                return (vector, row, value) -> {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    ((BytesColumnVector) vector).setVal(row, bytes, 0, bytes.length);
+                };
+        }
+    }
+
+    /**
+     * 空白字段的默认值，和 {@link HdfsWriter#convertToTargetType} 保持一致
+     */
+    private static String getDefaultValue(TypeInfo typeInfo) {
+        switch (getCategory(typeInfo)) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return "0";
+            case BOOLEAN:
+                return "false";
+            case CHAR:
+            case VARCHAR:
+            case STRING:
+            case BINARY:
+                return "";
+            default:
+                // 日期、decimal 类型写入 null
+                return null;
+        }
+    }
+
+    /**
+     * 将字段值写入列向量
+     */
+    @FunctionalInterface
+    private interface ColumnSetter {
+        void set(ColumnVector vector, int row, String value) throws ParseException;
+    }
+}
@@ -0,0 +1,369 @@
+package com.dtstack.dtcenter.common.loader.tdbs.hdfs.hdfswriter;
+
+import com.csvreader.CsvReader;
+import com.dtstack.dtcenter.common.loader.common.DtClassThreadFactory;
+import com.dtstack.dtcenter.common.loader.common.utils.ReflectUtil;
+import com.dtstack.dtcenter.common.loader.tdbs.hdfs.HadoopConfUtil;
+import com.dtstack.dtcenter.loader.dto.HDFSImportColumn;
+import com.dtstack.dtcenter.loader.dto.HdfsWriterDTO;
+import com.dtstack.dtcenter.loader.dto.source.TbdsHdfsSourceDTO;
+import com.dtstack.dtcenter.loader.exception.DtLoaderException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 本地 csv 文件按位置并发导入 hdfs
+ * <p>
+ * 1. 跳过起始行之前的数据后，将剩余部分按字节切分为多段，每段的边界对齐到换行符之后
+ * 2. 线程池在调用方认证后的上下文中创建，导入线程继承调用方的认证信息，每段解析后写入单独的 part-xxxxx 文件
+ * 3. 任意一段导入失败时删除本次导入写入的所有文件
+ * <p>
+ * 按换行符切分要求字段值中不包含换行符，并且文件编码兼容 ascii，
+ * 通过 {@link HdfsWriterDTO} 的 parallelism 开启，小于等于 1 或者编码不支持时保持原先的串行导入
+ */
+@Slf4j
+public class ParallelCsvImporter {
+
+    private static final int MAX_PARALLELISM = 32;
+
+    /**
+     * 每段的最小字节数，文件较小时减少分段数
+     */
+    private static final long MIN_RANGE_BYTES = 16 * 1024 * 1024L;
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private static final int NEWLINE = '\n';
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * 获取并发导入的线程数
+     *
+     * @param hdfsWriterDTO hdfs 写入配置类
+     * @return 线程数，小于等于 1 时使用串行导入
+     */
+    public static int getParallelism(HdfsWriterDTO hdfsWriterDTO) {
+        Integer parallelism = ReflectUtil.getFieldValueNotThrow(Integer.class, hdfsWriterDTO, "parallelism", 1, 1);
+        if (parallelism <= 1) {
+            return 1;
+        }
+        // utf-16、utf-32 等编码中换行符不是单独的字节，无法按字节切分
+        Charset charset = Charset.forName(hdfsWriterDTO.getOriCharSet());
+        if (!new String(new byte[]{NEWLINE}, charset).equals("\n") || charset.name().startsWith("UTF-16") || charset.name().startsWith("UTF-32")) {
+            log.info("charset {} not support parallel import", charset);
+            return 1;
+        }
+        return Math.min(parallelism, MAX_PARALLELISM);
+    }
+
+    /**
+     * 按位置并发导入
+     *
+     * @param source        数据源信息
+     * @param hdfsWriterDTO hdfs 写入配置类
+     * @param parallelism   线程数
+     * @param factory       每段数据的写入器
+     * @return 写入条数
+     * @throws IOException io 异常
+     */
+    public static int writeByPos(TbdsHdfsSourceDTO source, HdfsWriterDTO hdfsWriterDTO, int parallelism, PartWriterFactory factory) throws IOException {
+        return writeByPos(source, hdfsWriterDTO, parallelism, "", factory);
+    }
+
+    /**
+     * 按位置并发导入
+     *
+     * @param source        数据源信息
+     * @param hdfsWriterDTO hdfs 写入配置类
+     * @param parallelism   线程数
+     * @param suffix        文件名后缀，如压缩格式的扩展名
+     * @param factory       每段数据的写入器
+     * @return 写入条数
+     * @throws IOException io 异常
+     */
+    public static int writeByPos(TbdsHdfsSourceDTO source, HdfsWriterDTO hdfsWriterDTO, int parallelism, String suffix, PartWriterFactory factory) throws IOException {
+        File file = new File(hdfsWriterDTO.getFromFileName());
+        if (!file.exists()) {
+            throw new DtLoaderException("file is not exist");
+        }
+        if (file.isDirectory()) {
+            throw new DtLoaderException("Cannot select folder");
+        }
+        int startLine = hdfsWriterDTO.getStartLine();
+        //首行是标题则内容从下一行开始
+        if (BooleanUtils.isTrue(hdfsWriterDTO.getTopLineIsTitle())) {
+            startLine++;
+        }
+        List<long[]> ranges = splitRanges(file, startLine, parallelism);
+        log.info("import {} by {} parts, bytes : {}", file, ranges.size(), file.length());
+
+        String jobId = UUID.randomUUID().toString();
+        List<Path> paths = new ArrayList<>(ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            paths.add(new Path(hdfsWriterDTO.getHdfsDirPath(), String.format("part-%05d-%s%s", i, jobId, suffix)));
+        }
+        Charset charset = Charset.forName(hdfsWriterDTO.getOriCharSet());
+        char delimiter = HdfsWriter.getDelim(hdfsWriterDTO.getFromLineDelimiter());
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(ranges.size(), ranges.size(), 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DtClassThreadFactory("parallelCsvImporter"));
+        long start = System.currentTimeMillis();
+        List<Future<Integer>> futures = new ArrayList<>(ranges.size());
+        // 任意一段失败后其他段在下一条记录前停止，不中断线程，避免中断共享 FileSystem 的 rpc 连接
+        AtomicBoolean failed = new AtomicBoolean(false);
+        int writeLineNum = 0;
+        Throwable failure = null;
+        try {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                Path path = paths.get(i);
+                int part = i;
+                futures.add(executor.submit(() -> {
+                    ClassLoader origin = Thread.currentThread().getContextClassLoader();
+                    // 导入线程按需创建，显式使用创建任务时的类加载器，避免加载到其他插件的类
+                    Thread.currentThread().setContextClassLoader(contextClassLoader);
+                    try {
+                        return writePart(file, range, charset, delimiter, factory.create(path, copyForPart(hdfsWriterDTO)), part, failed);
+                    } catch (Exception e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        Thread.currentThread().setContextClassLoader(origin);
+                    }
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                try {
+                    writeLineNum += future.get();
+                } catch (CancellationException e) {
+                    // 其他段失败后取消的任务
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                        // 有一段失败后未开始的段不再执行
+                        failed.set(true);
+                        futures.forEach(f -> f.cancel(false));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = e;
+                    failed.set(true);
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        if (failure != null) {
+            // 等待已经开始的写入结束后再删除
+            awaitTermination(executor);
+            deleteParts(source, paths);
+            throw new DtLoaderException(failure.getMessage(), failure);
+        }
+        long cost = Math.max(1L, System.currentTimeMillis() - start);
+        log.info("import {} finished, rows : {}, cost : {} ms, bytes/sec : {}", file, writeLineNum, cost, file.length() * 1000 / cost);
+        return writeLineNum;
+    }
+
+    /**
+     * 计算每段的起止位置
+     *
+     * @return [起始位置, 结束位置)
+     */
+    private static List<long[]> splitRanges(File file, int startLine, int parallelism) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            long length = randomAccessFile.length();
+            long dataStart = skipLines(randomAccessFile, startLine - 1);
+            long dataLength = length - dataStart;
+            int count = (int) Math.max(1, Math.min(parallelism, (dataLength + MIN_RANGE_BYTES - 1) / MIN_RANGE_BYTES));
+            long rangeStart = dataStart;
+            for (int i = 1; i <= count && rangeStart < length; i++) {
+                long rangeEnd = i == count ? length : nextLineStart(randomAccessFile, dataStart + dataLength * i / count);
+                if (rangeEnd > rangeStart) {
+                    ranges.add(new long[]{rangeStart, rangeEnd});
+                }
+                rangeStart = Math.max(rangeStart, rangeEnd);
+            }
+        }
+        if (ranges.isEmpty()) {
+            // 没有数据时仍然写入一个空文件，和串行导入保持一致
+            ranges.add(new long[]{0, 0});
+        }
+        return ranges;
+    }
+
+    /**
+     * 跳过 bom 和指定行数，返回数据的起始位置
+     */
+    private static long skipLines(RandomAccessFile file, int lines) throws IOException {
+        byte[] head = new byte[UTF8_BOM.length];
+        file.seek(0);
+        long position = file.read(head) == UTF8_BOM.length && head[0] == UTF8_BOM[0] && head[1] == UTF8_BOM[1] && head[2] == UTF8_BOM[2] ? UTF8_BOM.length : 0;
+        for (int i = 0; i < lines && position < file.length(); i++) {
+            position = nextLineStart(file, position);
+        }
+        return position;
+    }
+
+    /**
+     * 从指定位置查找下一行的起始位置
+     */
+    private static long nextLineStart(RandomAccessFile file, long position) throws IOException {
+        file.seek(position);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long offset = position;
+        int read;
+        while ((read = file.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == NEWLINE) {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return file.length();
+    }
+
+    private static int writePart(File file, long[] range, Charset charset, char delimiter, PartWriter partWriter, int part, AtomicBoolean failed) throws Exception {
+        int currLineNum = 0;
+        try (PartWriter writer = partWriter;
+             InputStream inputStream = openRange(file, range)) {
+            CsvReader reader = new CsvReader(new InputStreamReader(inputStream, charset), delimiter);
+            try {
+                while (!failed.get() && reader.readRecord()) {
+                    currLineNum++;
+                    writer.write(reader.getValues());
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (Exception e) {
+            throw new DtLoaderException(String.format("The %s row of part %s data is abnormal, please check：%s", currLineNum, part, e.getMessage()), e);
+        }
+        return currLineNum;
+    }
+
+    /**
+     * 复制写入配置，{@link SimpleDateFormat} 不是线程安全的，每段使用单独的实例
+     */
+    private static HdfsWriterDTO copyForPart(HdfsWriterDTO hdfsWriterDTO) {
+        HdfsWriterDTO partWriterDTO = hdfsWriterDTO.toBuilder().build();
+        if (hdfsWriterDTO.getKeyList() != null) {
+            List<HDFSImportColumn> keyList = new ArrayList<>(hdfsWriterDTO.getKeyList().size());
+            for (HDFSImportColumn importColumn : hdfsWriterDTO.getKeyList()) {
+                HDFSImportColumn partColumn = new HDFSImportColumn();
+                partColumn.setKey(importColumn.getKey());
+                partColumn.setFormat(importColumn.getFormat());
+                if (importColumn.getDateFormat() != null) {
+                    partColumn.setDateFormat((SimpleDateFormat) importColumn.getDateFormat().clone());
+                }
+                keyList.add(partColumn);
+            }
+            partWriterDTO.setKeyList(keyList);
+        }
+        return partWriterDTO;
+    }
+
+    private static InputStream openRange(File file, long[] range) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            long skipped = 0;
+            while (skipped < range[0]) {
+                long n = inputStream.skip(range[0] - skipped);
+                if (n <= 0) {
+                    throw new IOException("skip to " + range[0] + " failed");
+                }
+                skipped += n;
+            }
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+        return new BoundedInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE), range[1] - range[0]);
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor executor) {
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("wait for import threads terminated timeout");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteParts(TbdsHdfsSourceDTO source, List<Path> paths) {
+        try {
+            Configuration conf = HadoopConfUtil.getHdfsConf(source.getTbdsUsername(), source.getTbdsSecureId(), source.getTbdsSecureKey(), source.getDefaultFS(), source.getConfig(), source.getKerberosConfig());
+            FileSystem fs = FileSystem.get(conf);
+            for (Path path : paths) {
+                try {
+                    fs.delete(path, false);
+                } catch (IOException e) {
+                    log.warn("delete {} failed, {}", path, e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("delete imported parts failed, {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 一段数据的写入器
+     */
+    public interface PartWriter extends Closeable {
+
+        /**
+         * 写入一行数据
+         *
+         * @param values csv 解析出的字段值
+         * @throws Exception 转换或写入异常
+         */
+        void write(String[] values) throws Exception;
+    }
+
+    /**
+     * 根据文件路径创建写入器
+     */
+    @FunctionalInterface
+    public interface PartWriterFactory {
+
+        /**
+         * 创建一段数据的写入器
+         *
+         * @param path          写入的文件路径
+         * @param hdfsWriterDTO 该段单独使用的写入配置
+         * @return 写入器
+         * @throws IOException io 异常
+         */
+        PartWriter create(Path path, HdfsWriterDTO hdfsWriterDTO) throws IOException;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.loader.client.download;
+
+import com.dtstack.dtcenter.loader.IDownloader;
+import com.dtstack.dtcenter.loader.client.BaseTest;
+import com.dtstack.dtcenter.loader.client.ClientCache;
+import com.dtstack.dtcenter.loader.client.IClient;
+import com.dtstack.dtcenter.loader.client.IKerberos;
+import com.dtstack.dtcenter.loader.dto.ColumnBatch;
+import com.dtstack.dtcenter.loader.dto.SqlQueryDTO;
+import com.dtstack.dtcenter.loader.dto.source.HiveSourceDTO;
+import com.dtstack.dtcenter.loader.kerberos.HadoopConfTool;
+import com.dtstack.dtcenter.loader.source.DataSourceType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * hive 表下载吞吐测试，对比普通集群和 kerberos 集群下逐行读取、批量读取每秒的条数
+ */
+@Slf4j
+public class HiveDownloadBenchmarkTest extends BaseTest {
+
+    private static final int ROWS = 200000;
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final String[] STORE_TYPES = {"textfile", "orc", "parquet"};
+
+    private static final int WIDE_COLUMNS = 100;
+
+    private static final String WIDE_PARQUET_TABLE = "loader_download_benchmark_wide_parquet";
+
+    private static final IClient HIVE_CLIENT = ClientCache.getClient(DataSourceType.HIVE.getVal());
+
+    private static final HiveSourceDTO PLAIN_SOURCE = HiveSourceDTO.builder()
+            .url("jdbc:hive2://172.16.100.214:10000/default")
+            .schema("default")
+            .defaultFS("hdfs://ns1")
+            .username("admin")
+            .config("{\n" +
+                    "    \"dfs.ha.namenodes.ns1\": \"nn1,nn2\",\n" +
+                    "    \"dfs.namenode.rpc-address.ns1.nn2\": \"172.16.101.227:9000\",\n" +
+                    "    \"dfs.client.failover.proxy.provider.ns1\": \"org.apache.hadoop.hdfs.server.namenode.ha.ConfiguredFailoverProxyProvider\",\n" +
+                    "    \"dfs.namenode.rpc-address.ns1.nn1\": \"172.16.101.196:9000\",\n" +
+                    "    \"dfs.nameservices\": \"ns1\"\n" +
+                    "}")
+            .build();
+
+    private static final HiveSourceDTO KERBEROS_SOURCE = HiveSourceDTO.builder()
+            .url("jdbc:hive2://172.16.100.208:10000/default;principal=hive/master@DTSTACK.COM")
+            .defaultFS("hdfs://master:8020")
+            .build();
+
+    /**
+     * 数据准备
+     */
+    @BeforeClass
+    public static void beforeClass() {
+        System.setProperty("HADOOP_USER_NAME", "admin");
+        Map<String, Object> kerberosConfig = new HashMap<>();
+        kerberosConfig.put(HadoopConfTool.PRINCIPAL_FILE, "/hive.keytab");
+        kerberosConfig.put(HadoopConfTool.KEY_JAVA_SECURITY_KRB5_CONF, "/krb5.conf");
+        KERBEROS_SOURCE.setKerberosConfig(kerberosConfig);
+        String localKerberosPath = HiveDownloadBenchmarkTest.class.getResource("/eng-cdh3").getPath();
+        IKerberos kerberos = ClientCache.getKerberos(DataSourceType.HIVE.getVal());
+        kerberos.prepareKerberosForConnect(kerberosConfig, localKerberosPath);
+
+        for (String storeType : STORE_TYPES) {
+            prepareTable(PLAIN_SOURCE, storeType);
+            prepareTable(KERBEROS_SOURCE, storeType);
+        }
+        prepareWideParquetTable(PLAIN_SOURCE);
+        for (String storeType : STORE_TYPES) {
+            preparePartitionTable(PLAIN_SOURCE, storeType);
+        }
+    }
+
+    private static void prepareTable(HiveSourceDTO source, String storeType) {
+        String tableName = tableName(storeType);
+        HIVE_CLIENT.executeSqlWithoutResultSet(source, SqlQueryDTO.builder().sql("drop table if exists " + tableName).build());
+        HIVE_CLIENT.executeSqlWithoutResultSet(source, SqlQueryDTO.builder().sql(
+                String.format("create table %s (id int, name string, score double) row format delimited fields terminated by ',' stored as %s", tableName, storeType)).build());
+        HIVE_CLIENT.executeSqlWithoutResultSet(source, SqlQueryDTO.builder().sql(
+                String.format("insert into %s select pos, concat('loader_benchmark_', pos), pos / 3 from (select posexplode(split(space(%s), ' ')) as (pos, val)) t",
+                        tableName, ROWS - 1)).build());
+    }
+
+    /**
+     * 宽表：id + 100 个 double 字段
+     */
+    private static void prepareWideParquetTable(HiveSourceDTO source) {
+        StringBuilder columns = new StringBuilder("id int");
+        StringBuilder values = new StringBuilder("pos");
+        for (int i = 0; i < WIDE_COLUMNS; i++) {
+            columns.append(", c").append(i).append(" double");
+            values.append(", pos * ").append(i + 1);
+        }
+        HIVE_CLIENT.executeSqlWithoutResultSet(source, SqlQueryDTO.builder().sql("drop table if exists " + WIDE_PARQUET_TABLE).build());
+        HIVE_CLIENT.executeSqlWithoutResultSet(source, SqlQueryDTO.builder().sql(
+                String.format("create table %s (%s) stored as parquet", WIDE_PARQUET_TABLE, columns)).build());
+        HIVE_CLIENT.executeSqlWithoutResultSet(source, SqlQueryDTO.builder().sql(
+                String.format("insert into %s select %s from (select posexplode(split(space(%s), ' ')) as (pos, val)) t",
+                        WIDE_PARQUET_TABLE, values, ROWS - 1)).build());
+    }
+
+    /**
+     * 二级分区表，数据写入同一个分区
+     */
+    private static void preparePartitionTable(HiveSourceDTO source, String storeType) {
+        String tableName = partitionTableName(storeType);
+        HIVE_CLIENT.executeSqlWithoutResultSet(source, SqlQueryDTO.builder().sql("drop table if exists " + tableName).build());
+        HIVE_CLIENT.executeSqlWithoutResultSet(source, SqlQueryDTO.builder().sql(
+                String.format("create table %s (id int, name string, score double) partitioned by (pt string, hr string) row format delimited fields terminated by ',' stored as %s", tableName, storeType)).build());
+        HIVE_CLIENT.executeSqlWithoutResultSet(source, SqlQueryDTO.builder().sql(
+                String.format("insert into %s partition (pt = '20261017', hr = '08') select pos, concat('loader_benchmark_', pos), pos / 3 from (select posexplode(split(space(%s), ' ')) as (pos, val)) t",
+                        tableName, ROWS - 1)).build());
+    }
+
+    private static String partitionTableName(String storeType) {
+        return "loader_download_benchmark_part_" + storeType;
+    }
+
+    private static String tableName(String storeType) {
+        return "loader_download_benchmark_" + storeType;
+    }
+
+    @Test
+    public void readNextThroughput() throws Exception {
+        for (String storeType : STORE_TYPES) {
+            double plain = readNext(PLAIN_SOURCE, storeType);
+            double kerberos = readNext(KERBEROS_SOURCE, storeType);
+            log.info("{} readNext rows/sec, plain : {}, kerberos : {}", storeType, (long) plain, (long) kerberos);
+        }
+    }
+
+    @Test
+    public void readNextBatchThroughput() throws Exception {
+        for (String storeType : STORE_TYPES) {
+            double plain = readNextBatch(PLAIN_SOURCE, storeType);
+            double kerberos = readNextBatch(KERBEROS_SOURCE, storeType);
+            log.info("{} readNextBatch rows/sec, plain : {}, kerberos : {}", storeType, (long) plain, (long) kerberos);
+        }
+    }
+
+    /**
+     * 宽表只查询两个字段，parquet 只读取查询字段的 column chunk
+     */
+    @Test
+    public void wideParquetProjectionThroughput() throws Exception {
+        double all = readNextBatch(PLAIN_SOURCE, SqlQueryDTO.builder().tableName(WIDE_PARQUET_TABLE).build());
+        double projected = readNextBatch(PLAIN_SOURCE, SqlQueryDTO.builder().tableName(WIDE_PARQUET_TABLE)
+                .columns(Arrays.asList("id", "c50")).build(), batch -> {
+            Assert.assertEquals(Arrays.asList("id", "c50"), batch.getColumnNames());
+            for (int row = 0; row < batch.getRowCount(); row++) {
+                // c50 = id * 51
+                long id = Long.parseLong(batch.getValue(0, row));
+                Assert.assertEquals(id * 51, Double.parseDouble(batch.getValue(1, row)), 0D);
+            }
+        });
+        log.info("wide parquet readNextBatch rows/sec, all columns : {}, two columns : {}", (long) all, (long) projected);
+    }
+
+    /**
+     * 分区表逐行读取，每行都带分区字段的值
+     */
+    @Test
+    public void partitionTableReadNextThroughput() throws Exception {
+        for (String storeType : STORE_TYPES) {
+            double all = readNext(PLAIN_SOURCE, SqlQueryDTO.builder().tableName(partitionTableName(storeType)).build(),
+                    row -> assertPartitionRow(row, 5));
+            double projected = readNext(PLAIN_SOURCE, SqlQueryDTO.builder().tableName(partitionTableName(storeType))
+                    .columns(Arrays.asList("id", "pt", "hr")).build(), row -> assertPartitionRow(row, 3));
+            log.info("{} partition table readNext rows/sec, all columns : {}, id and partition columns : {}", storeType, (long) all, (long) projected);
+        }
+    }
+
+    /**
+     * 分区字段在每行的最后两列
+     */
+    private static void assertPartitionRow(List<String> row, int columnCount) {
+        Assert.assertEquals(columnCount, row.size());
+        Assert.assertEquals("20261017", row.get(columnCount - 2));
+        Assert.assertEquals("08", row.get(columnCount - 1));
+    }
+
+    /**
+     * 逐行读取，返回每秒条数
+     */
+    private static double readNext(HiveSourceDTO source, String storeType) throws Exception {
+        return readNext(source, SqlQueryDTO.builder().tableName(tableName(storeType)).build(), row -> Assert.assertNotNull(row));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double readNext(HiveSourceDTO source, SqlQueryDTO queryDTO, Consumer<List<String>> rowChecker) throws Exception {
+        IDownloader downloader = HIVE_CLIENT.getDownloader(source, queryDTO);
+        long start = System.nanoTime();
+        int rows = 0;
+        try {
+            while (!downloader.reachedEnd()) {
+                rowChecker.accept((List<String>) downloader.readNext());
+                rows++;
+            }
+        } finally {
+            downloader.close();
+        }
+        Assert.assertEquals(ROWS, rows);
+        return rowsPerSecond(rows, System.nanoTime() - start);
+    }
+
+    /**
+     * 批量读取，返回每秒条数
+     */
+    private static double readNextBatch(HiveSourceDTO source, String storeType) throws Exception {
+        return readNextBatch(source, SqlQueryDTO.builder().tableName(tableName(storeType)).build());
+    }
+
+    private static double readNextBatch(HiveSourceDTO source, SqlQueryDTO queryDTO) throws Exception {
+        return readNextBatch(source, queryDTO, batch -> {
+        });
+    }
+
+    private static double readNextBatch(HiveSourceDTO source, SqlQueryDTO queryDTO, Consumer<ColumnBatch> batchChecker) throws Exception {
+        IDownloader downloader = HIVE_CLIENT.getDownloader(source, queryDTO);
+        long start = System.nanoTime();
+        int rows = 0;
+        try {
+            ColumnBatch batch;
+            while (!(batch = downloader.readNextBatch(BATCH_SIZE)).isEmpty()) {
+                batchChecker.accept(batch);
+                rows += batch.getRowCount();
+            }
+        } finally {
+            downloader.close();
+        }
+        Assert.assertEquals(ROWS, rows);
+        return rowsPerSecond(rows, System.nanoTime() - start);
+    }
+
+    private static double rowsPerSecond(int rows, long nanos) {
+        return rows * 1_000_000_000D / Math.max(1, nanos);
+    }
+}
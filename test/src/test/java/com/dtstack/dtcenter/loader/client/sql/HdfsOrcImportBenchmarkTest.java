@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dtstack.dtcenter.loader.client.sql;
+
+import com.dtstack.dtcenter.loader.client.BaseTest;
+import com.dtstack.dtcenter.loader.client.ClientCache;
+import com.dtstack.dtcenter.loader.client.IHdfsFile;
+import com.dtstack.dtcenter.loader.dto.ColumnMetaDTO;
+import com.dtstack.dtcenter.loader.dto.HDFSImportColumn;
+import com.dtstack.dtcenter.loader.dto.HdfsWriterDTO;
+import com.dtstack.dtcenter.loader.dto.source.HdfsSourceDTO;
+import com.dtstack.dtcenter.loader.enums.FileFormat;
+import com.dtstack.dtcenter.loader.source.DataSourceType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * orc 文件导入吞吐测试，本地生成 GB 级别的 csv 文件后按位置写入 hdfs，行数通过 -Dbenchmark.rows 设置
+ */
+@Slf4j
+public class HdfsOrcImportBenchmarkTest extends BaseTest {
+
+    // 默认约 2GB
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 30_000_000);
+
+    private static final String HDFS_DIR = "/tmp/loader_orc_import_benchmark";
+
+    private static final IHdfsFile CLIENT = ClientCache.getHdfs(DataSourceType.HDFS.getVal());
+
+    private static final HdfsSourceDTO SOURCE = HdfsSourceDTO.builder()
+            .defaultFS("hdfs://ns1")
+            .config("{\n" +
+                    "    \"dfs.ha.namenodes.ns1\": \"nn1,nn2\",\n" +
+                    "    \"dfs.namenode.rpc-address.ns1.nn2\": \"172.16.101.227:9000\",\n" +
+                    "    \"dfs.client.failover.proxy.provider.ns1\": \"org.apache.hadoop.hdfs.server.namenode.ha.ConfiguredFailoverProxyProvider\",\n" +
+                    "    \"dfs.namenode.rpc-address.ns1.nn1\": \"172.16.101.196:9000\",\n" +
+                    "    \"dfs.nameservices\": \"ns1\"\n" +
+                    "}")
+            .build();
+
+    private static File csvFile;
+
+    /**
+     * 生成 csv 文件
+     */
+    @BeforeClass
+    public static void beforeClass() throws IOException {
+        System.setProperty("HADOOP_USER_NAME", "admin");
+        csvFile = File.createTempFile("loader_orc_import_benchmark", ".csv");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(csvFile), StandardCharsets.UTF_8), 1 << 20)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(i + ",loader_benchmark_" + i + "," + (i / 3D) + ",2026-10-17 12:00:" + String.format("%02d", i % 60) + "," + (i % 100000) + ".25");
+                writer.newLine();
+            }
+        }
+        log.info("csv file {} generated, bytes : {}", csvFile, csvFile.length());
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        CLIENT.delete(SOURCE, HDFS_DIR, true);
+        if (csvFile != null && !csvFile.delete()) {
+            log.warn("delete {} failed", csvFile);
+        }
+    }
+
+    @Test
+    public void writeOrcByPosThroughput() {
+        HdfsWriterDTO writerDTO = writerDTO();
+        long start = System.nanoTime();
+        int rows = CLIENT.writeByPos(SOURCE, writerDTO);
+        long nanos = Math.max(1, System.nanoTime() - start);
+        Assert.assertEquals(ROWS, rows);
+        log.info("orc writeByPos rows : {}, rows/sec : {}, MB/sec : {}", rows, (long) (rows * 1_000_000_000D / nanos),
+                (long) (csvFile.length() * 1_000_000_000D / nanos / 1024 / 1024));
+    }
+
+    /**
+     * 按行切分后并发写入多个 orc 文件
+     */
+    @Test
+    public void writeOrcByPosParallelThroughput() {
+        HdfsWriterDTO writerDTO = writerDTO();
+        writerDTO.setParallelism(4);
+        long start = System.nanoTime();
+        int rows = CLIENT.writeByPos(SOURCE, writerDTO);
+        long nanos = Math.max(1, System.nanoTime() - start);
+        Assert.assertEquals(ROWS, rows);
+        log.info("orc parallel writeByPos rows : {}, rows/sec : {}, MB/sec : {}", rows, (long) (rows * 1_000_000_000D / nanos),
+                (long) (csvFile.length() * 1_000_000_000D / nanos / 1024 / 1024));
+    }
+
+    private static HdfsWriterDTO writerDTO() {
+        String[][] columns = {{"id", "int"}, {"name", "string"}, {"score", "double"}, {"ts", "timestamp"}, {"amount", "decimal(10,2)"}};
+        List<HDFSImportColumn> keyList = new ArrayList<>();
+        List<ColumnMetaDTO> columnsList = new ArrayList<>();
+        for (String[] column : columns) {
+            HDFSImportColumn importColumn = new HDFSImportColumn();
+            importColumn.setKey(column[0]);
+            keyList.add(importColumn);
+            ColumnMetaDTO metaDTO = new ColumnMetaDTO();
+            metaDTO.setKey(column[0]);
+            metaDTO.setType(column[1]);
+            columnsList.add(metaDTO);
+        }
+        HdfsWriterDTO writerDTO = new HdfsWriterDTO();
+        writerDTO.setFileFormat(FileFormat.ORC.getVal());
+        writerDTO.setHdfsDirPath(HDFS_DIR);
+        writerDTO.setFromFileName(csvFile.getPath());
+        writerDTO.setFromLineDelimiter(",");
+        writerDTO.setOriCharSet("UTF-8");
+        writerDTO.setStartLine(1);
+        writerDTO.setTopLineIsTitle(false);
+        writerDTO.setKeyList(keyList);
+        writerDTO.setColumnsList(columnsList);
+        return writerDTO;
+    }
+}